@@ -0,0 +1,234 @@
+package com.panizio.agenda.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.panizio.agenda.AgendaApplication;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Teste de carga do POST /api/pfisica com a geocodificação síncrona atendida
+ * por um Nominatim falso que demora {@code atraso} para responder. Serve para
+ * comparar o servidor com threads de plataforma e com virtual threads (que só
+ * têm efeito em Java 21+):
+ *
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.panizio.agenda.benchmark.CargaPessoaFisica \
+ *     -Dexec.args="virtual=false concorrencia=1000 atraso=300ms duracao=20s"
+ * </pre>
+ *
+ * Sobe a aplicação em porta aleatória sobre um H2 em memória, com o envio de
+ * e-mails desligado. Cada requisição usa CPF, e-mail e CEP inéditos, para que
+ * nem o cache de CEPs nem o filtro de unicidade encurtem o caminho.
+ */
+public class CargaPessoaFisica {
+
+  private static final String RESPOSTA_GEOCODER = "[{\"lat\":\"-23.5614\",\"lon\":\"-46.6558\"}]";
+
+  public static void main(String[] args) throws Exception {
+    Map<String, String> opcoes = new HashMap<>(Map.of(
+        "virtual", "false",
+        "concorrencia", "1000",
+        "atraso", "300ms",
+        "aquecimento", "5s",
+        "duracao", "20s",
+        "pool-banco", "20"));
+    for (String arg : args) {
+      String[] chaveValor = arg.split("=", 2);
+      opcoes.put(chaveValor[0], chaveValor[1]);
+    }
+    boolean virtual = Boolean.parseBoolean(opcoes.get("virtual"));
+    int concorrencia = Integer.parseInt(opcoes.get("concorrencia"));
+    Duration atraso = duracao(opcoes.get("atraso"));
+    Duration aquecimento = duracao(opcoes.get("aquecimento"));
+    Duration medicao = duracao(opcoes.get("duracao"));
+
+    if (virtual && Runtime.version().feature() < 21) {
+      System.err.println("Aviso: virtual threads exigem Java 21; rodando com threads de plataforma.");
+    }
+
+    HttpServer geocoder = geocoderLento(atraso);
+    ConfigurableApplicationContext contexto = new SpringApplicationBuilder(AgendaApplication.class).run(
+        "--server.port=0",
+        "--spring.threads.virtual.enabled=" + virtual,
+        "--spring.datasource.url=jdbc:h2:mem:carga;DB_CLOSE_DELAY=-1",
+        "--spring.datasource.username=sa",
+        "--spring.datasource.password=",
+        "--spring.datasource.hikari.maximum-pool-size=" + opcoes.get("pool-banco"),
+        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "--spring.jpa.hibernate.ddl-auto=create-drop",
+        "--spring.jpa.show-sql=false",
+        "--spring.sql.init.mode=never",
+        "--agenda.geocoding.url=http://localhost:" + geocoder.getAddress().getPort() + "/search",
+        // O limite de consultas simultâneas protege a cota do Nominatim real; aqui
+        // ele mascararia o gargalo que se quer medir.
+        "--agenda.geocoding.max-concorrencia=" + concorrencia,
+        "--agenda.geocoding.espera-vaga=30s",
+        "--agenda.email.dispatcher.habilitado=false",
+        "--logging.level.root=warn");
+    int porta = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+
+    try {
+      Carga carga = new Carga(URI.create("http://localhost:" + porta + "/api/pfisica"), concorrencia);
+      carga.executar(aquecimento);
+      Resultado resultado = carga.executar(medicao);
+      System.out.printf("Java %d, virtual=%s, concorrencia=%d, atraso do geocoder=%d ms%n",
+          Runtime.version().feature(), virtual, concorrencia, atraso.toMillis());
+      resultado.imprimir(medicao);
+    } finally {
+      contexto.close();
+      geocoder.stop(0);
+    }
+  }
+
+  private static HttpServer geocoderLento(Duration atraso) throws IOException {
+    HttpServer servidor = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    byte[] corpo = RESPOSTA_GEOCODER.getBytes(StandardCharsets.UTF_8);
+    servidor.createContext("/search", troca -> {
+      try {
+        Thread.sleep(atraso.toMillis());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      troca.getResponseHeaders().set("Content-Type", "application/json");
+      troca.sendResponseHeaders(200, corpo.length);
+      try (OutputStream saida = troca.getResponseBody()) {
+        saida.write(corpo);
+      }
+    });
+    servidor.setExecutor(Executors.newCachedThreadPool());
+    servidor.start();
+    return servidor;
+  }
+
+  private static Duration duracao(String valor) {
+    if (valor.endsWith("ms")) {
+      return Duration.ofMillis(Long.parseLong(valor.substring(0, valor.length() - 2)));
+    }
+    return Duration.ofSeconds(Long.parseLong(valor.substring(0, valor.length() - 1)));
+  }
+
+  private static final class Carga {
+
+    private final URI uri;
+    private final int concorrencia;
+    private final HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final AtomicInteger proximo = new AtomicInteger();
+
+    Carga(URI uri, int concorrencia) {
+      this.uri = uri;
+      this.concorrencia = concorrencia;
+    }
+
+    Resultado executar(Duration duracao) throws Exception {
+      long fim = System.nanoTime() + duracao.toNanos();
+      ExecutorService clientes = Executors.newFixedThreadPool(concorrencia);
+      try {
+        List<Future<Resultado>> parciais = new ArrayList<>();
+        for (int i = 0; i < concorrencia; i++) {
+          parciais.add(clientes.submit(() -> cliente(fim)));
+        }
+        Resultado total = new Resultado();
+        for (Future<Resultado> parcial : parciais) {
+          total.somar(parcial.get());
+        }
+        return total;
+      } finally {
+        clientes.shutdownNow();
+      }
+    }
+
+    private Resultado cliente(long fim) {
+      Resultado resultado = new Resultado();
+      while (System.nanoTime() < fim) {
+        int n = proximo.getAndIncrement();
+        HttpRequest requisicao = HttpRequest.newBuilder(uri)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(corpo(n)))
+            .build();
+        long inicio = System.nanoTime();
+        try {
+          HttpResponse<Void> resposta = httpClient.send(requisicao, HttpResponse.BodyHandlers.discarding());
+          resultado.registrar(resposta.statusCode() == 201, System.nanoTime() - inicio);
+        } catch (IOException e) {
+          resultado.registrar(false, System.nanoTime() - inicio);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          break;
+        }
+      }
+      return resultado;
+    }
+
+    private static String corpo(int n) {
+      // CEPs a partir de 01000000, um por requisição.
+      String cep = String.format("%08d", 1_000_000 + n);
+      return "{\"cpf\":\"" + DadosBenchmark.cpf(n) + "\",\"nome\":\"Maria da Silva\","
+          + "\"dataNascimento\":\"1990-05-17\",\"telefone\":\"(11) 98765-4321\",\"cep\":\"" + cep + "\","
+          + "\"email\":\"carga" + n + "@exemplo.com.br\",\"endereco\":\"Avenida Paulista, 1000 - Bela Vista\"}";
+    }
+  }
+
+  private static final class Resultado {
+
+    private long[] latencias = new long[1024];
+    private int quantidade;
+    private int erros;
+
+    void registrar(boolean sucesso, long latenciaNanos) {
+      if (!sucesso) {
+        erros++;
+        return;
+      }
+      if (quantidade == latencias.length) {
+        latencias = Arrays.copyOf(latencias, quantidade * 2);
+      }
+      latencias[quantidade++] = latenciaNanos;
+    }
+
+    void somar(Resultado outro) {
+      latencias = Arrays.copyOf(latencias, quantidade + outro.quantidade);
+      System.arraycopy(outro.latencias, 0, latencias, quantidade, outro.quantidade);
+      quantidade += outro.quantidade;
+      erros += outro.erros;
+    }
+
+    void imprimir(Duration duracao) {
+      long[] ordenadas = Arrays.copyOf(latencias, quantidade);
+      Arrays.sort(ordenadas);
+      System.out.printf("  sucesso: %d, erros: %d, vazão: %.1f req/s%n", quantidade, erros,
+          quantidade / (duracao.toMillis() / 1000.0));
+      System.out.printf("  latência p50: %d ms, p99: %d ms, máx: %d ms%n", percentil(ordenadas, 0.50),
+          percentil(ordenadas, 0.99), percentil(ordenadas, 1.0));
+    }
+
+    private static long percentil(long[] ordenadas, double p) {
+      if (ordenadas.length == 0) {
+        return 0;
+      }
+      int indice = Math.min(ordenadas.length - 1, (int) Math.ceil(p * ordenadas.length) - 1);
+      return ordenadas[Math.max(indice, 0)] / 1_000_000;
+    }
+  }
+}
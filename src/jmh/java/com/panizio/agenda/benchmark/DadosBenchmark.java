@@ -0,0 +1,63 @@
+package com.panizio.agenda.benchmark;
+
+import java.util.Random;
+
+/**
+ * Pontos sintéticos usados pelos benchmarks de proximidade. A mesma semente
+ * gera os mesmos dados para o índice em memória e para o PostGIS.
+ */
+final class DadosBenchmark {
+
+  static final long SEMENTE = 20240501L;
+
+  private DadosBenchmark() {
+  }
+
+  /**
+   * Pontos distribuídos na região metropolitana de São Paulo e arredores,
+   * como pares {latitude, longitude}.
+   */
+  static double[][] gerarPontos(int quantidade) {
+    Random random = new Random(SEMENTE);
+    double[][] pontos = new double[quantidade][];
+    for (int i = 0; i < quantidade; i++) {
+      pontos[i] = new double[] { -24.0 + random.nextDouble() * 1.5, -47.5 + random.nextDouble() * 2.0 };
+    }
+    return pontos;
+  }
+
+  static double[][] gerarConsultas(int quantidade) {
+    Random random = new Random(SEMENTE + 1);
+    double[][] consultas = new double[quantidade][];
+    for (int i = 0; i < quantidade; i++) {
+      consultas[i] = new double[] { -23.9 + random.nextDouble() * 1.3, -47.3 + random.nextDouble() * 1.6 };
+    }
+    return consultas;
+  }
+
+  /** CPF válido e distinto para cada {@code n}, só com dígitos. */
+  static String cpf(int n) {
+    return comDigitosVerificadores(String.format("%09d", 100_000_000 + n),
+        new int[] { 11, 10, 9, 8, 7, 6, 5, 4, 3, 2 });
+  }
+
+  /** CNPJ válido e distinto para cada {@code n}, só com dígitos. */
+  static String cnpj(int n) {
+    return comDigitosVerificadores(String.format("%08d0001", 10_000_000 + n),
+        new int[] { 6, 5, 4, 3, 2, 9, 8, 7, 6, 5, 4, 3, 2 });
+  }
+
+  private static String comDigitosVerificadores(String base, int[] pesos) {
+    StringBuilder numero = new StringBuilder(base);
+    for (int verificador = 0; verificador < 2; verificador++) {
+      int deslocamento = pesos.length - numero.length();
+      int soma = 0;
+      for (int i = 0; i < numero.length(); i++) {
+        soma += (numero.charAt(i) - '0') * pesos[i + deslocamento];
+      }
+      int resto = soma % 11;
+      numero.append(resto < 2 ? 0 : 11 - resto);
+    }
+    return numero.toString();
+  }
+}
@@ -0,0 +1,91 @@
+package com.panizio.agenda.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.panizio.agenda.model.PaginaCursor;
+import com.panizio.agenda.model.PessoaFisica;
+
+/**
+ * Uma página da listagem de pessoas físicas em JSON, CBOR e Smile, com e sem
+ * gzip (como o Tomcat faz com {@code server.compression}): o tempo medido é o
+ * custo de CPU da serialização, e o tamanho de cada combinação sai no console
+ * ao preparar o benchmark ({@code bytes por página}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormatosBenchmark {
+
+  @Param({ "json", "cbor", "smile" })
+  String formato;
+
+  @Param({ "false", "true" })
+  boolean gzip;
+
+  @Param({ "500" })
+  int tamanho;
+
+  private ObjectMapper objectMapper;
+  private PaginaCursor<PessoaFisica> pagina;
+
+  @Setup
+  public void preparar() throws IOException {
+    Jackson2ObjectMapperBuilder builder = switch (formato) {
+      case "cbor" -> Jackson2ObjectMapperBuilder.cbor();
+      case "smile" -> Jackson2ObjectMapperBuilder.smile();
+      default -> Jackson2ObjectMapperBuilder.json();
+    };
+    objectMapper = builder.build();
+
+    GeometryFactory geometryFactory = new GeometryFactory();
+    double[][] pontos = DadosBenchmark.gerarPontos(tamanho);
+    List<PessoaFisica> itens = new ArrayList<>(tamanho);
+    for (int i = 0; i < tamanho; i++) {
+      itens.add(new PessoaFisica(DadosBenchmark.cpf(i), "Maria da Silva", LocalDate.of(1990, 5, 17),
+          "11987654321", "01310100", "maria" + i + "@exemplo.com.br", "Avenida Paulista, 1000 - Bela Vista",
+          geometryFactory.createPoint(new Coordinate(pontos[i][1], pontos[i][0]))));
+    }
+    pagina = new PaginaCursor<>(itens, PaginaCursor.codificar(itens.get(tamanho - 1).getCpf()));
+
+    ByteArrayOutputStream medida = new ByteArrayOutputStream();
+    serializar(medida);
+    System.out.printf("%nbytes por página (%s, gzip=%s, %d itens): %d%n", formato, gzip, tamanho, medida.size());
+  }
+
+  @Benchmark
+  public void paginaPessoasFisicas() throws IOException {
+    serializar(OutputStream.nullOutputStream());
+  }
+
+  private void serializar(OutputStream destino) throws IOException {
+    try (OutputStream saida = gzip ? new GZIPOutputStream(destino, 8192) : destino) {
+      objectMapper.writeValue(saida, pagina);
+    }
+  }
+}
@@ -0,0 +1,62 @@
+package com.panizio.agenda.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.panizio.agenda.model.PontoMapa;
+import com.panizio.agenda.utils.IndiceEspacial;
+
+/**
+ * Consultas do {@link IndiceEspacial} em memória. Comparar com
+ * {@link ProximidadePostgisBenchmark}, que roda as mesmas consultas sobre os
+ * mesmos pontos no PostGIS.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IndiceEspacialBenchmark {
+
+  @Param({ "100000", "1000000" })
+  int pontos;
+
+  private IndiceEspacial indice;
+  private double[][] consultas;
+  private int proxima;
+
+  @Setup
+  public void preparar() {
+    indice = new IndiceEspacial(0.05);
+    double[][] dados = DadosBenchmark.gerarPontos(pontos);
+    for (int i = 0; i < dados.length; i++) {
+      indice.colocar(Integer.toString(i), dados[i][0], dados[i][1]);
+    }
+    consultas = DadosBenchmark.gerarConsultas(1024);
+  }
+
+  @Benchmark
+  public List<PontoMapa> dezMaisProximos() {
+    double[] consulta = consultas[proxima++ & 1023];
+    return indice.maisProximos(consulta[0], consulta[1], 10);
+  }
+
+  @Benchmark
+  public List<PontoMapa> caixaDeMapa() {
+    double[] consulta = consultas[proxima++ & 1023];
+    return indice.naCaixa(consulta[0] - 0.02, consulta[1] - 0.02, consulta[0] + 0.02, consulta[1] + 0.02, 1000);
+  }
+}
@@ -0,0 +1,136 @@
+package com.panizio.agenda.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * As mesmas consultas do {@link IndiceEspacialBenchmark}, feitas no PostGIS
+ * com as expressões e o índice GiST usados pelos repositórios. Precisa de um
+ * PostgreSQL com PostGIS; os dados vão para uma tabela própria que é removida
+ * ao final.
+ *
+ * {@code -Djmh.args="ProximidadePostgis -p jdbcUrl=jdbc:postgresql://host/banco"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProximidadePostgisBenchmark {
+
+  private static final String PONTO = "CAST(ST_SetSRID(ST_MakePoint(?, ?), 4326) AS geography)";
+
+  @Param({ "jdbc:postgresql://localhost:5432/agenda_contatos" })
+  String jdbcUrl;
+
+  @Param({ "postgres" })
+  String usuario;
+
+  @Param({ "postgres" })
+  String senha;
+
+  @Param({ "100000", "1000000" })
+  int pontos;
+
+  private Connection conexao;
+  private PreparedStatement maisProximos;
+  private PreparedStatement caixa;
+  private double[][] consultas;
+  private int proxima;
+
+  @Setup
+  public void preparar() throws SQLException {
+    conexao = DriverManager.getConnection(jdbcUrl, usuario, senha);
+    try (Statement ddl = conexao.createStatement()) {
+      ddl.execute("DROP TABLE IF EXISTS benchmark_proximidade");
+      ddl.execute("CREATE TABLE benchmark_proximidade (id varchar(20) PRIMARY KEY, coordenadas geometry(Point))");
+    }
+
+    conexao.setAutoCommit(false);
+    double[][] dados = DadosBenchmark.gerarPontos(pontos);
+    try (PreparedStatement insert = conexao.prepareStatement(
+        "INSERT INTO benchmark_proximidade VALUES (?, ST_MakePoint(?, ?))")) {
+      for (int i = 0; i < dados.length; i++) {
+        insert.setString(1, Integer.toString(i));
+        insert.setDouble(2, dados[i][1]);
+        insert.setDouble(3, dados[i][0]);
+        insert.addBatch();
+        if (i % 5_000 == 4_999) {
+          insert.executeBatch();
+        }
+      }
+      insert.executeBatch();
+    }
+    conexao.commit();
+    conexao.setAutoCommit(true);
+
+    try (Statement ddl = conexao.createStatement()) {
+      ddl.execute("CREATE INDEX ON benchmark_proximidade USING GIST ((coordenadas::geography))");
+      ddl.execute("ANALYZE benchmark_proximidade");
+    }
+
+    maisProximos = conexao.prepareStatement("SELECT id, ST_Y(coordenadas), ST_X(coordenadas) "
+        + "FROM benchmark_proximidade WHERE coordenadas IS NOT NULL "
+        + "ORDER BY CAST(coordenadas AS geography) <-> " + PONTO + " LIMIT 10");
+    caixa = conexao.prepareStatement("SELECT id, ST_Y(coordenadas), ST_X(coordenadas) "
+        + "FROM benchmark_proximidade WHERE CAST(coordenadas AS geography) && "
+        + "CAST(ST_MakeEnvelope(?, ?, ?, ?, 4326) AS geography) LIMIT 1000");
+    consultas = DadosBenchmark.gerarConsultas(1024);
+  }
+
+  @TearDown
+  public void encerrar() throws SQLException {
+    try (Statement ddl = conexao.createStatement()) {
+      ddl.execute("DROP TABLE IF EXISTS benchmark_proximidade");
+    }
+    conexao.close();
+  }
+
+  @Benchmark
+  public void dezMaisProximos(Blackhole blackhole) throws SQLException {
+    double[] consulta = consultas[proxima++ & 1023];
+    maisProximos.setDouble(1, consulta[1]);
+    maisProximos.setDouble(2, consulta[0]);
+    consumir(maisProximos, blackhole);
+  }
+
+  @Benchmark
+  public void caixaDeMapa(Blackhole blackhole) throws SQLException {
+    double[] consulta = consultas[proxima++ & 1023];
+    caixa.setDouble(1, consulta[1] - 0.02);
+    caixa.setDouble(2, consulta[0] - 0.02);
+    caixa.setDouble(3, consulta[1] + 0.02);
+    caixa.setDouble(4, consulta[0] + 0.02);
+    consumir(caixa, blackhole);
+  }
+
+  private static void consumir(PreparedStatement consulta, Blackhole blackhole) throws SQLException {
+    try (ResultSet rs = consulta.executeQuery()) {
+      while (rs.next()) {
+        blackhole.consume(rs.getString(1));
+        blackhole.consume(rs.getDouble(2));
+        blackhole.consume(rs.getDouble(3));
+      }
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package com.panizio.agenda.benchmark;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+
+import com.panizio.agenda.AgendaApplication;
+import com.panizio.agenda.client.GeocodingProvider;
+import com.panizio.agenda.model.PessoaFisica;
+import com.panizio.agenda.service.PessoaFisicaService;
+
+/**
+ * {@link PessoaFisicaService#salvarUsuario} de ponta a ponta: validação,
+ * geocodificação, consultas de unicidade e INSERT via JPA junto com o e-mail na
+ * caixa de saída. Sobe o contexto da aplicação sem servidor web sobre um H2 em
+ * memória; a geocodificação é atendida por um {@link GeocodingProvider} fixo e
+ * o envio de e-mails fica desligado, para que nada vá à rede.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SalvarUsuarioBenchmark {
+
+  private ConfigurableApplicationContext contexto;
+  private PessoaFisicaService pessoaFisicaService;
+  private int proximo;
+
+  @Setup
+  public void preparar() {
+    Point coordenadas = new GeometryFactory().createPoint(new Coordinate(-46.6558, -23.5614));
+    contexto = new SpringApplicationBuilder(AgendaApplication.class)
+        .web(WebApplicationType.NONE)
+        .initializers(ctx -> {
+          GenericApplicationContext registro = (GenericApplicationContext) ctx;
+          registro.registerBean("geocodificacaoFixa", GeocodingProvider.class,
+              () -> cep -> Optional.of(coordenadas));
+        })
+        // Argumentos de linha de comando para prevalecer sobre o application.properties.
+        .run(
+            "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+            "--spring.datasource.username=sa",
+            "--spring.datasource.password=",
+            "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+            "--spring.jpa.hibernate.ddl-auto=create-drop",
+            "--spring.jpa.show-sql=false",
+            "--spring.sql.init.mode=never",
+            "--agenda.email.dispatcher.habilitado=false",
+            "--logging.level.root=warn");
+    pessoaFisicaService = contexto.getBean(PessoaFisicaService.class);
+  }
+
+  @TearDown
+  public void encerrar() {
+    contexto.close();
+  }
+
+  @Benchmark
+  public PessoaFisica salvarUsuario() {
+    int n = proximo++;
+    return pessoaFisicaService.salvarUsuario(new PessoaFisica(DadosBenchmark.cpf(n), "Maria da Silva",
+        LocalDate.of(1990, 5, 17), "(11) 98765-4321", "01310-100", "maria" + n + "@exemplo.com.br",
+        "Avenida Paulista, 1000 - Bela Vista", null));
+  }
+}
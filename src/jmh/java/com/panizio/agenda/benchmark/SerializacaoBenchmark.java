@@ -0,0 +1,93 @@
+package com.panizio.agenda.benchmark;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.panizio.agenda.model.PessoaFisica;
+import com.panizio.agenda.model.PessoaJuridica;
+import com.panizio.agenda.utils.PointSerializer;
+
+/**
+ * Serialização JSON das respostas da API, com um {@link ObjectMapper}
+ * configurado como o do Spring Boot. A saída é descartada para medir só o
+ * Jackson.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializacaoBenchmark {
+
+  private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+  private final PointSerializer pointSerializer = new PointSerializer();
+  private final Point ponto = new GeometryFactory().createPoint(new Coordinate(-46.6558, -23.5614));
+
+  @State(Scope.Benchmark)
+  public static class Listas {
+
+    @Param({ "100", "1000" })
+    int tamanho;
+
+    List<PessoaFisica> pessoasFisicas;
+    List<PessoaJuridica> pessoasJuridicas;
+
+    @Setup
+    public void preparar() {
+      GeometryFactory geometryFactory = new GeometryFactory();
+      double[][] pontos = DadosBenchmark.gerarPontos(tamanho);
+      pessoasFisicas = new ArrayList<>(tamanho);
+      pessoasJuridicas = new ArrayList<>(tamanho);
+      for (int i = 0; i < tamanho; i++) {
+        Point coordenadas = geometryFactory.createPoint(new Coordinate(pontos[i][1], pontos[i][0]));
+        pessoasFisicas.add(new PessoaFisica(DadosBenchmark.cpf(i), "Maria da Silva", LocalDate.of(1990, 5, 17),
+            "11987654321", "01310100", "maria" + i + "@exemplo.com.br", "Avenida Paulista, 1000 - Bela Vista",
+            coordenadas));
+        PessoaJuridica pessoaJuridica = new PessoaJuridica(DadosBenchmark.cnpj(i), "Empresa Exemplo Ltda",
+            "Exemplo", "11987654321", "contato" + i + "@exemplo.com.br", "Avenida Paulista, 1000 - Bela Vista",
+            "01310100");
+        pessoaJuridica.setCoordenadas(coordenadas);
+        pessoasJuridicas.add(pessoaJuridica);
+      }
+    }
+  }
+
+  @Benchmark
+  public void pointSerializer() throws Exception {
+    try (JsonGenerator gerador = objectMapper.createGenerator(OutputStream.nullOutputStream())) {
+      pointSerializer.serialize(ponto, gerador, objectMapper.getSerializerProvider());
+    }
+  }
+
+  @Benchmark
+  public void listaPessoasFisicas(Listas listas) throws Exception {
+    objectMapper.writeValue(OutputStream.nullOutputStream(), listas.pessoasFisicas);
+  }
+
+  @Benchmark
+  public void listaPessoasJuridicas(Listas listas) throws Exception {
+    objectMapper.writeValue(OutputStream.nullOutputStream(), listas.pessoasJuridicas);
+  }
+}
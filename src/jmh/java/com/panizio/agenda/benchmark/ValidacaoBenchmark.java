@@ -0,0 +1,73 @@
+package com.panizio.agenda.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.panizio.agenda.utils.ValidacaoUtils;
+
+/**
+ * Validadores de documentos atuais contra a implementação anterior
+ * ({@link ValidacaoLegado}). Rodar com {@code -prof gc} para ver também a
+ * alocação por chamada.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidacaoBenchmark {
+
+  private final String cpf = "529.982.247-25";
+  private final String cnpj = "11.222.333/0001-81";
+  private final String telefone = "(11) 98765-4321";
+
+  @Benchmark
+  public boolean cpfAtual() {
+    return ValidacaoUtils.validarCPF(cpf);
+  }
+
+  @Benchmark
+  public boolean cpfLegado() {
+    return ValidacaoLegado.validarCPF(cpf);
+  }
+
+  @Benchmark
+  public boolean cnpjAtual() {
+    return ValidacaoUtils.validarCNPJ(cnpj);
+  }
+
+  @Benchmark
+  public boolean cnpjLegado() {
+    return ValidacaoLegado.validarCNPJ(cnpj);
+  }
+
+  @Benchmark
+  public boolean telefoneAtual() {
+    return ValidacaoUtils.validarTelefone(telefone);
+  }
+
+  @Benchmark
+  public boolean telefoneLegado() {
+    return ValidacaoLegado.validarTelefone(telefone);
+  }
+
+  @Benchmark
+  public String limparNumerosAtual() {
+    return ValidacaoUtils.limparNumeros(cpf);
+  }
+
+  @Benchmark
+  public String limparNumerosLegado() {
+    return ValidacaoLegado.limparNumeros(cpf);
+  }
+}
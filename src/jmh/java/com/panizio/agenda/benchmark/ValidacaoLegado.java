@@ -0,0 +1,68 @@
+package com.panizio.agenda.benchmark;
+
+import java.util.Set;
+
+/**
+ * Cópia da implementação anterior dos validadores de documentos de
+ * {@code ValidacaoUtils} (regex para limpar e para detectar dígitos repetidos),
+ * mantida apenas como referência em {@link ValidacaoBenchmark}.
+ */
+final class ValidacaoLegado {
+
+  private static final Set<String> DDDS_VALIDOS = Set.of(
+      "11", "12", "13", "14", "15", "16", "17", "18", "19", "21", "22", "24", "27", "28",
+      "31", "32", "33", "34", "35", "37", "38", "41", "42", "43", "44", "45", "46", "47",
+      "48", "49", "51", "53", "54", "55", "61", "62", "63", "64", "65", "66", "67", "68",
+      "69", "71", "73", "74", "75", "77", "79", "81", "82", "83", "84", "85", "86", "87",
+      "88", "89", "91", "92", "93", "94", "95", "96", "97", "98", "99");
+
+  private ValidacaoLegado() {
+  }
+
+  static boolean validarCPF(String cpf) {
+    String cleaned = limparNumeros(cpf);
+    if (cleaned.length() != 11 || cleaned.matches("(\\d)\\1{10}")) {
+      return false;
+    }
+    return cleaned.charAt(9) - '0' == calcularDigito(cleaned, 10, 9)
+        && cleaned.charAt(10) - '0' == calcularDigito(cleaned, 11, 10);
+  }
+
+  static boolean validarCNPJ(String cnpj) {
+    String cleaned = limparNumeros(cnpj);
+    if (cleaned.length() != 14 || cleaned.matches("(\\d)\\1{13}")) {
+      return false;
+    }
+    return cleaned.charAt(12) - '0' == calcularDigitoCNPJ(cleaned, 5)
+        && cleaned.charAt(13) - '0' == calcularDigitoCNPJ(cleaned, 6);
+  }
+
+  static boolean validarTelefone(String telefone) {
+    String cleaned = limparNumeros(telefone);
+    return cleaned.length() == 11 && DDDS_VALIDOS.contains(cleaned.substring(0, 2));
+  }
+
+  static String limparNumeros(String input) {
+    return input == null ? "" : input.replaceAll("\\D", "");
+  }
+
+  private static int calcularDigito(String numero, int pesoInicial, int length) {
+    int soma = 0;
+    for (int i = 0; i < length; i++) {
+      soma += (numero.charAt(i) - '0') * (pesoInicial - i);
+    }
+    int resto = soma % 11;
+    return resto < 2 ? 0 : 11 - resto;
+  }
+
+  private static int calcularDigitoCNPJ(String cnpj, int pesoInicial) {
+    int soma = 0;
+    int peso = pesoInicial;
+    for (int i = 0; i < 12; i++) {
+      soma += (cnpj.charAt(i) - '0') * peso;
+      peso = (peso == 2) ? 9 : peso - 1;
+    }
+    int resto = soma % 11;
+    return resto < 2 ? 0 : 11 - resto;
+  }
+}
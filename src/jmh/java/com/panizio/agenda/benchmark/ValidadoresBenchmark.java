@@ -0,0 +1,96 @@
+package com.panizio.agenda.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.panizio.agenda.utils.ValidacaoUtils;
+
+/**
+ * Todos os validadores de {@link ValidacaoUtils}, com entradas válidas e
+ * inválidas. As inválidas falham no ponto mais caro de cada validador (dígito
+ * verificador, domínio bloqueado, DDD inexistente).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidadoresBenchmark {
+
+  @Param({ "valido", "invalido" })
+  String entrada;
+
+  private String cpf;
+  private String cnpj;
+  private String cep;
+  private String email;
+  private String dataNascimento;
+  private String telefone;
+  private String endereco;
+  private String nome;
+
+  @Setup
+  public void preparar() {
+    boolean valido = "valido".equals(entrada);
+    cpf = valido ? "529.982.247-25" : "529.982.247-24";
+    cnpj = valido ? "11.222.333/0001-81" : "11.222.333/0001-82";
+    cep = valido ? "01310-100" : "01310-10";
+    email = valido ? "maria.silva@exemplo.com.br" : "maria.silva@mailinator.com";
+    dataNascimento = valido ? "1990-05-17" : "2990-05-17";
+    telefone = valido ? "(11) 98765-4321" : "(20) 98765-4321";
+    endereco = valido ? "Avenida Paulista, 1000 - Bela Vista" : "Avenida Paulista sem número";
+    nome = valido ? "Maria da Silva" : "Maria da S1lva";
+  }
+
+  @Benchmark
+  public boolean cpf() {
+    return ValidacaoUtils.validarCPF(cpf);
+  }
+
+  @Benchmark
+  public boolean cnpj() {
+    return ValidacaoUtils.validarCNPJ(cnpj);
+  }
+
+  @Benchmark
+  public boolean cep() {
+    return ValidacaoUtils.validarCEP(cep);
+  }
+
+  @Benchmark
+  public boolean email() {
+    return ValidacaoUtils.validarEmail(email);
+  }
+
+  @Benchmark
+  public boolean dataNascimento() {
+    return ValidacaoUtils.validarDataNascimento(dataNascimento);
+  }
+
+  @Benchmark
+  public boolean telefone() {
+    return ValidacaoUtils.validarTelefone(telefone);
+  }
+
+  @Benchmark
+  public boolean endereco() {
+    return ValidacaoUtils.validarEndereco(endereco);
+  }
+
+  @Benchmark
+  public boolean nome() {
+    return ValidacaoUtils.validarNome(nome);
+  }
+}
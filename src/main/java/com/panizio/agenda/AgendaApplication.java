@@ -1,13 +1,16 @@
 package com.panizio.agenda;
 
+import java.time.Duration;
+
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
-import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.client.RestTemplate;
 
 @SpringBootApplication
-@EnableAsync
+@EnableScheduling
 public class AgendaApplication {
 
 	public static void main(String[] args) {
@@ -15,8 +18,12 @@ public class AgendaApplication {
 	}
 
 	@Bean
-	public RestTemplate restTemplate() {
-		return new RestTemplate();
+	public RestTemplate restTemplate(RestTemplateBuilder builder) {
+		// Sem timeout uma chamada travada prenderia uma das poucas threads de envio de e-mail.
+		return builder
+				.connectTimeout(Duration.ofSeconds(2))
+				.readTimeout(Duration.ofSeconds(5))
+				.build();
 	}
 
 }
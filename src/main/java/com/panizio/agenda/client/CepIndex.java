@@ -0,0 +1,119 @@
+package com.panizio.agenda.client;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+
+/**
+ * Índice de CEPs mapeado em memória, gerado pelo {@link CepIndexCompiler}.
+ *
+ * Formato (big-endian): cabeçalho com a assinatura "CEPIDX01" e a quantidade de
+ * registros, seguido dos registros ordenados por CEP, cada um com o CEP como
+ * int e a latitude e a longitude como float. A busca é binária direto sobre o
+ * arquivo mapeado; só o {@link Point} do resultado é alocado.
+ */
+public class CepIndex implements GeocodingProvider {
+
+  static final long ASSINATURA = 0x4345504944583031L;
+  static final int TAMANHO_CABECALHO = 12;
+  static final int TAMANHO_REGISTRO = 12;
+
+  private final MappedByteBuffer dados;
+  private final int total;
+  private final GeometryFactory geometryFactory = new GeometryFactory();
+
+  private CepIndex(MappedByteBuffer dados, int total) {
+    this.dados = dados;
+    this.total = total;
+  }
+
+  public static CepIndex abrir(Path arquivo) throws IOException {
+    try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+      if (canal.size() < TAMANHO_CABECALHO) {
+        throw new IOException("Índice de CEPs inválido: " + arquivo);
+      }
+      MappedByteBuffer dados = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+      if (dados.getLong(0) != ASSINATURA) {
+        throw new IOException("Índice de CEPs inválido: " + arquivo);
+      }
+      int total = dados.getInt(8);
+      if (total < 0 || canal.size() != TAMANHO_CABECALHO + (long) total * TAMANHO_REGISTRO) {
+        throw new IOException("Índice de CEPs corrompido: " + arquivo);
+      }
+      return new CepIndex(dados, total);
+    }
+  }
+
+  @Override
+  public Optional<Point> buscar(String cep) {
+    int posicao = posicao(paraNumero(cep));
+    if (posicao < 0) {
+      return Optional.empty();
+    }
+    return Optional.of(geometryFactory.createPoint(new Coordinate(longitude(posicao), latitude(posicao))));
+  }
+
+  public int tamanho() {
+    return total;
+  }
+
+  /**
+   * Posição do CEP no índice ou -1 quando ausente.
+   */
+  public int posicao(int cep) {
+    if (cep < 0) {
+      return -1;
+    }
+    int inicio = 0;
+    int fim = total - 1;
+    while (inicio <= fim) {
+      int meio = (inicio + fim) >>> 1;
+      int atual = dados.getInt(TAMANHO_CABECALHO + meio * TAMANHO_REGISTRO);
+      if (atual < cep) {
+        inicio = meio + 1;
+      } else if (atual > cep) {
+        fim = meio - 1;
+      } else {
+        return meio;
+      }
+    }
+    return -1;
+  }
+
+  public double latitude(int posicao) {
+    return dados.getFloat(TAMANHO_CABECALHO + posicao * TAMANHO_REGISTRO + 4);
+  }
+
+  public double longitude(int posicao) {
+    return dados.getFloat(TAMANHO_CABECALHO + posicao * TAMANHO_REGISTRO + 8);
+  }
+
+  /**
+   * Converte um CEP de 8 dígitos em número, ignorando separadores. Retorna -1
+   * quando não há exatamente 8 dígitos.
+   */
+  static int paraNumero(CharSequence cep) {
+    if (cep == null) {
+      return -1;
+    }
+    int valor = 0;
+    int digitos = 0;
+    for (int i = 0; i < cep.length(); i++) {
+      char c = cep.charAt(i);
+      if (c >= '0' && c <= '9') {
+        if (++digitos > 8) {
+          return -1;
+        }
+        valor = valor * 10 + (c - '0');
+      }
+    }
+    return digitos == 8 ? valor : -1;
+  }
+}
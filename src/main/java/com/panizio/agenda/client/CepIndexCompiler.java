@@ -0,0 +1,95 @@
+package com.panizio.agenda.client;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Gera o arquivo lido pelo {@link CepIndex} a partir de um CSV com as colunas
+ * {@code cep,latitude,longitude} (separador vírgula ou ponto e vírgula, com ou
+ * sem cabeçalho). Linhas inválidas são ignoradas e, para CEPs repetidos, vale a
+ * primeira ocorrência.
+ *
+ * Uso: {@code mvn -Pcep-index -Dcep.csv=ceps.csv -Dcep.indice=ceps.idx process-classes}
+ */
+public class CepIndexCompiler {
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2) {
+      System.err.println("Uso: CepIndexCompiler <arquivo.csv> <arquivo.idx>");
+      System.exit(1);
+    }
+    int gravados = compilar(Path.of(args[0]), Path.of(args[1]));
+    System.out.println(gravados + " CEPs gravados em " + args[1]);
+  }
+
+  public static int compilar(Path csv, Path destino) throws IOException {
+    long[] registros = new long[1024];
+    float[] latitudes = new float[1024];
+    float[] longitudes = new float[1024];
+    int lidos = 0;
+
+    try (BufferedReader leitor = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+      String linha;
+      while ((linha = leitor.readLine()) != null) {
+        String[] colunas = linha.split("[,;]");
+        if (colunas.length < 3) {
+          continue;
+        }
+        int cep = CepIndex.paraNumero(colunas[0].trim());
+        float latitude;
+        float longitude;
+        try {
+          latitude = Float.parseFloat(colunas[1].trim());
+          longitude = Float.parseFloat(colunas[2].trim());
+        } catch (NumberFormatException e) {
+          continue;
+        }
+        if (cep < 0 || Math.abs(latitude) > 90 || Math.abs(longitude) > 180) {
+          continue;
+        }
+
+        if (lidos == registros.length) {
+          registros = Arrays.copyOf(registros, lidos * 2);
+          latitudes = Arrays.copyOf(latitudes, lidos * 2);
+          longitudes = Arrays.copyOf(longitudes, lidos * 2);
+        }
+        // CEP nos 32 bits altos e a linha de origem nos baixos: a ordenação fica
+        // estável e a primeira ocorrência de cada CEP vem antes.
+        registros[lidos] = ((long) cep << 32) | lidos;
+        latitudes[lidos] = latitude;
+        longitudes[lidos] = longitude;
+        lidos++;
+      }
+    }
+
+    Arrays.sort(registros, 0, lidos);
+
+    int unicos = 0;
+    long anterior = -1;
+    for (int i = 0; i < lidos; i++) {
+      long cep = registros[i] >>> 32;
+      if (cep != anterior) {
+        registros[unicos++] = registros[i];
+        anterior = cep;
+      }
+    }
+
+    try (DataOutputStream saida = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(destino)))) {
+      saida.writeLong(CepIndex.ASSINATURA);
+      saida.writeInt(unicos);
+      for (int i = 0; i < unicos; i++) {
+        int origem = (int) registros[i];
+        saida.writeInt((int) (registros[i] >>> 32));
+        saida.writeFloat(latitudes[origem]);
+        saida.writeFloat(longitudes[origem]);
+      }
+    }
+    return unicos;
+  }
+}
@@ -0,0 +1,275 @@
+package com.panizio.agenda.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.panizio.agenda.exception.GeocodificacaoIndisponivelException;
+import com.panizio.agenda.exception.ValidacaoException;
+import com.panizio.agenda.utils.SingleFlight;
+import com.panizio.agenda.utils.ValidacaoUtils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Cliente do Nominatim usado para obter as coordenadas de um CEP.
+ *
+ * Antes de ir à rede consulta os {@link GeocodingProvider} locais (por exemplo o
+ * {@link CepIndex}). Para a consulta remota mantém um único {@link HttpClient}
+ * (conexões reaproveitadas com keep-alive), limita quantas consultas podem estar
+ * abertas ao mesmo tempo, guarda os resultados em cache e junta chamadas
+ * concorrentes para o mesmo CEP.
+ */
+@Component
+public class GeocodingClient {
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory()
+      .disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+
+  private final HttpClient httpClient;
+  private final String url;
+  private final String userAgent;
+  private final Duration readTimeout;
+  private final Semaphore vagas;
+  private final Duration esperaVaga;
+  private final Cache<String, Optional<Point>> cache;
+  private final SingleFlight<String, Optional<Point>> consultas = new SingleFlight<>();
+  private final GeometryFactory geometryFactory = new GeometryFactory();
+  private List<GeocodingProvider> provedores = List.of();
+  private MeterRegistry registry = Metrics.globalRegistry;
+
+  public GeocodingClient(
+      @Value("${agenda.geocoding.url:https://nominatim.openstreetmap.org/search}") String url,
+      @Value("${agenda.geocoding.user-agent:SuaAplicacao/1.0}") String userAgent,
+      @Value("${agenda.geocoding.connect-timeout:2s}") Duration connectTimeout,
+      @Value("${agenda.geocoding.read-timeout:5s}") Duration readTimeout,
+      @Value("${agenda.geocoding.max-concorrencia:4}") int maxConcorrencia,
+      @Value("${agenda.geocoding.espera-vaga:1s}") Duration esperaVaga,
+      @Value("${agenda.geocoding.cache.tamanho-maximo:10000}") long tamanhoCache,
+      @Value("${agenda.geocoding.cache.ttl-encontrado:7d}") Duration ttlEncontrado,
+      @Value("${agenda.geocoding.cache.ttl-nao-encontrado:1h}") Duration ttlNaoEncontrado) {
+    this.url = url;
+    this.userAgent = userAgent;
+    this.readTimeout = readTimeout;
+    this.vagas = new Semaphore(maxConcorrencia, true);
+    this.esperaVaga = esperaVaga;
+    this.httpClient = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(connectTimeout)
+        .followRedirects(HttpClient.Redirect.NORMAL)
+        .build();
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(tamanhoCache)
+        .expireAfter(new Expiry<String, Optional<Point>>() {
+          @Override
+          public long expireAfterCreate(String cep, Optional<Point> coordenadas, long currentTime) {
+            return (coordenadas.isPresent() ? ttlEncontrado : ttlNaoEncontrado).toNanos();
+          }
+
+          @Override
+          public long expireAfterUpdate(String cep, Optional<Point> coordenadas, long currentTime,
+              long currentDuration) {
+            return expireAfterCreate(cep, coordenadas, currentTime);
+          }
+
+          @Override
+          public long expireAfterRead(String cep, Optional<Point> coordenadas, long currentTime,
+              long currentDuration) {
+            return currentDuration;
+          }
+        })
+        .recordStats()
+        .build();
+  }
+
+  public Point buscarCoordenadas(String cep) throws ValidacaoException {
+    String cleaned = ValidacaoUtils.limparNumeros(cep);
+    if (cleaned.length() != 8) {
+      throw new ValidacaoException(Map.of("cep", "CEP inválido"));
+    }
+
+    long inicio = System.nanoTime();
+    String origem = "local";
+    String resultado = "erro";
+    try {
+      for (GeocodingProvider provedor : provedores) {
+        Optional<Point> local = provedor.buscar(cleaned);
+        if (local.isPresent()) {
+          resultado = "encontrado";
+          return local.get();
+        }
+      }
+
+      origem = "cache";
+      Optional<Point> coordenadas = cache.getIfPresent(cleaned);
+      if (coordenadas == null) {
+        origem = "remoto";
+        coordenadas = consultas.executar(cleaned, () -> {
+          Optional<Point> emCache = cache.getIfPresent(cleaned);
+          if (emCache != null) {
+            return emCache;
+          }
+          Optional<Point> encontrado = consultarComVaga(cleaned);
+          cache.put(cleaned, encontrado);
+          return encontrado;
+        });
+      }
+      resultado = coordenadas.isPresent() ? "encontrado" : "nao-encontrado";
+      return coordenadas.orElseThrow(() -> new ValidacaoException(Map.of("cep", "CEP não encontrado")));
+    } finally {
+      registry.timer("agenda.geocoding", "origem", origem, "resultado", resultado)
+          .record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /**
+   * Indica se o CEP pode ser resolvido sem consultar o Nominatim (provedor
+   * local ou cache), para quem precisa respeitar a cota do serviço remoto.
+   */
+  public boolean disponivelSemConsultaRemota(String cep) {
+    String cleaned = ValidacaoUtils.limparNumeros(cep);
+    if (cache.asMap().containsKey(cleaned)) {
+      return true;
+    }
+    for (GeocodingProvider provedor : provedores) {
+      if (provedor.buscar(cleaned).isPresent()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Autowired(required = false)
+  public void setProvedores(List<GeocodingProvider> provedores) {
+    this.provedores = List.copyOf(provedores);
+  }
+
+  /**
+   * Tempo de cada busca em {@code agenda.geocoding}, com as tags {@code origem}
+   * (local, cache ou remoto) e {@code resultado} (encontrado, nao-encontrado ou
+   * erro), e o cache em {@code cache.*} com {@code cache=geocoding}.
+   */
+  @Autowired(required = false)
+  public void setRegistry(MeterRegistry registry) {
+    this.registry = registry;
+    CaffeineCacheMetrics.monitor(registry, cache, "geocoding");
+  }
+
+  public CacheStats estatisticasCache() {
+    return cache.stats();
+  }
+
+  public void limparCache() {
+    cache.invalidateAll();
+  }
+
+  private Optional<Point> consultarComVaga(String cep) {
+    try {
+      if (!vagas.tryAcquire(esperaVaga.toMillis(), TimeUnit.MILLISECONDS)) {
+        throw new GeocodificacaoIndisponivelException();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new GeocodificacaoIndisponivelException();
+    }
+
+    try {
+      return consultar(cep);
+    } finally {
+      vagas.release();
+    }
+  }
+
+  /**
+   * Retorna vazio quando o CEP não existe (resultado que pode ir para o cache);
+   * falhas de rede, timeouts e respostas diferentes de 200 lançam
+   * {@link GeocodificacaoIndisponivelException} e não são guardadas.
+   */
+  private Optional<Point> consultar(String cep) {
+    HttpRequest requisicao = HttpRequest.newBuilder(URI.create(url + "?postalcode=" + cep + "&format=json&limit=1"))
+        .timeout(readTimeout)
+        .header("User-Agent", userAgent)
+        .header("Accept", "application/json")
+        .GET()
+        .build();
+
+    HttpResponse<InputStream> resposta;
+    try {
+      resposta = httpClient.send(requisicao, HttpResponse.BodyHandlers.ofInputStream());
+    } catch (IOException e) {
+      throw new GeocodificacaoIndisponivelException();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new GeocodificacaoIndisponivelException();
+    }
+
+    try (InputStream corpo = resposta.body()) {
+      if (resposta.statusCode() != 200) {
+        corpo.transferTo(OutputStream.nullOutputStream());
+        throw new GeocodificacaoIndisponivelException();
+      }
+      Optional<Point> resultado = lerPrimeiroResultado(corpo);
+      // Consome o restante sem interpretar para que a conexão volte ao pool.
+      corpo.transferTo(OutputStream.nullOutputStream());
+      return resultado;
+    } catch (IOException e) {
+      throw new GeocodificacaoIndisponivelException();
+    }
+  }
+
+  private Optional<Point> lerPrimeiroResultado(InputStream corpo) throws IOException {
+    try (JsonParser parser = JSON_FACTORY.createParser(corpo)) {
+      if (parser.nextToken() != JsonToken.START_ARRAY) {
+        throw new IOException("Resposta inesperada do serviço de geolocalização");
+      }
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        return Optional.empty();
+      }
+
+      double lat = Double.NaN;
+      double lon = Double.NaN;
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String campo = parser.currentName();
+        parser.nextToken();
+        if ("lat".equals(campo)) {
+          lat = parser.getValueAsDouble(Double.NaN);
+        } else if ("lon".equals(campo)) {
+          lon = parser.getValueAsDouble(Double.NaN);
+        } else {
+          parser.skipChildren();
+        }
+      }
+
+      if (Double.isNaN(lat) || Double.isNaN(lon)) {
+        throw new IOException("Resultado sem coordenadas");
+      }
+      return Optional.of(geometryFactory.createPoint(new Coordinate(lon, lat))); // Atenção à ordem: LONGITUDE
+    }
+  }
+}
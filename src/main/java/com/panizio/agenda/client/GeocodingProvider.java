@@ -0,0 +1,16 @@
+package com.panizio.agenda.client;
+
+import java.util.Optional;
+
+import org.locationtech.jts.geom.Point;
+
+/**
+ * Fonte local de coordenadas consultada antes do Nominatim. Recebe o CEP já
+ * limpo (8 dígitos) e retorna vazio quando não conhece o CEP, caso em que o
+ * {@link GeocodingClient} segue para o próximo provedor ou para a consulta
+ * remota.
+ */
+public interface GeocodingProvider {
+
+  Optional<Point> buscar(String cep);
+}
@@ -0,0 +1,44 @@
+package com.panizio.agenda.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.panizio.agenda.model.PessoaFisica;
+import com.panizio.agenda.model.PessoaJuridica;
+import com.panizio.agenda.utils.CacheLeitura;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Caches das buscas por CPF e por CNPJ. Os serviços invalidam a chave depois de
+ * cada gravação; alterações feitas por outra instância da aplicação ou direto
+ * no banco só aparecem depois do TTL.
+ */
+@Configuration
+public class CacheContatosConfig {
+
+  @Bean
+  public CacheLeitura<String, PessoaFisica> cachePessoaFisica(
+      MeterRegistry registry,
+      @Value("${agenda.cache-contatos.tamanho-maximo:10000}") long tamanhoMaximo,
+      @Value("${agenda.cache-contatos.ttl:10m}") Duration ttl,
+      @Value("${agenda.cache-contatos.ttl-nao-encontrado:30s}") Duration ttlNaoEncontrado) {
+    CacheLeitura<String, PessoaFisica> cache = new CacheLeitura<>(tamanhoMaximo, ttl, ttlNaoEncontrado);
+    cache.monitorar(registry, "pessoaFisica");
+    return cache;
+  }
+
+  @Bean
+  public CacheLeitura<String, PessoaJuridica> cachePessoaJuridica(
+      MeterRegistry registry,
+      @Value("${agenda.cache-contatos.tamanho-maximo:10000}") long tamanhoMaximo,
+      @Value("${agenda.cache-contatos.ttl:10m}") Duration ttl,
+      @Value("${agenda.cache-contatos.ttl-nao-encontrado:30s}") Duration ttlNaoEncontrado) {
+    CacheLeitura<String, PessoaJuridica> cache = new CacheLeitura<>(tamanhoMaximo, ttl, ttlNaoEncontrado);
+    cache.monitorar(registry, "pessoaJuridica");
+    return cache;
+  }
+}
@@ -0,0 +1,91 @@
+package com.panizio.agenda.config;
+
+import java.util.List;
+import java.util.StringJoiner;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+/**
+ * Recebe cada instrução executada pelo {@code DataSource}: soma a contagem e o
+ * tempo na requisição em curso (se houver uma na thread) e registra em log as
+ * que passam do limite de lentidão, com os tipos dos parâmetros mas sem os
+ * valores.
+ */
+class EstatisticasSql implements QueryExecutionListener {
+
+  private static final Logger log = LoggerFactory.getLogger(EstatisticasSql.class);
+
+  private static final ThreadLocal<Requisicao> ATUAL = new ThreadLocal<>();
+
+  /** Instruções e tempo de banco acumulados por uma requisição. */
+  static final class Requisicao {
+    private int instrucoes;
+    private long milissegundos;
+
+    int getInstrucoes() {
+      return instrucoes;
+    }
+
+    long getMilissegundos() {
+      return milissegundos;
+    }
+  }
+
+  private final long lentaMs;
+
+  EstatisticasSql(long lentaMs) {
+    this.lentaMs = lentaMs;
+  }
+
+  static Requisicao iniciar() {
+    Requisicao requisicao = new Requisicao();
+    ATUAL.set(requisicao);
+    return requisicao;
+  }
+
+  static void terminar() {
+    ATUAL.remove();
+  }
+
+  @Override
+  public void beforeQuery(ExecutionInfo execucao, List<QueryInfo> consultas) {
+  }
+
+  @Override
+  public void afterQuery(ExecutionInfo execucao, List<QueryInfo> consultas) {
+    // Um JDBC batch conta como uma ida ao banco
+    Requisicao requisicao = ATUAL.get();
+    if (requisicao != null) {
+      requisicao.instrucoes++;
+      requisicao.milissegundos += execucao.getElapsedTime();
+    }
+    if (execucao.getElapsedTime() >= lentaMs && log.isWarnEnabled()) {
+      for (QueryInfo consulta : consultas) {
+        log.warn("SQL lento ({} ms{}): {} parâmetros {}", execucao.getElapsedTime(),
+            execucao.isBatch() ? ", lote de " + execucao.getBatchSize() : "", consulta.getQuery(),
+            tipos(consulta));
+      }
+    }
+  }
+
+  /** Tipos dos parâmetros do primeiro conjunto, na ordem em que foram definidos. */
+  private static String tipos(QueryInfo consulta) {
+    StringJoiner tipos = new StringJoiner(", ", "[", "]");
+    if (!consulta.getParametersList().isEmpty()) {
+      for (ParameterSetOperation operacao : consulta.getParametersList().get(0)) {
+        String metodo = operacao.getMethod().getName();
+        Object valor = operacao.getArgs().length > 1 ? operacao.getArgs()[1] : null;
+        tipos.add(metodo.equals("setObject") && valor != null
+            ? valor.getClass().getSimpleName()
+            : metodo.substring(3));
+      }
+    }
+    return tipos.toString();
+  }
+}
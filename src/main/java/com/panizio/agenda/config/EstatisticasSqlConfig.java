@@ -0,0 +1,50 @@
+package com.panizio.agenda.config;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * Instrumentação das instruções SQL no lugar do {@code spring.jpa.show-sql}: o
+ * {@code DataSource} é envolvido por um proxy que mede cada execução, sem
+ * imprimir nada no caminho normal. Ver {@link EstatisticasSql} e
+ * {@link FiltroEstatisticasSql}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "agenda.sql.estatisticas.habilitado", matchIfMissing = true)
+public class EstatisticasSqlConfig {
+
+  @Bean
+  static BeanPostProcessor proxyDataSource(@Value("${agenda.sql.lenta:200ms}") Duration lenta) {
+    EstatisticasSql estatisticas = new EstatisticasSql(lenta.toMillis());
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+          return ProxyDataSourceBuilder.create(dataSource)
+              .name(beanName)
+              .listener(estatisticas)
+              .build();
+        }
+        return bean;
+      }
+    };
+  }
+
+  @Bean
+  FiltroEstatisticasSql filtroEstatisticasSql(
+      MeterRegistry registry,
+      @Value("${agenda.sql.maximo-por-requisicao:20}") int maximoInstrucoes) {
+    return new FiltroEstatisticasSql(registry, maximoInstrucoes);
+  }
+}
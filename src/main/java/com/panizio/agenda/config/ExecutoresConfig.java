@@ -0,0 +1,129 @@
+package com.panizio.agenda.config;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Executores nomeados para trabalho em segundo plano. Cada um tem pool e fila
+ * limitados e política de rejeição configuráveis, e ao encerrar a aplicação
+ * termina as tarefas já aceitas antes de parar.
+ *
+ * Métricas: o Actuator publica {@code executor.active}, {@code executor.queued},
+ * {@code executor.queue.remaining} e afins com a tag {@code name}; o
+ * {@link MedidorDeTarefas} acrescenta o tempo de fila e de execução
+ * ({@code agenda.executor.espera} e {@code agenda.executor.execucao}) e as
+ * rejeições são contadas em {@code agenda.executor.rejeitadas}.
+ */
+@Configuration
+public class ExecutoresConfig {
+
+  @Bean
+  public ThreadPoolTaskExecutor emailExecutor(
+      MeterRegistry registry,
+      @Value("${agenda.executores.email.tamanho:4}") int tamanho,
+      @Value("${agenda.executores.email.fila:100}") int fila,
+      @Value("${agenda.executores.email.rejeicao:caller-runs}") String rejeicao,
+      @Value("${agenda.executores.encerramento-segundos:30}") int encerramentoSegundos) {
+    return criar("email", tamanho, fila, rejeicao, encerramentoSegundos, registry);
+  }
+
+  /** Importações em lote: poucas por vez, e as excedentes são recusadas em vez de esperar na requisição. */
+  @Bean
+  public ThreadPoolTaskExecutor importacaoExecutor(
+      MeterRegistry registry,
+      @Value("${agenda.executores.importacao.tamanho:1}") int tamanho,
+      @Value("${agenda.executores.importacao.fila:10}") int fila,
+      @Value("${agenda.executores.importacao.rejeicao:abortar}") String rejeicao,
+      @Value("${agenda.executores.encerramento-segundos:30}") int encerramentoSegundos) {
+    return criar("importacao", tamanho, fila, rejeicao, encerramentoSegundos, registry);
+  }
+
+  /**
+   * Conversão e validação das linhas de cada bloco importado, trabalho de CPU:
+   * sem fila de espera útil, o excedente roda na thread da importação.
+   */
+  @Bean
+  public ThreadPoolTaskExecutor conversaoExecutor(
+      MeterRegistry registry,
+      @Value("${agenda.executores.conversao.tamanho:4}") int tamanho,
+      @Value("${agenda.executores.conversao.fila:16}") int fila,
+      @Value("${agenda.executores.conversao.rejeicao:caller-runs}") String rejeicao,
+      @Value("${agenda.executores.encerramento-segundos:30}") int encerramentoSegundos) {
+    return criar("conversao", tamanho, fila, rejeicao, encerramentoSegundos, registry);
+  }
+
+  /**
+   * Respostas assíncronas do Spring MVC ({@code StreamingResponseBody} da
+   * listagem NDJSON e da exportação). Os executores acima desligam o
+   * {@code applicationTaskExecutor} do Spring Boot, que só é criado sem nenhum
+   * outro {@code Executor} no contexto; sem um bean com esse nome o MVC abriria
+   * uma thread nova por resposta, sem limite. Com o pool cheio a resposta é
+   * recusada com 503. No perfil "virtual" as tarefas rodam em virtual threads,
+   * ainda limitadas ao tamanho do pool.
+   */
+  @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+  public ThreadPoolTaskExecutor applicationTaskExecutor(
+      MeterRegistry registry,
+      @Value("${agenda.executores.respostas.tamanho:32}") int tamanho,
+      @Value("${agenda.executores.respostas.fila:0}") int fila,
+      @Value("${agenda.executores.respostas.rejeicao:abortar}") String rejeicao,
+      @Value("${agenda.executores.encerramento-segundos:30}") int encerramentoSegundos,
+      @Value("${spring.threads.virtual.enabled:false}") boolean virtual) {
+    ThreadPoolTaskExecutor executor = criar("respostas", tamanho, fila, rejeicao, encerramentoSegundos, registry);
+    executor.setVirtualThreads(virtual);
+    return executor;
+  }
+
+  static ThreadPoolTaskExecutor criar(String nome, int tamanho, int fila, String rejeicao, int encerramentoSegundos,
+      MeterRegistry registry) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setThreadNamePrefix(nome + "-");
+    executor.setCorePoolSize(tamanho);
+    executor.setMaxPoolSize(tamanho);
+    executor.setQueueCapacity(fila);
+    executor.setRejectedExecutionHandler(contarRejeicoes(nome, politica(rejeicao), registry));
+    executor.setTaskDecorator(new MedidorDeTarefas(nome, registry));
+    executor.setWaitForTasksToCompleteOnShutdown(true);
+    executor.setAwaitTerminationSeconds(encerramentoSegundos);
+    return executor;
+  }
+
+  /**
+   * {@code caller-runs} executa a tarefa na thread que tentou enfileirá-la,
+   * freando quem produz; {@code abortar} lança
+   * {@link RejectedExecutionException}.
+   */
+  private static RejectedExecutionHandler politica(String rejeicao) {
+    return switch (rejeicao) {
+      case "caller-runs" -> new ThreadPoolExecutor.CallerRunsPolicy();
+      case "abortar" -> new ThreadPoolExecutor.AbortPolicy();
+      default -> throw new IllegalArgumentException("Política de rejeição desconhecida: " + rejeicao);
+    };
+  }
+
+  private static RejectedExecutionHandler contarRejeicoes(String nome, RejectedExecutionHandler politica,
+      MeterRegistry registry) {
+    Counter rejeitadas = Counter.builder("agenda.executor.rejeitadas")
+        .tag("executor", nome)
+        .register(registry);
+    return (tarefa, executor) -> {
+      rejeitadas.increment();
+      // Encerrando, o CallerRunsPolicy descartaria a tarefa em silêncio e quem
+      // espera por ela (CompletableFuture) ficaria bloqueado para sempre.
+      if (executor.isShutdown()) {
+        throw new RejectedExecutionException("Executor " + nome + " encerrado");
+      }
+      politica.rejectedExecution(tarefa, executor);
+    };
+  }
+}
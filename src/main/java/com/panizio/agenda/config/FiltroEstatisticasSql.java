@@ -0,0 +1,76 @@
+package com.panizio.agenda.config;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Publica, por endpoint, quantas instruções SQL cada requisição executou
+ * ({@code agenda.requisicao.sql.instrucoes}) e quanto tempo passou no banco
+ * ({@code agenda.requisicao.sql.tempo}), e avisa em log quando uma requisição
+ * passa do máximo de instruções, o sinal típico de N+1.
+ *
+ * Só conta o que roda na thread da requisição: o corpo das respostas em
+ * streaming, escrito depois em outra thread, fica de fora.
+ */
+class FiltroEstatisticasSql extends OncePerRequestFilter {
+
+  private static final Logger log = LoggerFactory.getLogger(FiltroEstatisticasSql.class);
+
+  private final MeterRegistry registry;
+  private final int maximoInstrucoes;
+
+  FiltroEstatisticasSql(MeterRegistry registry, int maximoInstrucoes) {
+    this.registry = registry;
+    this.maximoInstrucoes = maximoInstrucoes;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    EstatisticasSql.Requisicao sql = EstatisticasSql.iniciar();
+    try {
+      chain.doFilter(request, response);
+    } finally {
+      EstatisticasSql.terminar();
+      registrar(request, sql);
+    }
+  }
+
+  private void registrar(HttpServletRequest request, EstatisticasSql.Requisicao sql) {
+    if (sql.getInstrucoes() == 0) {
+      return;
+    }
+    Object padrao = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    String uri = padrao != null ? padrao.toString() : "UNKNOWN";
+    DistributionSummary.builder("agenda.requisicao.sql.instrucoes")
+        .tag("method", request.getMethod())
+        .tag("uri", uri)
+        .register(registry)
+        .record(sql.getInstrucoes());
+    Timer.builder("agenda.requisicao.sql.tempo")
+        .tag("method", request.getMethod())
+        .tag("uri", uri)
+        .register(registry)
+        .record(sql.getMilissegundos(), TimeUnit.MILLISECONDS);
+    if (sql.getInstrucoes() > maximoInstrucoes) {
+      log.warn("{} {} executou {} instruções SQL ({} ms no banco)", request.getMethod(), request.getRequestURI(),
+          sql.getInstrucoes(), sql.getMilissegundos());
+    } else if (log.isDebugEnabled()) {
+      log.debug("{} {}: {} instruções SQL ({} ms no banco)", request.getMethod(), request.getRequestURI(),
+          sql.getInstrucoes(), sql.getMilissegundos());
+    }
+  }
+}
@@ -0,0 +1,21 @@
+package com.panizio.agenda.config;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.panizio.agenda.client.CepIndex;
+
+@Configuration
+public class GeocodingConfig {
+
+  @Bean
+  @ConditionalOnProperty("agenda.geocoding.offline.indice")
+  public CepIndex cepIndex(@Value("${agenda.geocoding.offline.indice}") Path arquivo) throws IOException {
+    return CepIndex.abrir(arquivo);
+  }
+}
@@ -0,0 +1,43 @@
+package com.panizio.agenda.config;
+
+import org.locationtech.jts.geom.Point;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.panizio.agenda.utils.PointSerializer;
+
+/**
+ * Módulos registrados no {@code ObjectMapper} da aplicação. O
+ * {@link PointSerializer} vale também fora das entidades, como nos valores das
+ * leituras com {@code fields}.
+ *
+ * Os conversores CBOR e Smile substituem os que o Spring MVC cria sozinho com
+ * as dependências no classpath, para usar a mesma configuração do JSON (datas
+ * ISO, módulos); ficam depois do JSON, que continua sendo o padrão sem
+ * {@code Accept}.
+ */
+@Configuration
+public class JacksonConfig {
+
+  @Bean
+  public Module geometriaModule() {
+    return new SimpleModule("geometria").addSerializer(Point.class, new PointSerializer());
+  }
+
+  @Bean
+  public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+  }
+
+  @Bean
+  public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+  }
+}
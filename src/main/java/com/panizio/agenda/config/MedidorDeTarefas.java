@@ -0,0 +1,41 @@
+package com.panizio.agenda.config;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.core.task.TaskDecorator;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Mede quanto cada tarefa esperou na fila do executor e quanto levou para
+ * executar.
+ */
+class MedidorDeTarefas implements TaskDecorator {
+
+  private final Timer espera;
+  private final Timer execucao;
+
+  MedidorDeTarefas(String executor, MeterRegistry registry) {
+    this.espera = Timer.builder("agenda.executor.espera")
+        .tag("executor", executor)
+        .register(registry);
+    this.execucao = Timer.builder("agenda.executor.execucao")
+        .tag("executor", executor)
+        .register(registry);
+  }
+
+  @Override
+  public Runnable decorate(Runnable tarefa) {
+    long enfileirada = System.nanoTime();
+    return () -> {
+      long inicio = System.nanoTime();
+      espera.record(inicio - enfileirada, TimeUnit.NANOSECONDS);
+      try {
+        tarefa.run();
+      } finally {
+        execucao.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+      }
+    };
+  }
+}
@@ -0,0 +1,93 @@
+package com.panizio.agenda.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * ETags dos cadastros, derivadas da coluna {@code versao}: a de um cadastro é a
+ * própria versão e a de uma página é um hash das chaves e versões dos itens.
+ *
+ * Respostas com o cadastro no corpo levam a versão seguida de um hash do
+ * {@code Accept} e do {@code fields}, que decidem o formato e os campos: cada
+ * representação tem a sua ETag forte. O {@code If-Match} só compara a versão.
+ *
+ * A ETag de página é fraca: identifica o conteúdo, não os bytes, que mudam com
+ * {@code fields}, com o formato negociado e com a compressão (o Tomcat não
+ * comprime respostas com ETag forte).
+ */
+final class Etags {
+
+  private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+  private static final long FNV_PRIMO = 0x100000001b3L;
+
+  private Etags() {
+  }
+
+  static String deVersao(long versao) {
+    return "\"" + versao + "\"";
+  }
+
+  static String deRepresentacao(long versao, String accept, String fields) {
+    long hash = FNV_OFFSET;
+    String variacao = (accept == null ? "" : accept.trim()) + "\n" + (fields == null ? "" : fields.trim());
+    for (byte b : variacao.getBytes(StandardCharsets.UTF_8)) {
+      hash = (hash ^ (b & 0xff)) * FNV_PRIMO;
+    }
+    return "\"" + versao + "-" + Long.toHexString(hash) + "\"";
+  }
+
+  static <T> String dePagina(List<T> itens, Function<T, String> chave, ToLongFunction<T> versao) {
+    long hash = FNV_OFFSET;
+    for (T item : itens) {
+      for (byte b : chave.apply(item).getBytes(StandardCharsets.UTF_8)) {
+        hash = (hash ^ (b & 0xff)) * FNV_PRIMO;
+      }
+      long v = versao.applyAsLong(item);
+      for (int i = 0; i < 64; i += 8) {
+        hash = (hash ^ ((v >>> i) & 0xff)) * FNV_PRIMO;
+      }
+    }
+    return "W/\"p" + itens.size() + "-" + Long.toHexString(hash) + "\"";
+  }
+
+  /** Comparação fraca do {@code If-None-Match}, que pode trazer várias ETags ou {@code *}. */
+  static boolean corresponde(String ifNoneMatch, String etag) {
+    String opaca = semPrefixoFraco(etag);
+    for (String candidata : ifNoneMatch.split(",")) {
+      String valor = semPrefixoFraco(candidata.trim());
+      if (valor.equals("*") || valor.equals(opaca)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static String semPrefixoFraco(String etag) {
+    return etag.startsWith("W/") ? etag.substring(2) : etag;
+  }
+
+  /**
+   * Versão exigida por um {@code If-Match}, com ou sem o hash da representação.
+   * Nulo quando não há condição ({@code *} ou cabeçalho ausente); ETags fracas,
+   * listas ou valores que não são desta API resultam em -1, que nunca
+   * corresponde a um cadastro.
+   */
+  static Long versaoExigida(String ifMatch) {
+    if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+      return null;
+    }
+    String valor = ifMatch.trim();
+    if (valor.length() < 3 || valor.charAt(0) != '"' || valor.charAt(valor.length() - 1) != '"') {
+      return -1L;
+    }
+    String opaca = valor.substring(1, valor.length() - 1);
+    int hifen = opaca.indexOf('-');
+    try {
+      return Long.parseLong(hifen < 0 ? opaca : opaca.substring(0, hifen));
+    } catch (NumberFormatException e) {
+      return -1L;
+    }
+  }
+}
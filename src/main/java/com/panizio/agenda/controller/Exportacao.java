@@ -0,0 +1,60 @@
+package com.panizio.agenda.controller;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.panizio.agenda.model.FormatoArquivo;
+
+/**
+ * Respostas da exportação em lote: CSV com {@code Accept: text/csv}, NDJSON
+ * nos demais casos, comprimidas quando o cliente envia
+ * {@code Accept-Encoding: gzip}.
+ */
+final class Exportacao {
+
+  static final MediaType CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+
+  @FunctionalInterface
+  interface Exportador {
+    void exportar(FormatoArquivo formato, OutputStream saida) throws IOException;
+  }
+
+  private Exportacao() {
+  }
+
+  static ResponseEntity<StreamingResponseBody> responder(String accept, String acceptEncoding, String nomeArquivo,
+      Exportador exportador) {
+    FormatoArquivo formato = accept != null && accept.contains("text/csv") ? FormatoArquivo.CSV : FormatoArquivo.NDJSON;
+    boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+
+    StreamingResponseBody corpo = saida -> {
+      if (gzip) {
+        GZIPOutputStream comprimida = new GZIPOutputStream(saida, 64 * 1024);
+        exportador.exportar(formato, comprimida);
+        comprimida.finish();
+      } else {
+        exportador.exportar(formato, saida);
+      }
+    };
+
+    ResponseEntity.BodyBuilder resposta = ResponseEntity.ok()
+        .contentType(formato == FormatoArquivo.CSV ? CSV : Ndjson.MEDIA_TYPE)
+        .header(HttpHeaders.CACHE_CONTROL, "no-store")
+        .header(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING)
+        .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+            .filename(nomeArquivo + (formato == FormatoArquivo.CSV ? ".csv" : ".ndjson"))
+            .build()
+            .toString());
+    if (gzip) {
+      resposta.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+    }
+    return resposta.body(corpo);
+  }
+}
@@ -0,0 +1,53 @@
+package com.panizio.agenda.controller;
+
+import java.net.URI;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.panizio.agenda.model.FormatoArquivo;
+import com.panizio.agenda.model.Importacao;
+import com.panizio.agenda.service.ImportacaoService;
+
+/**
+ * Andamento e relatório de erros das importações em lote, iniciadas em
+ * {@code POST /api/pfisica/importacoes} e {@code POST /api/pjuridica/importacoes}.
+ */
+@RestController
+@RequestMapping("/api/importacoes")
+public class ImportacaoController {
+
+  static final String CSV = "text/csv";
+
+  @Autowired
+  private ImportacaoService importacaoService;
+
+  @GetMapping("/{id}")
+  public ResponseEntity<Importacao> buscar(@PathVariable String id) {
+    return ResponseEntity.of(importacaoService.buscar(id));
+  }
+
+  /** Linhas recusadas, em ordem, até o limite {@code agenda.importacao.maximo-erros}. */
+  @GetMapping("/{id}/erros")
+  public ResponseEntity<List<Importacao.ErroLinha>> buscarErros(@PathVariable String id) {
+    return ResponseEntity.of(importacaoService.buscar(id).map(Importacao::getErros));
+  }
+
+  static FormatoArquivo formato(String contentType) {
+    return MediaType.parseMediaType(contentType).isCompatibleWith(Ndjson.MEDIA_TYPE)
+        ? FormatoArquivo.NDJSON
+        : FormatoArquivo.CSV;
+  }
+
+  static ResponseEntity<Importacao> aceita(Importacao importacao) {
+    return ResponseEntity.accepted()
+        .location(URI.create("/api/importacoes/" + importacao.getId()))
+        .body(importacao);
+  }
+}
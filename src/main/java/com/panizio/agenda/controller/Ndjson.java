@@ -0,0 +1,57 @@
+package com.panizio.agenda.controller;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Respostas em NDJSON (um objeto JSON por linha) escritas à medida que as
+ * páginas são lidas do banco.
+ */
+final class Ndjson {
+
+  static final String VALOR = "application/x-ndjson";
+  static final MediaType MEDIA_TYPE = MediaType.parseMediaType(VALOR);
+
+  private Ndjson() {
+  }
+
+  static <T> ResponseEntity<StreamingResponseBody> responder(ObjectMapper objectMapper,
+      Consumer<Consumer<List<T>>> percorrer) {
+    // O ObjectMapper do Spring Boot liga FLUSH_AFTER_WRITE_VALUE, que faria um
+    // flush (e um pedaço chunked na resposta) por linha; aqui é um por página.
+    ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    StreamingResponseBody corpo = saida -> {
+      try (JsonGenerator generator = objectMapper.getFactory().createGenerator(saida)) {
+        // Sem o espaço que o Jackson põe entre valores de raiz; o separador é a quebra de linha
+        generator.setRootValueSeparator(null);
+        percorrer.accept(pagina -> {
+          try {
+            for (T item : pagina) {
+              writer.writeValue(generator, item);
+              generator.writeRaw('\n');
+            }
+            generator.flush();
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        });
+      }
+    };
+    return ResponseEntity.ok()
+        .contentType(MEDIA_TYPE)
+        .header(HttpHeaders.CACHE_CONTROL, "no-store")
+        .body(corpo);
+  }
+}
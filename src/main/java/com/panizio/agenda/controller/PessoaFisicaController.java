@@ -1,19 +1,33 @@
 package com.panizio.agenda.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.panizio.agenda.exception.ContadorValidacao;
 import com.panizio.agenda.exception.ValidacaoException;
+import com.panizio.agenda.model.Importacao;
+import com.panizio.agenda.model.PaginaCursor;
 import com.panizio.agenda.model.PessoaFisica;
+import com.panizio.agenda.model.PontoMapa;
+import com.panizio.agenda.model.Projecao;
+import com.panizio.agenda.repository.VersaoContato;
+import com.panizio.agenda.service.ExportacaoService;
+import com.panizio.agenda.service.ImportacaoService;
 import com.panizio.agenda.service.PessoaFisicaService;
 
 import jakarta.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/pfisica")
@@ -22,47 +36,219 @@ public class PessoaFisicaController {
     @Autowired
     private PessoaFisicaService pessoaFisicaService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ImportacaoService importacaoService;
+
+    @Autowired
+    private ExportacaoService exportacaoService;
+
+    @Autowired
+    private ContadorValidacao contadorValidacao;
+
+    /**
+     * Lista paginada por CPF. Com {@code fields} (ex.: {@code fields=nome,telefone})
+     * lê e devolve só esses campos.
+     */
     @GetMapping
-    public List<PessoaFisica> listarUsuarios() {
-        return pessoaFisicaService.listarUsuarios();
+    public ResponseEntity<?> listarUsuarios(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limite,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Set<String> campos = fields != null ? Projecao.campos(fields, PessoaFisicaService.CAMPOS) : null;
+        if (ifNoneMatch != null) {
+            String etag = Etags.dePagina(pessoaFisicaService.listarVersoes(cursor, limite), VersaoContato::getId,
+                    VersaoContato::getVersao);
+            if (Etags.corresponde(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+        }
+        if (campos != null) {
+            PaginaCursor<Projecao> pagina = pessoaFisicaService.listarCampos(campos, cursor, limite);
+            return ResponseEntity.ok()
+                    .eTag(Etags.dePagina(pagina.itens(), Projecao::id, Projecao::versao))
+                    .body(pagina);
+        }
+        PaginaCursor<PessoaFisica> pagina = pessoaFisicaService.listarUsuarios(cursor, limite);
+        return ResponseEntity.ok()
+                .eTag(Etags.dePagina(pagina.itens(), PessoaFisica::getCpf, PessoaFisica::getVersao))
+                .body(pagina);
+    }
+
+    /**
+     * Com {@code Accept: application/x-ndjson}, a tabela inteira em streaming,
+     * uma pessoa por linha (só com os campos de {@code fields}, se informado).
+     */
+    @GetMapping(produces = Ndjson.VALOR)
+    public ResponseEntity<StreamingResponseBody> listarUsuariosEmStreaming(
+            @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            Set<String> campos = Projecao.campos(fields, PessoaFisicaService.CAMPOS);
+            return Ndjson.<Projecao>responder(objectMapper, pagina -> pessoaFisicaService.percorrerCampos(campos, pagina));
+        }
+        return Ndjson.responder(objectMapper, pessoaFisicaService::percorrerUsuarios);
+    }
+
+    /**
+     * Tabela inteira em CSV ({@code Accept: text/csv}) ou NDJSON, lida com um
+     * cursor e escrita à medida que chega; gzip com {@code Accept-Encoding: gzip}.
+     */
+    @GetMapping("/exportacao")
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return Exportacao.responder(accept, acceptEncoding, "pessoas-fisicas",
+                exportacaoService::exportarPessoasFisicas);
     }
 
     @GetMapping("/{cpf}")
-    public ResponseEntity<PessoaFisica> buscarUsuarioPorCpf(@Valid @PathVariable String cpf) {
+    public ResponseEntity<?> buscarUsuarioPorCpf(
+            @Valid @PathVariable String cpf,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            Optional<Long> versao = pessoaFisicaService.buscarVersao(cpf);
+            String etag = versao.map(v -> Etags.deRepresentacao(v, accept, fields)).orElse(null);
+            if (etag != null && Etags.corresponde(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+        }
+        if (fields != null) {
+            Set<String> campos = Projecao.campos(fields, PessoaFisicaService.CAMPOS);
+            return pessoaFisicaService.buscarCamposPorCpf(campos, cpf)
+                    .map(projecao -> ResponseEntity.ok()
+                            .eTag(Etags.deRepresentacao(projecao.versao(), accept, fields))
+                            .body(projecao))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        }
         PessoaFisica PessoaFisica = pessoaFisicaService.buscarUsuarioPorCpf(cpf);
         if (PessoaFisica != null) {
-            return new ResponseEntity<>(PessoaFisica, HttpStatus.OK);
+            return ResponseEntity.ok().eTag(Etags.deRepresentacao(PessoaFisica.getVersao(), accept, null))
+                    .body(PessoaFisica);
         } else {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
     }
 
     @GetMapping("/filtrar-por-cpf")
-    public ResponseEntity<List<PessoaFisica>> filtrarPorCpf(@Valid @RequestParam String prefixo) {
-        List<PessoaFisica> pessoasFisicas = pessoaFisicaService.filtrarPorCpf(prefixo);
+    public ResponseEntity<PaginaCursor<?>> filtrarPorCpf(
+            @Valid @RequestParam String prefixo,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limite,
+            @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            Set<String> campos = Projecao.campos(fields, PessoaFisicaService.CAMPOS);
+            return ResponseEntity.ok(pessoaFisicaService.filtrarCamposPorCpf(campos, prefixo, cursor, limite));
+        }
+        PaginaCursor<PessoaFisica> pessoasFisicas = pessoaFisicaService.filtrarPorCpf(prefixo, cursor, limite);
         return ResponseEntity.ok(pessoasFisicas);
     }
 
+    /** Busca por parte do nome, sem acento nem caixa, em ordem de relevância. */
+    @GetMapping("/busca")
+    public ResponseEntity<List<PessoaFisica>> buscarPorNome(
+            @RequestParam String termo,
+            @RequestParam(defaultValue = "0") int pagina,
+            @RequestParam(defaultValue = "20") int tamanho) {
+        return ResponseEntity.ok(pessoaFisicaService.buscarPorNome(termo, pagina, tamanho));
+    }
+
+    @GetMapping("/proximos")
+    public ResponseEntity<List<PessoaFisica>> buscarProximos(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(required = false) Double raio,
+            @RequestParam(defaultValue = "10") int k,
+            @RequestParam(defaultValue = "0") int pagina,
+            @RequestParam(defaultValue = "20") int tamanho) {
+        return ResponseEntity.ok(pessoaFisicaService.buscarProximos(lat, lon, raio, k, pagina, tamanho));
+    }
+
+    @GetMapping("/mapa")
+    public ResponseEntity<List<PontoMapa>> buscarNoMapa(
+            @RequestParam double minLat,
+            @RequestParam double minLon,
+            @RequestParam double maxLat,
+            @RequestParam double maxLon,
+            @RequestParam(defaultValue = "1000") int limite) {
+        return ResponseEntity.ok(pessoaFisicaService.buscarNoMapa(minLat, minLon, maxLat, maxLon, limite));
+    }
+
+    @GetMapping("/mapa/proximos")
+    public ResponseEntity<List<PontoMapa>> buscarPontosProximos(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(defaultValue = "10") int k) {
+        return ResponseEntity.ok(pessoaFisicaService.buscarPontosProximos(lat, lon, k));
+    }
+
     @PutMapping("/{cpf}")
     public ResponseEntity<?> atualizarPessoaFisica(
             @PathVariable String cpf,
-            @RequestBody PessoaFisica pessoaFisicaAtualizada) {
+            @RequestBody PessoaFisica pessoaFisicaAtualizada,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            PessoaFisica pessoaFisica = pessoaFisicaService.atualizarPessoaFisica(cpf, pessoaFisicaAtualizada);
-            return new ResponseEntity<>(pessoaFisica, HttpStatus.OK);
+            PessoaFisica pessoaFisica = pessoaFisicaService.atualizarPessoaFisica(cpf, pessoaFisicaAtualizada,
+                    Etags.versaoExigida(ifMatch));
+            return ResponseEntity.ok().eTag(Etags.deRepresentacao(pessoaFisica.getVersao(), accept, null))
+                    .body(pessoaFisica);
         } catch (IllegalArgumentException e) {
             Map<String, String> erro = new HashMap<>();
             erro.put("erro", e.getMessage());
             return new ResponseEntity<>(erro, HttpStatus.BAD_REQUEST);
         } catch (ValidacaoException e) {
+            contadorValidacao.registrar("api", e.getErros());
+            return new ResponseEntity<>(e.getErros(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /** Altera só os campos enviados; responde 204 com a nova versão na ETag. */
+    @PatchMapping("/{cpf}")
+    public ResponseEntity<?> atualizarParcialmente(
+            @PathVariable String cpf,
+            @RequestBody PessoaFisica campos,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        try {
+            long versao = pessoaFisicaService.atualizarParcialmente(cpf, campos, Etags.versaoExigida(ifMatch));
+            return ResponseEntity.noContent().eTag(Etags.deVersao(versao)).build();
+        } catch (IllegalArgumentException e) {
+            Map<String, String> erro = new HashMap<>();
+            erro.put("erro", e.getMessage());
+            return new ResponseEntity<>(erro, HttpStatus.BAD_REQUEST);
+        } catch (ValidacaoException e) {
+            contadorValidacao.registrar("api", e.getErros());
             return new ResponseEntity<>(e.getErros(), HttpStatus.BAD_REQUEST);
         }
     }
 
     @PostMapping
-    public ResponseEntity<PessoaFisica> criarUsuario(@Valid @RequestBody PessoaFisica PessoaFisica) {
+    public ResponseEntity<PessoaFisica> criarUsuario(
+            @Valid @RequestBody PessoaFisica PessoaFisica,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         PessoaFisica novoUsuario = pessoaFisicaService.salvarUsuario(PessoaFisica);
-        return new ResponseEntity<>(novoUsuario, HttpStatus.CREATED);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .eTag(Etags.deRepresentacao(novoUsuario.getVersao(), accept, null))
+                .body(novoUsuario);
+    }
+
+    /**
+     * Importação em lote de um CSV com cabeçalho ou de um NDJSON, opcionalmente
+     * com {@code Content-Encoding: gzip}. Responde 202 assim que o arquivo é
+     * recebido; o andamento fica no endereço do cabeçalho Location.
+     */
+    @PostMapping(value = "/importacoes", consumes = { ImportacaoController.CSV, "application/x-ndjson" })
+    public ResponseEntity<Importacao> importar(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+            InputStream corpo) {
+        Importacao importacao = importacaoService.importarPessoasFisicas(corpo,
+                ImportacaoController.formato(contentType), "gzip".equalsIgnoreCase(contentEncoding));
+        return ImportacaoController.aceita(importacao);
     }
 
     @DeleteMapping("/{cpf}")
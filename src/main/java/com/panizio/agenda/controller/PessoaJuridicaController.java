@@ -1,14 +1,27 @@
 package com.panizio.agenda.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.panizio.agenda.model.Importacao;
+import com.panizio.agenda.model.PaginaCursor;
 import com.panizio.agenda.model.PessoaJuridica;
+import com.panizio.agenda.model.PontoMapa;
+import com.panizio.agenda.model.Projecao;
+import com.panizio.agenda.repository.VersaoContato;
+import com.panizio.agenda.service.ExportacaoService;
+import com.panizio.agenda.service.ImportacaoService;
 import com.panizio.agenda.service.PessoaJuridicaService;
 
+import java.io.InputStream;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/pjuridica")
@@ -17,39 +30,198 @@ public class PessoaJuridicaController {
   @Autowired
   private PessoaJuridicaService pessoaJuridicaService;
 
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private ImportacaoService importacaoService;
+
+  @Autowired
+  private ExportacaoService exportacaoService;
+
+  /**
+   * Lista paginada por CNPJ. Com {@code fields} (ex.: {@code fields=razaoSocial,telefone})
+   * lê e devolve só esses campos.
+   */
   @GetMapping
-  public List<PessoaJuridica> listarPessoasJuridicas() {
-    return pessoaJuridicaService.listarPessoasJuridicas();
+  public ResponseEntity<?> listarPessoasJuridicas(
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "50") int limite,
+      @RequestParam(required = false) String fields,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+    Set<String> campos = fields != null ? Projecao.campos(fields, PessoaJuridicaService.CAMPOS) : null;
+    if (ifNoneMatch != null) {
+      String etag = Etags.dePagina(pessoaJuridicaService.listarVersoes(cursor, limite), VersaoContato::getId,
+          VersaoContato::getVersao);
+      if (Etags.corresponde(ifNoneMatch, etag)) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+      }
+    }
+    if (campos != null) {
+      PaginaCursor<Projecao> pagina = pessoaJuridicaService.listarCampos(campos, cursor, limite);
+      return ResponseEntity.ok()
+          .eTag(Etags.dePagina(pagina.itens(), Projecao::id, Projecao::versao))
+          .body(pagina);
+    }
+    PaginaCursor<PessoaJuridica> pagina = pessoaJuridicaService.listarPessoasJuridicas(cursor, limite);
+    return ResponseEntity.ok()
+        .eTag(Etags.dePagina(pagina.itens(), PessoaJuridica::getCnpj, PessoaJuridica::getVersao))
+        .body(pagina);
+  }
+
+  /**
+   * Com {@code Accept: application/x-ndjson}, a tabela inteira em streaming,
+   * uma pessoa por linha (só com os campos de {@code fields}, se informado).
+   */
+  @GetMapping(produces = Ndjson.VALOR)
+  public ResponseEntity<StreamingResponseBody> listarPessoasJuridicasEmStreaming(
+      @RequestParam(required = false) String fields) {
+    if (fields != null) {
+      Set<String> campos = Projecao.campos(fields, PessoaJuridicaService.CAMPOS);
+      return Ndjson.<Projecao>responder(objectMapper, pagina -> pessoaJuridicaService.percorrerCampos(campos, pagina));
+    }
+    return Ndjson.responder(objectMapper, pessoaJuridicaService::percorrerPessoasJuridicas);
+  }
+
+  /**
+   * Tabela inteira em CSV ({@code Accept: text/csv}) ou NDJSON, lida com um
+   * cursor e escrita à medida que chega; gzip com {@code Accept-Encoding: gzip}.
+   */
+  @GetMapping("/exportacao")
+  public ResponseEntity<StreamingResponseBody> exportar(
+      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+    return Exportacao.responder(accept, acceptEncoding, "pessoas-juridicas",
+        exportacaoService::exportarPessoasJuridicas);
   }
 
   @GetMapping("/{cnpj}")
-  public ResponseEntity<PessoaJuridica> buscarPessoaJuridicaPorCnpj(@PathVariable String cnpj) {
+  public ResponseEntity<?> buscarPessoaJuridicaPorCnpj(
+      @PathVariable String cnpj,
+      @RequestParam(required = false) String fields,
+      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+    if (ifNoneMatch != null) {
+      Optional<Long> versao = pessoaJuridicaService.buscarVersao(cnpj);
+      String etag = versao.map(v -> Etags.deRepresentacao(v, accept, fields)).orElse(null);
+      if (etag != null && Etags.corresponde(ifNoneMatch, etag)) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+      }
+    }
+    if (fields != null) {
+      Set<String> campos = Projecao.campos(fields, PessoaJuridicaService.CAMPOS);
+      return pessoaJuridicaService.buscarCamposPorCnpj(campos, cnpj)
+          .map(projecao -> ResponseEntity.ok()
+              .eTag(Etags.deRepresentacao(projecao.versao(), accept, fields))
+              .body(projecao))
+          .orElseGet(() -> ResponseEntity.notFound().build());
+    }
     PessoaJuridica pessoaJuridica = pessoaJuridicaService.buscarPessoaJuridicaPorCnpj(cnpj);
     if (pessoaJuridica != null) {
-      return new ResponseEntity<>(pessoaJuridica, HttpStatus.OK);
+      return ResponseEntity.ok().eTag(Etags.deRepresentacao(pessoaJuridica.getVersao(), accept, null))
+          .body(pessoaJuridica);
     } else {
       return new ResponseEntity<>(HttpStatus.NOT_FOUND);
     }
   }
 
   @GetMapping("/filtrar-por-cnpj")
-  public ResponseEntity<List<PessoaJuridica>> filtrarPorCpf(@RequestParam String prefixo) {
-    List<PessoaJuridica> pessoasJuridica = pessoaJuridicaService.filtrarPorCnpj(prefixo);
+  public ResponseEntity<PaginaCursor<?>> filtrarPorCpf(
+      @RequestParam String prefixo,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "20") int limite,
+      @RequestParam(required = false) String fields) {
+    if (fields != null) {
+      Set<String> campos = Projecao.campos(fields, PessoaJuridicaService.CAMPOS);
+      return ResponseEntity.ok(pessoaJuridicaService.filtrarCamposPorCnpj(campos, prefixo, cursor, limite));
+    }
+    PaginaCursor<PessoaJuridica> pessoasJuridica = pessoaJuridicaService.filtrarPorCnpj(prefixo, cursor, limite);
     return ResponseEntity.ok(pessoasJuridica);
   }
 
+  /** Busca por parte da razão social ou do nome fantasia, sem acento nem caixa, em ordem de relevância. */
+  @GetMapping("/busca")
+  public ResponseEntity<List<PessoaJuridica>> buscarPorNome(
+      @RequestParam String termo,
+      @RequestParam(defaultValue = "0") int pagina,
+      @RequestParam(defaultValue = "20") int tamanho) {
+    return ResponseEntity.ok(pessoaJuridicaService.buscarPorNome(termo, pagina, tamanho));
+  }
+
+  @GetMapping("/proximos")
+  public ResponseEntity<List<PessoaJuridica>> buscarProximos(
+      @RequestParam double lat,
+      @RequestParam double lon,
+      @RequestParam(required = false) Double raio,
+      @RequestParam(defaultValue = "10") int k,
+      @RequestParam(defaultValue = "0") int pagina,
+      @RequestParam(defaultValue = "20") int tamanho) {
+    return ResponseEntity.ok(pessoaJuridicaService.buscarProximos(lat, lon, raio, k, pagina, tamanho));
+  }
+
+  @GetMapping("/mapa")
+  public ResponseEntity<List<PontoMapa>> buscarNoMapa(
+      @RequestParam double minLat,
+      @RequestParam double minLon,
+      @RequestParam double maxLat,
+      @RequestParam double maxLon,
+      @RequestParam(defaultValue = "1000") int limite) {
+    return ResponseEntity.ok(pessoaJuridicaService.buscarNoMapa(minLat, minLon, maxLat, maxLon, limite));
+  }
+
+  @GetMapping("/mapa/proximos")
+  public ResponseEntity<List<PontoMapa>> buscarPontosProximos(
+      @RequestParam double lat,
+      @RequestParam double lon,
+      @RequestParam(defaultValue = "10") int k) {
+    return ResponseEntity.ok(pessoaJuridicaService.buscarPontosProximos(lat, lon, k));
+  }
+
   @PutMapping("/{cnpj}")
   public ResponseEntity<PessoaJuridica> atualizarPessoaJuridica(
       @PathVariable String cnpj,
-      @RequestBody PessoaJuridica pessoaJuridicaAtualizada) {
-    PessoaJuridica pessoaJuridica = pessoaJuridicaService.atualizarPessoaJuridica(cnpj, pessoaJuridicaAtualizada);
-    return new ResponseEntity<>(pessoaJuridica, HttpStatus.OK);
+      @RequestBody PessoaJuridica pessoaJuridicaAtualizada,
+      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+    PessoaJuridica pessoaJuridica = pessoaJuridicaService.atualizarPessoaJuridica(cnpj, pessoaJuridicaAtualizada,
+        Etags.versaoExigida(ifMatch));
+    return ResponseEntity.ok().eTag(Etags.deRepresentacao(pessoaJuridica.getVersao(), accept, null))
+        .body(pessoaJuridica);
+  }
+
+  /** Altera só os campos enviados; responde 204 com a nova versão na ETag. */
+  @PatchMapping("/{cnpj}")
+  public ResponseEntity<Void> atualizarParcialmente(
+      @PathVariable String cnpj,
+      @RequestBody PessoaJuridica campos,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+    long versao = pessoaJuridicaService.atualizarParcialmente(cnpj, campos, Etags.versaoExigida(ifMatch));
+    return ResponseEntity.noContent().eTag(Etags.deVersao(versao)).build();
   }
 
   @PostMapping
-  public ResponseEntity<PessoaJuridica> criarPessoaJuridica(@RequestBody PessoaJuridica pessoaJuridica) {
+  public ResponseEntity<PessoaJuridica> criarPessoaJuridica(
+      @RequestBody PessoaJuridica pessoaJuridica,
+      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
     PessoaJuridica novaPessoaJuridica = pessoaJuridicaService.salvarPessoaJuridica(pessoaJuridica);
-    return new ResponseEntity<>(novaPessoaJuridica, HttpStatus.CREATED);
+    return ResponseEntity.status(HttpStatus.CREATED)
+        .eTag(Etags.deRepresentacao(novaPessoaJuridica.getVersao(), accept, null))
+        .body(novaPessoaJuridica);
+  }
+
+  /**
+   * Importação em lote de um CSV com cabeçalho ou de um NDJSON, opcionalmente
+   * com {@code Content-Encoding: gzip}. Responde 202 assim que o arquivo é
+   * recebido; o andamento fica no endereço do cabeçalho Location.
+   */
+  @PostMapping(value = "/importacoes", consumes = { ImportacaoController.CSV, "application/x-ndjson" })
+  public ResponseEntity<Importacao> importar(
+      @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+      @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+      InputStream corpo) {
+    Importacao importacao = importacaoService.importarPessoasJuridicas(corpo,
+        ImportacaoController.formato(contentType), "gzip".equalsIgnoreCase(contentEncoding));
+    return ImportacaoController.aceita(importacao);
   }
 
   @DeleteMapping("/{cnpj}")
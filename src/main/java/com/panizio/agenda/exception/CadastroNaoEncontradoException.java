@@ -0,0 +1,9 @@
+package com.panizio.agenda.exception;
+
+/** Não existe cadastro com o documento informado. */
+public class CadastroNaoEncontradoException extends RuntimeException {
+
+  public CadastroNaoEncontradoException(String mensagem) {
+    super(mensagem);
+  }
+}
@@ -0,0 +1,27 @@
+package com.panizio.agenda.exception;
+
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Conta as recusas por validação em {@code agenda.validacao.falhas}, com as tags
+ * {@code campo} e {@code origem} ({@code api} ou {@code importacao}).
+ */
+@Component
+public class ContadorValidacao {
+
+  private final MeterRegistry registry;
+
+  public ContadorValidacao(MeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  public void registrar(String origem, Map<String, String> erros) {
+    for (String campo : erros.keySet()) {
+      registry.counter("agenda.validacao.falhas", "origem", origem, "campo", campo).increment();
+    }
+  }
+}
@@ -0,0 +1,16 @@
+package com.panizio.agenda.exception;
+
+import java.util.Map;
+
+/**
+ * O serviço de geolocalização não respondeu (sem vaga, erro de rede, timeout ou
+ * status diferente de 200). Falha passageira: ao contrário de um CEP
+ * inexistente, a mesma consulta pode dar certo mais tarde. Para a API continua
+ * sendo um erro de validação do campo {@code cep}.
+ */
+public class GeocodificacaoIndisponivelException extends ValidacaoException {
+
+  public GeocodificacaoIndisponivelException() {
+    super(Map.of("cep", "Falha ao buscar coordenadas"));
+  }
+}
@@ -1,20 +1,41 @@
 package com.panizio.agenda.exception;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
+import jakarta.servlet.http.HttpServletRequest;
+
 import java.util.HashMap;
 import java.util.Map;
 
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
+    private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+
+    private final ContadorValidacao contadorValidacao;
+
+    public GlobalExceptionHandler(ContadorValidacao contadorValidacao) {
+        this.contadorValidacao = contadorValidacao;
+    }
+
+    // Tipo fixo: o erro sai em JSON mesmo quando o cliente pediu NDJSON
     @ExceptionHandler(ValidacaoException.class)
     public ResponseEntity<Map<String, String>> handleValidacaoException(ValidacaoException ex) {
-        return new ResponseEntity<>(ex.getErros(), HttpStatus.BAD_REQUEST);
+        contadorValidacao.registrar("api", ex.getErros());
+        return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON).body(ex.getErros());
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
@@ -23,11 +44,72 @@ public class GlobalExceptionHandler {
         ex.getBindingResult().getFieldErrors().forEach(error -> {
             errors.put(error.getField(), error.getDefaultMessage());
         });
+        contadorValidacao.registrar("api", errors);
         return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(VersaoDivergenteException.class)
+    public ResponseEntity<Map<String, String>> handleVersaoDivergente(VersaoDivergenteException ex) {
+        Map<String, String> response = new HashMap<>();
+        response.put("versao", "O cadastro foi alterado desde a versão informada em If-Match.");
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                .eTag("\"" + ex.getVersaoAtual() + "\"")
+                .body(response);
+    }
+
+    @ExceptionHandler(CadastroNaoEncontradoException.class)
+    public ResponseEntity<Map<String, String>> handleCadastroNaoEncontrado(CadastroNaoEncontradoException ex) {
+        Map<String, String> response = new HashMap<>();
+        response.put("erro", ex.getMessage());
+        return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
+    }
+
+    /** Outra requisição gravou o mesmo cadastro entre a leitura e o UPDATE. */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, String>> handleGravacaoConcorrente(OptimisticLockingFailureException ex) {
+        Map<String, String> response = new HashMap<>();
+        response.put("versao", "O cadastro foi alterado por outra requisição. Busque-o novamente.");
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Nenhuma conexão do pool ficou livre dentro do connection-timeout do Hikari:
+     * o banco está saturado (ou fora do ar) e a requisição é recusada em vez de
+     * esperar indefinidamente.
+     */
+    @ExceptionHandler({ CannotCreateTransactionException.class, CannotGetJdbcConnectionException.class })
+    public ResponseEntity<Map<String, String>> handleBancoIndisponivel(Exception ex) {
+        log.warn("Banco indisponível: {}", ex.getMessage());
+        Map<String, String> response = new HashMap<>();
+        response.put("erro", "Serviço sobrecarregado. Tente novamente em instantes.");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(response);
+    }
+
+    /** Corpo num formato que o endpoint não aceita (a importação só recebe CSV e NDJSON). */
+    @ExceptionHandler(HttpMediaTypeNotSupportedException.class)
+    public ResponseEntity<Map<String, String>> handleFormatoNaoSuportado(HttpMediaTypeNotSupportedException ex) {
+        Map<String, String> response = new HashMap<>();
+        response.put("erro", "Formato não suportado. Use " + ex.getSupportedMediaTypes() + ".");
+        return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE)
+                .headers(ex.getHeaders())
+                .body(response);
+    }
+
+    /** O executor de importações ou o de respostas em streaming está cheio. */
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<Map<String, String>> handleFilaCheia(TaskRejectedException ex) {
+        Map<String, String> response = new HashMap<>();
+        response.put("erro", "Muitas operações em andamento. Tente novamente mais tarde.");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "60")
+                .body(response);
+    }
+
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<Map<String, String>> handleGenericException(Exception ex) {
+    public ResponseEntity<Map<String, String>> handleGenericException(Exception ex, HttpServletRequest request) {
+        log.error("Erro não tratado em {} {}", request.getMethod(), request.getRequestURI(), ex);
         Map<String, String> response = new HashMap<>();
         response.put("erro", "Ocorreu um erro inesperado. Tente novamente mais tarde.");
         return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
@@ -0,0 +1,15 @@
+package com.panizio.agenda.exception;
+
+/** O {@code If-Match} da requisição não corresponde à versão atual do cadastro. */
+public class VersaoDivergenteException extends RuntimeException {
+  private final long versaoAtual;
+
+  public VersaoDivergenteException(long versaoAtual) {
+    super("Versão do cadastro divergente");
+    this.versaoAtual = versaoAtual;
+  }
+
+  public long getVersaoAtual() {
+    return versaoAtual;
+  }
+}
@@ -0,0 +1,104 @@
+package com.panizio.agenda.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+
+/**
+ * E-mail de confirmação na caixa de saída. É gravado na mesma transação do
+ * cadastro e enviado depois pelo {@code EmailSaidaWorker}.
+ */
+@Entity
+public class EmailSaida {
+
+  public enum Status {
+    PENDENTE,
+    ENVIADO,
+    /** Esgotou as tentativas; fica guardado para análise e reenvio manual. */
+    FALHOU
+  }
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false)
+  private String nome;
+
+  @Column(nullable = false)
+  private String email;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 10)
+  private Status status;
+
+  private int tentativas;
+
+  @Column(nullable = false)
+  private Instant proximaTentativa;
+
+  @Column(nullable = false)
+  private Instant criadoEm;
+
+  private Instant enviadoEm;
+
+  @Column(length = 500)
+  private String ultimoErro;
+
+  protected EmailSaida() {
+  }
+
+  public EmailSaida(String nome, String email, Instant criadoEm) {
+    this.nome = nome;
+    this.email = email;
+    this.status = Status.PENDENTE;
+    this.criadoEm = criadoEm;
+    this.proximaTentativa = criadoEm;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public String getNome() {
+    return nome;
+  }
+
+  public String getEmail() {
+    return email;
+  }
+
+  public Status getStatus() {
+    return status;
+  }
+
+  public int getTentativas() {
+    return tentativas;
+  }
+
+  public Instant getProximaTentativa() {
+    return proximaTentativa;
+  }
+
+  public void setProximaTentativa(Instant proximaTentativa) {
+    this.proximaTentativa = proximaTentativa;
+  }
+
+  public Instant getCriadoEm() {
+    return criadoEm;
+  }
+
+  public Instant getEnviadoEm() {
+    return enviadoEm;
+  }
+
+  public String getUltimoErro() {
+    return ultimoErro;
+  }
+}
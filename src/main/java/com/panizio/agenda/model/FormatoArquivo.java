@@ -0,0 +1,9 @@
+package com.panizio.agenda.model;
+
+/** Formatos aceitos na importação e gerados na exportação em lote. */
+public enum FormatoArquivo {
+  /** Com cabeçalho; as colunas têm os nomes dos campos do JSON. */
+  CSV,
+  /** Um objeto JSON por linha. */
+  NDJSON
+}
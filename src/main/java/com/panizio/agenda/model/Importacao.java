@@ -0,0 +1,160 @@
+package com.panizio.agenda.model;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Andamento de uma importação em lote. Os contadores são atualizados pela
+ * thread que processa o arquivo e lidos a qualquer momento pelo endpoint de
+ * progresso.
+ */
+public class Importacao {
+
+  public enum Status {
+    AGUARDANDO,
+    PROCESSANDO,
+    CONCLUIDA,
+    /** Interrompida por um erro que não é de uma linha (arquivo ilegível, banco fora do ar). */
+    FALHOU
+  }
+
+  /** Motivos da recusa de uma linha, por campo. */
+  public record ErroLinha(long linha, Map<String, String> erros) {
+  }
+
+  private final String id;
+  private final String tipo;
+  private final FormatoArquivo formato;
+  private final long bytesTotais;
+  private final int maximoErros;
+  private final Instant criadaEm = Instant.now();
+  private final AtomicLong bytesLidos = new AtomicLong();
+  private final AtomicLong linhasLidas = new AtomicLong();
+  private final AtomicLong importadas = new AtomicLong();
+  private final AtomicLong rejeitadas = new AtomicLong();
+  private final List<ErroLinha> erros = new ArrayList<>();
+  private volatile Status status = Status.AGUARDANDO;
+  private volatile Instant concluidaEm;
+  private volatile String falha;
+
+  public Importacao(String id, String tipo, FormatoArquivo formato, long bytesTotais, int maximoErros) {
+    this.id = id;
+    this.tipo = tipo;
+    this.formato = formato;
+    this.bytesTotais = bytesTotais;
+    this.maximoErros = maximoErros;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public String getTipo() {
+    return tipo;
+  }
+
+  public FormatoArquivo getFormato() {
+    return formato;
+  }
+
+  public Status getStatus() {
+    return status;
+  }
+
+  public Instant getCriadaEm() {
+    return criadaEm;
+  }
+
+  public Instant getConcluidaEm() {
+    return concluidaEm;
+  }
+
+  public long getBytesTotais() {
+    return bytesTotais;
+  }
+
+  public long getBytesLidos() {
+    return bytesLidos.get();
+  }
+
+  /** Percentual do arquivo já lido (0 a 100). */
+  public int getPercentual() {
+    return bytesTotais == 0 ? 100 : (int) (bytesLidos.get() * 100 / bytesTotais);
+  }
+
+  public long getLinhasLidas() {
+    return linhasLidas.get();
+  }
+
+  public long getImportadas() {
+    return importadas.get();
+  }
+
+  public long getRejeitadas() {
+    return rejeitadas.get();
+  }
+
+  public String getFalha() {
+    return falha;
+  }
+
+  /** Quantos erros de linha ficaram de fora do relatório por ultrapassar o limite. */
+  public long getErrosOmitidos() {
+    synchronized (erros) {
+      return rejeitadas.get() - erros.size();
+    }
+  }
+
+  @JsonIgnore
+  public List<ErroLinha> getErros() {
+    synchronized (erros) {
+      return List.copyOf(erros);
+    }
+  }
+
+  @JsonIgnore
+  public boolean isTerminada() {
+    return status == Status.CONCLUIDA || status == Status.FALHOU;
+  }
+
+  public void iniciar() {
+    status = Status.PROCESSANDO;
+  }
+
+  public void lerBytes(long quantidade) {
+    bytesLidos.addAndGet(quantidade);
+  }
+
+  public void lerLinhas(int quantidade) {
+    linhasLidas.addAndGet(quantidade);
+  }
+
+  public void importar(int quantidade) {
+    importadas.addAndGet(quantidade);
+  }
+
+  public void rejeitar(long linha, Map<String, String> motivos) {
+    synchronized (erros) {
+      rejeitadas.incrementAndGet();
+      if (erros.size() < maximoErros) {
+        erros.add(new ErroLinha(linha, motivos));
+      }
+    }
+  }
+
+  public void concluir() {
+    concluidaEm = Instant.now();
+    status = Status.CONCLUIDA;
+  }
+
+  public void falhar(String motivo) {
+    falha = motivo;
+    concluidaEm = Instant.now();
+    status = Status.FALHOU;
+  }
+}
@@ -0,0 +1,35 @@
+package com.panizio.agenda.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import com.panizio.agenda.exception.ValidacaoException;
+
+/**
+ * Página de uma listagem paginada por chave (keyset). O cursor é opaco para o
+ * cliente: basta repassá-lo em {@code cursor} para obter a página seguinte. Na
+ * última página ele vem nulo.
+ */
+public record PaginaCursor<T>(List<T> itens, String proximoCursor) {
+
+  public static String codificar(String ultimaChave) {
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(ultimaChave.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Retorna a chave a partir da qual a próxima página começa, ou uma string
+   * vazia para a primeira página.
+   */
+  public static String decodificar(String cursor) {
+    if (cursor == null || cursor.isEmpty()) {
+      return "";
+    }
+    try {
+      return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    } catch (IllegalArgumentException e) {
+      throw new ValidacaoException(Map.of("cursor", "Cursor inválido"));
+    }
+  }
+}
@@ -6,13 +6,17 @@ import jakarta.validation.constraints.NotNull;
 import java.time.LocalDate;
 import java.util.Objects;
 
+import org.hibernate.annotations.ColumnDefault;
 import org.locationtech.jts.geom.Point;
+import org.springframework.data.domain.Persistable;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.panizio.agenda.utils.PointSerializer;
 
 @Entity
-public class PessoaFisica {
+public class PessoaFisica implements Persistable<String> {
 
   @Id
   @NotBlank(message = "CPF é obrigatório")
@@ -40,6 +44,22 @@ public class PessoaFisica {
   @JsonSerialize(using = PointSerializer.class)
   private Point coordenadas;
 
+  @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+  @Column(columnDefinition = "boolean not null default false")
+  private boolean geocodificacaoPendente;
+
+  // Incrementada pelo Hibernate a cada UPDATE; é a ETag do cadastro.
+  @Version
+  @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+  @Column(nullable = false)
+  @ColumnDefault("0")
+  private long versao;
+
+  // Objetos criados pela aplicação são inseridos com persist, para que um
+  // documento repetido esbarre na chave primária em vez de virar UPDATE.
+  @Transient
+  private boolean novo = true;
+
   public PessoaFisica() {
   }
 
@@ -126,6 +146,36 @@ public class PessoaFisica {
     this.coordenadas = coordenadas;
   }
 
+  public long getVersao() {
+    return versao;
+  }
+
+  public boolean isGeocodificacaoPendente() {
+    return geocodificacaoPendente;
+  }
+
+  public void setGeocodificacaoPendente(boolean geocodificacaoPendente) {
+    this.geocodificacaoPendente = geocodificacaoPendente;
+  }
+
+  @Override
+  @JsonIgnore
+  public String getId() {
+    return cpf;
+  }
+
+  @Override
+  @JsonIgnore
+  public boolean isNew() {
+    return novo;
+  }
+
+  @PostLoad
+  @PostPersist
+  void marcarPersistido() {
+    this.novo = false;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o)
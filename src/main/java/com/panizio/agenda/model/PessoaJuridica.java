@@ -1,17 +1,25 @@
 package com.panizio.agenda.model;
 
+import org.hibernate.annotations.ColumnDefault;
 import org.locationtech.jts.geom.Point;
+import org.springframework.data.domain.Persistable;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.panizio.agenda.utils.PointSerializer;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Transient;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 
 @Entity
-public class PessoaJuridica {
+public class PessoaJuridica implements Persistable<String> {
 
   @Id
   @NotBlank(message = "CNPJ é obrigatório")
@@ -39,6 +47,22 @@ public class PessoaJuridica {
   @JsonSerialize(using = PointSerializer.class)
   private Point coordenadas;
 
+  @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+  @Column(columnDefinition = "boolean not null default false")
+  private boolean geocodificacaoPendente;
+
+  // Incrementada pelo Hibernate a cada UPDATE; é a ETag do cadastro.
+  @Version
+  @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+  @Column(nullable = false)
+  @ColumnDefault("0")
+  private long versao;
+
+  // Objetos criados pela aplicação são inseridos com persist, para que um
+  // documento repetido esbarre na chave primária em vez de virar UPDATE.
+  @Transient
+  private boolean novo = true;
+
   public PessoaJuridica() {
   }
 
@@ -119,4 +143,34 @@ public class PessoaJuridica {
   public void setCoordenadas(Point coordenadas) {
     this.coordenadas = coordenadas;
   }
+
+  public long getVersao() {
+    return versao;
+  }
+
+  public boolean isGeocodificacaoPendente() {
+    return geocodificacaoPendente;
+  }
+
+  public void setGeocodificacaoPendente(boolean geocodificacaoPendente) {
+    this.geocodificacaoPendente = geocodificacaoPendente;
+  }
+
+  @Override
+  @JsonIgnore
+  public String getId() {
+    return cnpj;
+  }
+
+  @Override
+  @JsonIgnore
+  public boolean isNew() {
+    return novo;
+  }
+
+  @PostLoad
+  @PostPersist
+  void marcarPersistido() {
+    this.novo = false;
+  }
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.panizio.agenda.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Posição de um contato para visualização em mapa. A distância só é preenchida
+ * nas buscas por vizinhos mais próximos.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PontoMapa(String id, double latitude, double longitude, Double distanciaMetros) {
+}
@@ -0,0 +1,42 @@
+package com.panizio.agenda.model;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.panizio.agenda.exception.ValidacaoException;
+
+/**
+ * Cadastro lido só com os campos pedidos em {@code fields}, sem passar pela
+ * entidade. Serializado apenas com esses campos; a chave e a versão são lidas
+ * sempre, para o cursor e a ETag.
+ */
+public record Projecao(String id, long versao, @JsonValue Map<String, Object> campos) {
+
+  /**
+   * Interpreta {@code fields} (nomes separados por vírgula, como no JSON) e
+   * devolve os campos pedidos na ordem de {@code disponiveis}.
+   */
+  public static Set<String> campos(String fields, List<String> disponiveis) {
+    Set<String> pedidos = new LinkedHashSet<>();
+    for (String campo : fields.split(",")) {
+      if (!campo.isBlank()) {
+        pedidos.add(campo.trim());
+      }
+    }
+    Set<String> desconhecidos = new LinkedHashSet<>(pedidos);
+    disponiveis.forEach(desconhecidos::remove);
+    if (pedidos.isEmpty() || !desconhecidos.isEmpty()) {
+      throw new ValidacaoException(Map.of("fields", "Campos válidos: " + String.join(", ", disponiveis)));
+    }
+    Set<String> campos = new LinkedHashSet<>();
+    for (String campo : disponiveis) {
+      if (pedidos.contains(campo)) {
+        campos.add(campo);
+      }
+    }
+    return campos;
+  }
+}
@@ -0,0 +1,14 @@
+package com.panizio.agenda.repository;
+
+import java.util.Map;
+
+/** Fragmento do {@link PessoaFisicaRepository} para atualizações parciais. */
+public interface AtualizacaoParcialPessoaFisica {
+
+  /**
+   * Um único UPDATE das colunas informadas (atributo da entidade → novo valor),
+   * incrementando a versão. Com {@code versaoEsperada}, só altera o cadastro se
+   * ele ainda estiver nessa versão. Devolve o número de linhas alteradas.
+   */
+  int atualizarColunas(String cpf, Map<String, Object> colunas, Long versaoEsperada);
+}
@@ -0,0 +1,44 @@
+package com.panizio.agenda.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import com.panizio.agenda.model.PessoaFisica;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+class AtualizacaoParcialPessoaFisicaImpl implements AtualizacaoParcialPessoaFisica {
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Override
+  @Transactional
+  public int atualizarColunas(String cpf, Map<String, Object> colunas, Long versaoEsperada) {
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaUpdate<PessoaFisica> update = cb.createCriteriaUpdate(PessoaFisica.class);
+    Root<PessoaFisica> raiz = update.from(PessoaFisica.class);
+
+    colunas.forEach(update::set);
+    Path<Long> versao = raiz.get("versao");
+    update.set(versao, cb.sum(versao, 1L));
+
+    List<Predicate> condicoes = new ArrayList<>();
+    condicoes.add(cb.equal(raiz.get("cpf"), cpf));
+    if (versaoEsperada != null) {
+      condicoes.add(cb.equal(versao, versaoEsperada));
+    }
+    update.where(condicoes.toArray(Predicate[]::new));
+
+    return entityManager.createQuery(update).executeUpdate();
+  }
+}
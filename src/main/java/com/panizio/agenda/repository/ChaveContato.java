@@ -0,0 +1,12 @@
+package com.panizio.agenda.repository;
+
+/**
+ * Chaves únicas de um cadastro (CPF ou CNPJ e e-mail), usadas nas
+ * verificações de duplicidade.
+ */
+public interface ChaveContato {
+
+  String getId();
+
+  String getEmail();
+}
@@ -0,0 +1,85 @@
+package com.panizio.agenda.repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.panizio.agenda.model.Projecao;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+/**
+ * SELECT só das colunas pedidas, em ordem de chave, com o resultado em tuplas:
+ * nenhuma entidade é carregada nem fica no contexto de persistência.
+ */
+final class ConsultaProjetada {
+
+  private ConsultaProjetada() {
+  }
+
+  /**
+   * Até {@code limite} cadastros com chave maior que {@code apos}; com
+   * {@code inicio} e {@code fim}, só os do intervalo (busca por prefixo).
+   */
+  static <T> List<Projecao> buscar(EntityManager entityManager, Class<T> entidade, String chave, Set<String> campos,
+      String inicio, String fim, String apos, int limite) {
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Tuple> consulta = cb.createTupleQuery();
+    Root<T> raiz = consulta.from(entidade);
+    Path<String> id = raiz.get(chave);
+
+    List<Predicate> condicoes = new ArrayList<>();
+    condicoes.add(cb.greaterThan(id, apos));
+    if (inicio != null) {
+      condicoes.add(cb.between(id, inicio, fim));
+    }
+    consulta.multiselect(selecao(raiz, chave, campos))
+        .where(condicoes.toArray(Predicate[]::new))
+        .orderBy(cb.asc(id));
+
+    return converter(entityManager.createQuery(consulta).setMaxResults(limite).getResultList(), chave, campos);
+  }
+
+  static <T> List<Projecao> buscarPorId(EntityManager entityManager, Class<T> entidade, String chave,
+      Set<String> campos, String valor) {
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Tuple> consulta = cb.createTupleQuery();
+    Root<T> raiz = consulta.from(entidade);
+    consulta.multiselect(selecao(raiz, chave, campos))
+        .where(cb.equal(raiz.get(chave), valor));
+    return converter(entityManager.createQuery(consulta).getResultList(), chave, campos);
+  }
+
+  private static List<Selection<?>> selecao(Root<?> raiz, String chave, Set<String> campos) {
+    List<Selection<?>> selecao = new ArrayList<>();
+    selecao.add(raiz.get(chave).alias(chave));
+    selecao.add(raiz.get("versao").alias("versao"));
+    for (String campo : campos) {
+      if (!campo.equals(chave) && !campo.equals("versao")) {
+        selecao.add(raiz.get(campo).alias(campo));
+      }
+    }
+    return selecao;
+  }
+
+  private static List<Projecao> converter(List<Tuple> tuplas, String chave, Set<String> campos) {
+    List<Projecao> projecoes = new ArrayList<>(tuplas.size());
+    for (Tuple tupla : tuplas) {
+      Map<String, Object> valores = new LinkedHashMap<>();
+      for (String campo : campos) {
+        valores.put(campo, tupla.get(campo));
+      }
+      projecoes.add(new Projecao(tupla.get(chave, String.class), tupla.get("versao", Long.class), valores));
+    }
+    return projecoes;
+  }
+}
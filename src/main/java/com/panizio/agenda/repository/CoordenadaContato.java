@@ -0,0 +1,13 @@
+package com.panizio.agenda.repository;
+
+/**
+ * Projeção com apenas o identificador (CPF ou CNPJ) e a posição de um contato.
+ */
+public interface CoordenadaContato {
+
+  String getId();
+
+  double getLatitude();
+
+  double getLongitude();
+}
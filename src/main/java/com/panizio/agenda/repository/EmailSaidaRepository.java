@@ -0,0 +1,60 @@
+package com.panizio.agenda.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.panizio.agenda.model.EmailSaida;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+public interface EmailSaidaRepository extends JpaRepository<EmailSaida, Long> {
+
+  /**
+   * Próximos e-mails com envio vencido, travados com {@code FOR UPDATE SKIP
+   * LOCKED} para que várias instâncias drenem a fila sem pegar o mesmo
+   * registro. Deve ser chamado dentro de uma transação.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+  @Query("SELECT e FROM EmailSaida e WHERE e.status = :status AND e.proximaTentativa <= :agora "
+      + "ORDER BY e.proximaTentativa")
+  List<EmailSaida> findProntosParaEnvio(@Param("status") EmailSaida.Status status, @Param("agora") Instant agora,
+      Limit limite);
+
+  @Modifying
+  @Transactional
+  @Query("UPDATE EmailSaida e SET e.status = :status, e.enviadoEm = :agora, e.tentativas = e.tentativas + 1, "
+      + "e.ultimoErro = null WHERE e.id IN :ids")
+  int marcarEnviados(@Param("ids") Collection<Long> ids, @Param("status") EmailSaida.Status status,
+      @Param("agora") Instant agora);
+
+  @Modifying
+  @Transactional
+  @Query("UPDATE EmailSaida e SET e.status = :status, e.tentativas = :tentativas, "
+      + "e.proximaTentativa = :proximaTentativa, e.ultimoErro = :erro WHERE e.id = :id")
+  int registrarFalha(@Param("id") Long id, @Param("status") EmailSaida.Status status,
+      @Param("tentativas") int tentativas, @Param("proximaTentativa") Instant proximaTentativa,
+      @Param("erro") String erro);
+
+  /**
+   * Apaga até {@code lote} e-mails já encerrados (enviados ou descartados)
+   * criados antes de {@code limite}. Em lotes para não segurar uma transação
+   * longa; usa o índice parcial {@code email_saida_encerrado_idx}.
+   */
+  @Modifying
+  @Transactional
+  @Query(value = "DELETE FROM email_saida WHERE id IN (SELECT id FROM email_saida "
+      + "WHERE status <> 'PENDENTE' AND criado_em < :limite LIMIT :lote)", nativeQuery = true)
+  int apagarEncerrados(@Param("limite") Instant limite, @Param("lote") int lote);
+}
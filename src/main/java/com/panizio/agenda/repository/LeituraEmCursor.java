@@ -0,0 +1,41 @@
+package com.panizio.agenda.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Leitura de tabelas inteiras linha a linha, sem carregar o resultado todo na
+ * memória: o banco entrega {@code fetchSize} linhas por ida ao servidor.
+ *
+ * O driver do PostgreSQL só usa cursor (fetch size) dentro de uma transação;
+ * fora dela ignora o fetch size e traz todas as linhas de uma vez. Por isso a
+ * consulta roda numa transação somente leitura, aberta e fechada aqui.
+ */
+@Component
+public class LeituraEmCursor {
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate leitura;
+
+  public LeituraEmCursor(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.leitura = new TransactionTemplate(transactionManager);
+    this.leitura.setReadOnly(true);
+  }
+
+  /** Entrega cada linha de {@code sql} ao {@code tratador}, na thread que chama. */
+  public void percorrer(String sql, int fetchSize, RowCallbackHandler tratador) {
+    leitura.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+      PreparedStatement statement = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+          ResultSet.CONCUR_READ_ONLY);
+      statement.setFetchSize(fetchSize);
+      return statement;
+    }, tratador));
+  }
+}
@@ -1,16 +1,98 @@
 package com.panizio.agenda.repository;
 
 import com.panizio.agenda.model.PessoaFisica;
+
+import org.locationtech.jts.geom.Point;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface PessoaFisicaRepository extends JpaRepository<PessoaFisica, String> {
-  @Query("SELECT pf FROM PessoaFisica pf WHERE pf.cpf LIKE :prefixo%")
-  List<PessoaFisica> findByCpfStartingWith(@Param("prefixo") String prefixo);
+public interface PessoaFisicaRepository extends JpaRepository<PessoaFisica, String>, AtualizacaoParcialPessoaFisica,
+    ProjecaoPessoaFisica {
+  /**
+   * Busca por prefixo reescrita como intervalo sobre a chave primária
+   * ({@code >= prefixo AND <= prefixo completado com 9}), o que garante range
+   * scan no índice do PK independente da collation do banco.
+   */
+  @Query("SELECT pf FROM PessoaFisica pf WHERE pf.cpf >= :inicio AND pf.cpf <= :fim AND pf.cpf > :apos "
+      + "ORDER BY pf.cpf")
+  List<PessoaFisica> findByCpfNoIntervalo(@Param("inicio") String inicio, @Param("fim") String fim,
+      @Param("apos") String apos, Limit limite);
+
+  /**
+   * Cadastros que já usam o CPF ou o e-mail informados (no máximo dois).
+   * Parâmetros nulos não casam com nada.
+   */
+  @Query("SELECT pf.cpf AS id, pf.email AS email FROM PessoaFisica pf WHERE pf.cpf = :cpf OR pf.email = :email")
+  List<ChaveContato> findChavesExistentes(@Param("cpf") String cpf, @Param("email") String email);
+
+  /** Mesma verificação para um bloco inteiro da importação. */
+  @Query("SELECT pf.cpf AS id, pf.email AS email FROM PessoaFisica pf WHERE pf.cpf IN :cpfs OR pf.email IN :emails")
+  List<ChaveContato> findChavesExistentesEm(@Param("cpfs") Collection<String> cpfs,
+      @Param("emails") Collection<String> emails);
+
+  List<PessoaFisica> findByCpfGreaterThanOrderByCpfAsc(String cpf, Limit limite);
+
+  @Query("SELECT pf.versao FROM PessoaFisica pf WHERE pf.cpf = :cpf")
+  Optional<Long> findVersao(@Param("cpf") String cpf);
+
+  /** Mesma página de {@link #findByCpfGreaterThanOrderByCpfAsc}, só com chave e versão. */
+  @Query("SELECT pf.cpf AS id, pf.versao AS versao FROM PessoaFisica pf WHERE pf.cpf > :apos ORDER BY pf.cpf")
+  List<VersaoContato> findVersoesApos(@Param("apos") String apos, Limit limite);
+
+  @Query("SELECT DISTINCT pf.cep FROM PessoaFisica pf WHERE pf.geocodificacaoPendente = true")
+  List<String> findCepsPendentesGeocodificacao(Limit limite);
+
+  /**
+   * Grava as coordenadas (WKT, ou nulo) nos cadastros pendentes do CEP e devolve
+   * os CPFs alterados, no mesmo comando: um cadastro pendente criado durante a
+   * conclusão é atualizado e devolvido, nunca só um dos dois.
+   */
+  @Transactional
+  @Query(value = "UPDATE pessoa_fisica SET coordenadas = CAST(:coordenadas AS geometry), "
+      + "geocodificacao_pendente = false, versao = versao + 1 "
+      + "WHERE cep = :cep AND geocodificacao_pendente RETURNING cpf", nativeQuery = true)
+  List<String> concluirGeocodificacao(@Param("cep") String cep, @Param("coordenadas") String coordenadas);
+
+  @Query(value = "SELECT * FROM pessoa_fisica WHERE coordenadas IS NOT NULL "
+      + "ORDER BY CAST(coordenadas AS geography) <-> CAST(ST_SetSRID(ST_MakePoint(:lon, :lat), 4326) AS geography)",
+      nativeQuery = true)
+  List<PessoaFisica> findMaisProximos(@Param("lat") double lat, @Param("lon") double lon, Limit limite);
+
+  @Query(value = "SELECT * FROM pessoa_fisica WHERE ST_DWithin(CAST(coordenadas AS geography), "
+      + "CAST(ST_SetSRID(ST_MakePoint(:lon, :lat), 4326) AS geography), :raio) "
+      + "ORDER BY CAST(coordenadas AS geography) <-> CAST(ST_SetSRID(ST_MakePoint(:lon, :lat), 4326) AS geography)",
+      nativeQuery = true)
+  List<PessoaFisica> findDentroDoRaio(@Param("lat") double lat, @Param("lon") double lon, @Param("raio") double raioMetros,
+      Pageable pagina);
+
+  /**
+   * Nomes que contêm palavras parecidas com o termo ({@code <%}, similaridade de
+   * palavra do pg_trgm), sem acento nem caixa, dos mais parecidos para os menos.
+   * Usa o índice GIN de trigramas sobre {@code agenda_normalizar(nome)}.
+   */
+  @Query(value = "SELECT * FROM pessoa_fisica WHERE agenda_normalizar(:termo) <% agenda_normalizar(nome) "
+      + "ORDER BY word_similarity(agenda_normalizar(:termo), agenda_normalizar(nome)) DESC, cpf",
+      nativeQuery = true)
+  List<PessoaFisica> findPorNome(@Param("termo") String termo, Pageable pagina);
 
-  Optional<PessoaFisica> findByEmail(String email);
-}
\ No newline at end of file
+  /**
+   * Coordenadas dentro do retângulo de latitude e longitude, bordas incluídas,
+   * como em {@code IndiceEspacial.naCaixa}. A comparação é em geometry, no
+   * plano lon/lat; em geography o {@code &&} usaria caixas geodésicas, que
+   * se curvam com a latitude. Ordenado pela chave para que o limite corte
+   * sempre o mesmo subconjunto. Usa o índice GIST sobre {@code coordenadas}.
+   */
+  @Query(value = "SELECT cpf AS id, ST_Y(coordenadas) AS latitude, ST_X(coordenadas) AS longitude FROM pessoa_fisica "
+      + "WHERE coordenadas && ST_MakeEnvelope(:minLon, :minLat, :maxLon, :maxLat, 4326) ORDER BY cpf",
+      nativeQuery = true)
+  List<CoordenadaContato> findNaCaixa(@Param("minLat") double minLat, @Param("minLon") double minLon,
+      @Param("maxLat") double maxLat, @Param("maxLon") double maxLon, Limit limite);
+}
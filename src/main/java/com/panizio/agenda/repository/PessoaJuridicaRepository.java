@@ -1,18 +1,100 @@
 package com.panizio.agenda.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.locationtech.jts.geom.Point;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.panizio.agenda.model.PessoaJuridica;
 
-public interface PessoaJuridicaRepository extends JpaRepository<PessoaJuridica, String> {
-  @Query("SELECT pj FROM PessoaJuridica pj WHERE pj.cnpj LIKE :prefixo%")
-  List<PessoaJuridica> findByCnpjStartingWith(@Param("prefixo") String prefixo);
+public interface PessoaJuridicaRepository extends JpaRepository<PessoaJuridica, String>,
+    AtualizacaoParcialPessoaJuridica, ProjecaoPessoaJuridica {
+  /**
+   * Busca por prefixo reescrita como intervalo sobre a chave primária
+   * ({@code >= prefixo AND <= prefixo completado com 9}), o que garante range
+   * scan no índice do PK independente da collation do banco.
+   */
+  @Query("SELECT pj FROM PessoaJuridica pj WHERE pj.cnpj >= :inicio AND pj.cnpj <= :fim AND pj.cnpj > :apos "
+      + "ORDER BY pj.cnpj")
+  List<PessoaJuridica> findByCnpjNoIntervalo(@Param("inicio") String inicio, @Param("fim") String fim,
+      @Param("apos") String apos, Limit limite);
 
-  Optional<PessoaJuridica> findByEmail(String email);
+  /**
+   * Cadastros que já usam o CNPJ ou o e-mail informados (no máximo dois).
+   * Parâmetros nulos não casam com nada.
+   */
+  @Query("SELECT pj.cnpj AS id, pj.email AS email FROM PessoaJuridica pj WHERE pj.cnpj = :cnpj OR pj.email = :email")
+  List<ChaveContato> findChavesExistentes(@Param("cnpj") String cnpj, @Param("email") String email);
 
-}
\ No newline at end of file
+  /** Mesma verificação para um bloco inteiro da importação. */
+  @Query("SELECT pj.cnpj AS id, pj.email AS email FROM PessoaJuridica pj WHERE pj.cnpj IN :cnpjs OR pj.email IN :emails")
+  List<ChaveContato> findChavesExistentesEm(@Param("cnpjs") Collection<String> cnpjs,
+      @Param("emails") Collection<String> emails);
+
+  List<PessoaJuridica> findByCnpjGreaterThanOrderByCnpjAsc(String cnpj, Limit limite);
+
+  @Query("SELECT pj.versao FROM PessoaJuridica pj WHERE pj.cnpj = :cnpj")
+  Optional<Long> findVersao(@Param("cnpj") String cnpj);
+
+  /** Mesma página de {@link #findByCnpjGreaterThanOrderByCnpjAsc}, só com chave e versão. */
+  @Query("SELECT pj.cnpj AS id, pj.versao AS versao FROM PessoaJuridica pj WHERE pj.cnpj > :apos ORDER BY pj.cnpj")
+  List<VersaoContato> findVersoesApos(@Param("apos") String apos, Limit limite);
+
+  @Query("SELECT DISTINCT pj.cep FROM PessoaJuridica pj WHERE pj.geocodificacaoPendente = true")
+  List<String> findCepsPendentesGeocodificacao(Limit limite);
+
+  /**
+   * Grava as coordenadas (WKT, ou nulo) nos cadastros pendentes do CEP e devolve
+   * os CNPJs alterados, no mesmo comando: um cadastro pendente criado durante a
+   * conclusão é atualizado e devolvido, nunca só um dos dois.
+   */
+  @Transactional
+  @Query(value = "UPDATE pessoa_juridica SET coordenadas = CAST(:coordenadas AS geometry), "
+      + "geocodificacao_pendente = false, versao = versao + 1 "
+      + "WHERE cep = :cep AND geocodificacao_pendente RETURNING cnpj", nativeQuery = true)
+  List<String> concluirGeocodificacao(@Param("cep") String cep, @Param("coordenadas") String coordenadas);
+
+  @Query(value = "SELECT * FROM pessoa_juridica WHERE coordenadas IS NOT NULL "
+      + "ORDER BY CAST(coordenadas AS geography) <-> CAST(ST_SetSRID(ST_MakePoint(:lon, :lat), 4326) AS geography)",
+      nativeQuery = true)
+  List<PessoaJuridica> findMaisProximos(@Param("lat") double lat, @Param("lon") double lon, Limit limite);
+
+  @Query(value = "SELECT * FROM pessoa_juridica WHERE ST_DWithin(CAST(coordenadas AS geography), "
+      + "CAST(ST_SetSRID(ST_MakePoint(:lon, :lat), 4326) AS geography), :raio) "
+      + "ORDER BY CAST(coordenadas AS geography) <-> CAST(ST_SetSRID(ST_MakePoint(:lon, :lat), 4326) AS geography)",
+      nativeQuery = true)
+  List<PessoaJuridica> findDentroDoRaio(@Param("lat") double lat, @Param("lon") double lon, @Param("raio") double raioMetros,
+      Pageable pagina);
+
+  /**
+   * Razões sociais ou nomes fantasia que contêm palavras parecidas com o termo
+   * ({@code <%} do pg_trgm), sem acento nem caixa, ordenados pela melhor das
+   * duas similaridades. Cada condição usa o seu índice GIN de trigramas.
+   */
+  @Query(value = "SELECT * FROM pessoa_juridica WHERE agenda_normalizar(:termo) <% agenda_normalizar(razao_social) "
+      + "OR agenda_normalizar(:termo) <% agenda_normalizar(nome_fantasia) "
+      + "ORDER BY GREATEST(word_similarity(agenda_normalizar(:termo), agenda_normalizar(razao_social)), "
+      + "word_similarity(agenda_normalizar(:termo), agenda_normalizar(nome_fantasia))) DESC, cnpj",
+      nativeQuery = true)
+  List<PessoaJuridica> findPorNome(@Param("termo") String termo, Pageable pagina);
+
+  /**
+   * Coordenadas dentro do retângulo de latitude e longitude, bordas incluídas,
+   * como em {@code IndiceEspacial.naCaixa}. A comparação é em geometry, no
+   * plano lon/lat; em geography o {@code &&} usaria caixas geodésicas, que
+   * se curvam com a latitude. Ordenado pela chave para que o limite corte
+   * sempre o mesmo subconjunto. Usa o índice GIST sobre {@code coordenadas}.
+   */
+  @Query(value = "SELECT cnpj AS id, ST_Y(coordenadas) AS latitude, ST_X(coordenadas) AS longitude "
+      + "FROM pessoa_juridica WHERE coordenadas && ST_MakeEnvelope(:minLon, :minLat, :maxLon, :maxLat, 4326) ORDER BY cnpj",
+      nativeQuery = true)
+  List<CoordenadaContato> findNaCaixa(@Param("minLat") double minLat, @Param("minLon") double minLon,
+      @Param("maxLat") double maxLat, @Param("maxLon") double maxLon, Limit limite);
+}
@@ -0,0 +1,20 @@
+package com.panizio.agenda.repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import com.panizio.agenda.model.Projecao;
+
+/** Fragmento do {@link PessoaFisicaRepository} para leituras só com os campos pedidos. */
+public interface ProjecaoPessoaFisica {
+
+  /**
+   * Mesma página de {@code findByCpfGreaterThanOrderByCpfAsc} (ou, com
+   * {@code inicio} e {@code fim}, de {@code findByCpfNoIntervalo}) lendo só os
+   * campos informados.
+   */
+  List<Projecao> buscarCampos(Set<String> campos, String inicio, String fim, String apos, int limite);
+
+  Optional<Projecao> buscarCamposPorCpf(Set<String> campos, String cpf);
+}
@@ -0,0 +1,31 @@
+package com.panizio.agenda.repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import com.panizio.agenda.model.PessoaFisica;
+import com.panizio.agenda.model.Projecao;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+class ProjecaoPessoaFisicaImpl implements ProjecaoPessoaFisica {
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Override
+  @Transactional(readOnly = true)
+  public List<Projecao> buscarCampos(Set<String> campos, String inicio, String fim, String apos, int limite) {
+    return ConsultaProjetada.buscar(entityManager, PessoaFisica.class, "cpf", campos, inicio, fim, apos, limite);
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public Optional<Projecao> buscarCamposPorCpf(Set<String> campos, String cpf) {
+    return ConsultaProjetada.buscarPorId(entityManager, PessoaFisica.class, "cpf", campos, cpf).stream().findFirst();
+  }
+}
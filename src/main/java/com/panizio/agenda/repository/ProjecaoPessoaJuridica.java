@@ -0,0 +1,20 @@
+package com.panizio.agenda.repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import com.panizio.agenda.model.Projecao;
+
+/** Fragmento do {@link PessoaJuridicaRepository} para leituras só com os campos pedidos. */
+public interface ProjecaoPessoaJuridica {
+
+  /**
+   * Mesma página de {@code findByCnpjGreaterThanOrderByCnpjAsc} (ou, com
+   * {@code inicio} e {@code fim}, de {@code findByCnpjNoIntervalo}) lendo só os
+   * campos informados.
+   */
+  List<Projecao> buscarCampos(Set<String> campos, String inicio, String fim, String apos, int limite);
+
+  Optional<Projecao> buscarCamposPorCnpj(Set<String> campos, String cnpj);
+}
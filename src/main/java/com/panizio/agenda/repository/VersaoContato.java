@@ -0,0 +1,12 @@
+package com.panizio.agenda.repository;
+
+/**
+ * Chave e versão de um cadastro, suficientes para responder requisições
+ * condicionais sem carregar a entidade.
+ */
+public interface VersaoContato {
+
+  String getId();
+
+  long getVersao();
+}
@@ -0,0 +1,148 @@
+package com.panizio.agenda.service;
+
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.panizio.agenda.repository.LeituraEmCursor;
+import com.panizio.agenda.utils.FiltroBloom;
+
+/**
+ * Filtros de Bloom com os CPFs, CNPJs e e-mails já cadastrados, consultados
+ * antes das verificações de unicidade: quando o filtro garante que nenhuma das
+ * chaves existe, a consulta ao banco é dispensada. A garantia final continua
+ * sendo das restrições únicas das tabelas.
+ *
+ * Carregado ao final da inicialização; até lá, e com
+ * {@code agenda.filtro-unicidade.habilitado=false}, toda verificação vai ao
+ * banco. Gravações feitas durante a carga também são registradas: uma chave
+ * contada duas vezes só gera um falso positivo.
+ */
+@Component
+public class ChavesCadastradas {
+
+  private static final Logger log = LoggerFactory.getLogger(ChavesCadastradas.class);
+
+  private final boolean habilitado;
+  private final LeituraEmCursor leituraEmCursor;
+  private final FiltroBloom cpfs;
+  private final FiltroBloom emailsPessoaFisica;
+  private final FiltroBloom cnpjs;
+  private final FiltroBloom emailsPessoaJuridica;
+  private volatile boolean carregado;
+
+  public ChavesCadastradas(
+      LeituraEmCursor leituraEmCursor,
+      @Value("${agenda.filtro-unicidade.habilitado:true}") boolean habilitado,
+      @Value("${agenda.filtro-unicidade.capacidade:1000000}") long capacidade,
+      @Value("${agenda.filtro-unicidade.taxa-falso-positivo:0.01}") double taxaFalsoPositivo) {
+    this.leituraEmCursor = leituraEmCursor;
+    this.habilitado = habilitado;
+    long tamanho = habilitado ? capacidade : 1;
+    this.cpfs = new FiltroBloom(tamanho, taxaFalsoPositivo);
+    this.emailsPessoaFisica = new FiltroBloom(tamanho, taxaFalsoPositivo);
+    this.cnpjs = new FiltroBloom(tamanho, taxaFalsoPositivo);
+    this.emailsPessoaJuridica = new FiltroBloom(tamanho, taxaFalsoPositivo);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void carregar() {
+    if (!habilitado) {
+      return;
+    }
+    long inicio = System.currentTimeMillis();
+    carregar("SELECT cpf, email FROM pessoa_fisica", cpfs, emailsPessoaFisica);
+    carregar("SELECT cnpj, email FROM pessoa_juridica", cnpjs, emailsPessoaJuridica);
+    carregado = true;
+    log.info("Filtro de unicidade carregado em {} ms", System.currentTimeMillis() - inicio);
+  }
+
+  /** Falso somente quando nem o CPF nem o e-mail podem estar cadastrados. */
+  public boolean podeExistirPessoaFisica(String cpf, String email) {
+    return podeExistir(cpfs, cpf, emailsPessoaFisica, email);
+  }
+
+  public void registrarPessoaFisica(String cpf, String email) {
+    registrar(cpfs, cpf, emailsPessoaFisica, email);
+  }
+
+  public void removerPessoaFisica(String cpf, String email) {
+    remover(cpfs, cpf, emailsPessoaFisica, email);
+  }
+
+  public void trocarEmailPessoaFisica(String anterior, String novo) {
+    trocar(emailsPessoaFisica, anterior, novo);
+  }
+
+  /** Falso somente quando nem o CNPJ nem o e-mail podem estar cadastrados. */
+  public boolean podeExistirPessoaJuridica(String cnpj, String email) {
+    return podeExistir(cnpjs, cnpj, emailsPessoaJuridica, email);
+  }
+
+  public void registrarPessoaJuridica(String cnpj, String email) {
+    registrar(cnpjs, cnpj, emailsPessoaJuridica, email);
+  }
+
+  public void removerPessoaJuridica(String cnpj, String email) {
+    remover(cnpjs, cnpj, emailsPessoaJuridica, email);
+  }
+
+  public void trocarEmailPessoaJuridica(String anterior, String novo) {
+    trocar(emailsPessoaJuridica, anterior, novo);
+  }
+
+  private boolean podeExistir(FiltroBloom documentos, String documento, FiltroBloom emails, String email) {
+    if (!habilitado || !carregado) {
+      return true;
+    }
+    return (documento != null && documentos.podeConter(documento))
+        || (email != null && emails.podeConter(email));
+  }
+
+  private void registrar(FiltroBloom documentos, String documento, FiltroBloom emails, String email) {
+    if (!habilitado) {
+      return;
+    }
+    if (documento != null) {
+      documentos.adicionar(documento);
+    }
+    if (email != null) {
+      emails.adicionar(email);
+    }
+  }
+
+  private void remover(FiltroBloom documentos, String documento, FiltroBloom emails, String email) {
+    if (!habilitado) {
+      return;
+    }
+    if (documento != null) {
+      documentos.remover(documento);
+    }
+    if (email != null) {
+      emails.remover(email);
+    }
+  }
+
+  private void trocar(FiltroBloom emails, String anterior, String novo) {
+    if (!habilitado || Objects.equals(anterior, novo)) {
+      return;
+    }
+    if (anterior != null) {
+      emails.remover(anterior);
+    }
+    if (novo != null) {
+      emails.adicionar(novo);
+    }
+  }
+
+  private void carregar(String sql, FiltroBloom documentos, FiltroBloom emails) {
+    leituraEmCursor.percorrer(sql, 10_000, rs -> {
+      registrar(documentos, rs.getString(1), emails, rs.getString(2));
+    });
+  }
+}
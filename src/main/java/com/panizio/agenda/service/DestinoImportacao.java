@@ -0,0 +1,45 @@
+package com.panizio.agenda.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.locationtech.jts.geom.Point;
+
+import com.panizio.agenda.repository.ChaveContato;
+
+/**
+ * O que o {@link ImportacaoService} precisa saber de um tipo de cadastro para
+ * importá-lo em lote.
+ */
+interface DestinoImportacao<T> {
+
+  String nome();
+
+  Class<T> tipo();
+
+  /** Nome do campo do documento ({@code cpf} ou {@code cnpj}) nos relatórios de erro. */
+  String campoDocumento();
+
+  /** Normaliza o documento e devolve os erros de formato, como no cadastro individual. */
+  Map<String, String> validar(T item);
+
+  String documento(T item);
+
+  String email(T item);
+
+  String cep(T item);
+
+  void definirCoordenadas(T item, Point coordenadas, boolean pendente);
+
+  /** Falso quando o filtro de chaves garante que nem o documento nem o e-mail existem. */
+  boolean podeExistir(T item);
+
+  List<ChaveContato> chavesExistentes(Collection<String> documentos, Collection<String> emails);
+
+  /** INSERTs em JDBC batch, com os e-mails de confirmação; roda na transação do bloco. */
+  void inserir(List<T> itens, int tamanhoLote);
+
+  /** Depois da confirmação: cache, filtro de chaves e índice espacial. */
+  void registrarInseridos(List<T> itens);
+}
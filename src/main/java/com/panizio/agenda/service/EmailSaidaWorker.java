@@ -0,0 +1,159 @@
+package com.panizio.agenda.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.panizio.agenda.model.EmailSaida;
+import com.panizio.agenda.repository.EmailSaidaRepository;
+
+/**
+ * Drena a caixa de saída de e-mails em lotes.
+ *
+ * Cada lote é reservado numa transação curta ({@code SKIP LOCKED}) que adia a
+ * próxima tentativa pelo tempo de {@code reserva}, de modo que outra instância
+ * não o pegue enquanto os envios estão em andamento. Os envios rodam no
+ * executor {@code emailExecutor} (ver {@code ExecutoresConfig}); falhas voltam
+ * para a fila com espera exponencial e, depois de {@code max-tentativas}, o
+ * e-mail fica com status {@link EmailSaida.Status#FALHOU}.
+ *
+ * Enviados e descartados são apagados quando passam de {@code retencao} desde
+ * a criação, para que a tabela não cresça sem limite.
+ */
+@Component
+@ConditionalOnProperty(name = "agenda.email.dispatcher.habilitado", havingValue = "true", matchIfMissing = true)
+public class EmailSaidaWorker {
+
+  private static final Logger log = LoggerFactory.getLogger(EmailSaidaWorker.class);
+  private static final int LOTE_LIMPEZA = 1000;
+
+  private final EmailSaidaRepository emailSaidaRepository;
+  private final EmailService emailService;
+  private final TransactionTemplate transactionTemplate;
+  private final TaskExecutor envios;
+  private final int tamanhoLote;
+  private final int maxTentativas;
+  private final Duration esperaInicial;
+  private final Duration esperaMaxima;
+  private final Duration reserva;
+  private final Duration retencao;
+
+  public EmailSaidaWorker(
+      EmailSaidaRepository emailSaidaRepository,
+      EmailService emailService,
+      TransactionTemplate transactionTemplate,
+      @Qualifier("emailExecutor") TaskExecutor envios,
+      @Value("${agenda.email.tamanho-lote:50}") int tamanhoLote,
+      @Value("${agenda.email.max-tentativas:8}") int maxTentativas,
+      @Value("${agenda.email.espera-inicial:30s}") Duration esperaInicial,
+      @Value("${agenda.email.espera-maxima:1h}") Duration esperaMaxima,
+      @Value("${agenda.email.reserva:5m}") Duration reserva,
+      @Value("${agenda.email.retencao:7d}") Duration retencao) {
+    this.emailSaidaRepository = emailSaidaRepository;
+    this.emailService = emailService;
+    this.transactionTemplate = transactionTemplate;
+    this.envios = envios;
+    this.tamanhoLote = tamanhoLote;
+    this.maxTentativas = maxTentativas;
+    this.esperaInicial = esperaInicial;
+    this.esperaMaxima = esperaMaxima;
+    this.reserva = reserva;
+    this.retencao = retencao;
+  }
+
+  @Scheduled(fixedDelayString = "${agenda.email.intervalo-ms:2000}")
+  public void despachar() {
+    List<EmailSaida> lote;
+    do {
+      lote = reservarLote();
+      if (!lote.isEmpty()) {
+        enviar(lote);
+      }
+    } while (lote.size() == tamanhoLote);
+  }
+
+  @Scheduled(fixedDelayString = "${agenda.email.limpeza.intervalo-ms:3600000}")
+  public void limpar() {
+    Instant limite = Instant.now().minus(retencao);
+    long apagados = 0;
+    int lote;
+    do {
+      lote = emailSaidaRepository.apagarEncerrados(limite, LOTE_LIMPEZA);
+      apagados += lote;
+    } while (lote == LOTE_LIMPEZA);
+    if (apagados > 0) {
+      log.info("{} e-mails enviados ou descartados antes de {} apagados da caixa de saída", apagados, limite);
+    }
+  }
+
+  private List<EmailSaida> reservarLote() {
+    return transactionTemplate.execute(status -> {
+      Instant agora = Instant.now();
+      List<EmailSaida> prontos = emailSaidaRepository.findProntosParaEnvio(EmailSaida.Status.PENDENTE, agora,
+          Limit.of(tamanhoLote));
+      prontos.forEach(email -> email.setProximaTentativa(agora.plus(reserva)));
+      return prontos;
+    });
+  }
+
+  private void enviar(List<EmailSaida> lote) {
+    Queue<Long> enviados = new ConcurrentLinkedQueue<>();
+    CompletableFuture<?>[] tarefas = lote.stream()
+        .map(email -> CompletableFuture.runAsync(() -> {
+          try {
+            emailService.enviarEmailConfirmacao(email.getNome(), email.getEmail());
+            enviados.add(email.getId());
+          } catch (RuntimeException e) {
+            registrarFalha(email, e);
+          }
+        }, envios))
+        .toArray(CompletableFuture[]::new);
+    CompletableFuture.allOf(tarefas).join();
+
+    if (!enviados.isEmpty()) {
+      emailSaidaRepository.marcarEnviados(enviados, EmailSaida.Status.ENVIADO, Instant.now());
+    }
+  }
+
+  private void registrarFalha(EmailSaida email, RuntimeException erro) {
+    int tentativas = email.getTentativas() + 1;
+    String mensagem = String.valueOf(erro.getMessage());
+    if (mensagem.length() > 500) {
+      mensagem = mensagem.substring(0, 500);
+    }
+
+    if (tentativas >= maxTentativas) {
+      log.error("E-mail {} para {} descartado após {} tentativas: {}", email.getId(), email.getEmail(),
+          tentativas, mensagem);
+      emailSaidaRepository.registrarFalha(email.getId(), EmailSaida.Status.FALHOU, tentativas,
+          email.getProximaTentativa(), mensagem);
+      return;
+    }
+
+    log.warn("Falha ao enviar e-mail {} (tentativa {}): {}", email.getId(), tentativas, mensagem);
+    emailSaidaRepository.registrarFalha(email.getId(), EmailSaida.Status.PENDENTE, tentativas,
+        Instant.now().plus(espera(tentativas)), mensagem);
+  }
+
+  /** Espera exponencial a partir de {@code esperaInicial}, com até 20% de variação aleatória. */
+  private Duration espera(int tentativas) {
+    long base = esperaInicial.toMillis() << Math.min(tentativas - 1, 30);
+    long limitada = Math.min(base > 0 ? base : Long.MAX_VALUE, esperaMaxima.toMillis());
+    return Duration.ofMillis((long) (limitada * (1 + ThreadLocalRandom.current().nextDouble(0.2))));
+  }
+}
@@ -1,28 +1,62 @@
 package com.panizio.agenda.service;
 
-import org.springframework.scheduling.annotation.Async;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import com.panizio.agenda.model.EmailSaida;
+import com.panizio.agenda.repository.EmailSaidaRepository;
+
 @Service
 public class EmailService {
   private final RestTemplate restTemplate;
+  private final EmailSaidaRepository emailSaidaRepository;
+  private final JdbcTemplate jdbcTemplate;
+  private final String url;
 
-  public EmailService(RestTemplate restTemplate) {
+  public EmailService(
+      RestTemplate restTemplate,
+      EmailSaidaRepository emailSaidaRepository,
+      JdbcTemplate jdbcTemplate,
+      @Value("${agenda.email.url:https://run.mocky.io/v3/c9ec2ca3-a7f5-41d0-8550-b859508f4948}") String url) {
     this.restTemplate = restTemplate;
+    this.emailSaidaRepository = emailSaidaRepository;
+    this.jdbcTemplate = jdbcTemplate;
+    this.url = url;
   }
 
-  @Async
-  public void enviarEmailConfirmacao(String nome, String email) {
-    try {
-      restTemplate.getForEntity(
-          "https://run.mocky.io/v3/c9ec2ca3-a7f5-41d0-8550-b859508f4948",
-          String.class);
+  /**
+   * Coloca o e-mail de confirmação na caixa de saída. Chamado dentro da
+   * transação que grava o cadastro, para que os dois sejam confirmados ou
+   * desfeitos juntos; o envio fica com o {@link EmailSaidaWorker}.
+   */
+  public void registrarEmailConfirmacao(String nome, String email) {
+    emailSaidaRepository.save(new EmailSaida(nome, email, Instant.now()));
+  }
 
-      System.out.println("Email enviado para " + nome + " <" + email + ">");
+  /**
+   * Versão em lote para a importação: a chave IDENTITY impede o Hibernate de
+   * agrupar os INSERTs, então eles vão direto por JDBC batch. Também deve ser
+   * chamado dentro da transação dos cadastros.
+   */
+  public void registrarEmailsConfirmacao(List<EmailSaida> emails, int tamanhoLote) {
+    jdbcTemplate.batchUpdate("INSERT INTO email_saida (nome, email, status, tentativas, proxima_tentativa, criado_em) "
+        + "VALUES (?, ?, ?, 0, ?, ?)", emails, tamanhoLote, (ps, email) -> {
+          ps.setString(1, email.getNome());
+          ps.setString(2, email.getEmail());
+          ps.setString(3, email.getStatus().name());
+          ps.setTimestamp(4, Timestamp.from(email.getProximaTentativa()));
+          ps.setTimestamp(5, Timestamp.from(email.getCriadoEm()));
+        });
+  }
 
-    } catch (Exception e) {
-      System.out.println("Email enviado para " + nome + " <" + email + ">");
-    }
+  /** Envia de fato. Lança exceção quando o provedor falha. */
+  public void enviarEmailConfirmacao(String nome, String email) {
+    restTemplate.getForEntity(url, String.class);
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,203 @@
+package com.panizio.agenda.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.panizio.agenda.model.FormatoArquivo;
+import com.panizio.agenda.repository.LeituraEmCursor;
+import com.panizio.agenda.utils.LinhaCsv;
+
+/**
+ * Exportação das tabelas inteiras em CSV ou NDJSON, lidas com um cursor do
+ * banco ({@code fetch-size} linhas por ida ao servidor) e escritas na saída à
+ * medida que chegam, sem passar por entidades. A memória usada não depende do
+ * tamanho da tabela.
+ *
+ * Os campos têm os mesmos nomes do JSON da API; as coordenadas saem como
+ * {@code latitude}/{@code longitude}, agrupadas em {@code coordenadas} no
+ * NDJSON como faz o {@code PointSerializer}. O CSV gerado pode ser importado de
+ * volta pela importação em lote.
+ */
+@Service
+public class ExportacaoService {
+
+  private static final Logger log = LoggerFactory.getLogger(ExportacaoService.class);
+
+  private static final String[] CAMPOS_PESSOA_FISICA = { "cpf", "nome", "dataNascimento", "telefone", "cep", "email",
+      "endereco", "latitude", "longitude", "geocodificacaoPendente", "versao" };
+  private static final String SQL_PESSOA_FISICA = "SELECT cpf, nome, data_nascimento, telefone, cep, email, endereco, "
+      + "ST_Y(coordenadas), ST_X(coordenadas), geocodificacao_pendente, versao FROM pessoa_fisica";
+
+  private static final String[] CAMPOS_PESSOA_JURIDICA = { "cnpj", "razaoSocial", "nomeFantasia", "telefone", "email",
+      "endereco", "cep", "latitude", "longitude", "geocodificacaoPendente", "versao" };
+  private static final String SQL_PESSOA_JURIDICA = "SELECT cnpj, razao_social, nome_fantasia, telefone, email, "
+      + "endereco, cep, ST_Y(coordenadas), ST_X(coordenadas), geocodificacao_pendente, versao FROM pessoa_juridica";
+
+  private final LeituraEmCursor leituraEmCursor;
+  private final ObjectMapper objectMapper;
+  private final int fetchSize;
+
+  public ExportacaoService(
+      LeituraEmCursor leituraEmCursor,
+      ObjectMapper objectMapper,
+      @Value("${agenda.exportacao.fetch-size:5000}") int fetchSize) {
+    this.leituraEmCursor = leituraEmCursor;
+    this.objectMapper = objectMapper;
+    this.fetchSize = fetchSize;
+  }
+
+  public void exportarPessoasFisicas(FormatoArquivo formato, OutputStream saida) throws IOException {
+    exportar("pessoa-fisica", SQL_PESSOA_FISICA, CAMPOS_PESSOA_FISICA, formato, saida);
+  }
+
+  public void exportarPessoasJuridicas(FormatoArquivo formato, OutputStream saida) throws IOException {
+    exportar("pessoa-juridica", SQL_PESSOA_JURIDICA, CAMPOS_PESSOA_JURIDICA, formato, saida);
+  }
+
+  private void exportar(String nome, String sql, String[] campos, FormatoArquivo formato, OutputStream saida)
+      throws IOException {
+    long inicio = System.currentTimeMillis();
+    Escritor escritor = formato == FormatoArquivo.CSV
+        ? new EscritorCsv(saida, campos)
+        : new EscritorNdjson(objectMapper, saida, campos);
+    try {
+      leituraEmCursor.percorrer(sql, fetchSize, escritor);
+    } catch (UncheckedIOException e) {
+      // O cliente desconectou; a transação de leitura já foi desfeita.
+      throw e.getCause();
+    }
+    escritor.terminar();
+    log.info("Exportação de {} em {}: {} linhas em {} ms", nome, formato, escritor.linhas,
+        System.currentTimeMillis() - inicio);
+  }
+
+  private abstract static class Escritor implements RowCallbackHandler {
+
+    protected final String[] campos;
+    private long linhas;
+
+    Escritor(String[] campos) {
+      this.campos = campos;
+    }
+
+    @Override
+    public void processRow(ResultSet rs) throws SQLException {
+      try {
+        escrever(rs);
+        linhas++;
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    abstract void escrever(ResultSet rs) throws SQLException, IOException;
+
+    abstract void terminar() throws IOException;
+  }
+
+  private static final class EscritorCsv extends Escritor {
+
+    private final Writer saida;
+    private final String[] valores;
+
+    EscritorCsv(OutputStream saida, String[] campos) throws IOException {
+      super(campos);
+      this.saida = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8), 64 * 1024);
+      this.valores = new String[campos.length];
+      LinhaCsv.escrever(this.saida, ',', campos);
+      this.saida.write('\n');
+    }
+
+    @Override
+    void escrever(ResultSet rs) throws SQLException, IOException {
+      for (int i = 0; i < campos.length; i++) {
+        Object valor = rs.getObject(i + 1);
+        valores[i] = valor != null ? valor.toString() : null;
+      }
+      LinhaCsv.escrever(saida, ',', valores);
+      saida.write('\n');
+    }
+
+    @Override
+    void terminar() throws IOException {
+      saida.flush();
+    }
+  }
+
+  private static final class EscritorNdjson extends Escritor {
+
+    private final JsonGenerator generator;
+
+    EscritorNdjson(ObjectMapper objectMapper, OutputStream saida, String[] campos) throws IOException {
+      super(campos);
+      this.generator = objectMapper.getFactory().createGenerator(saida);
+      this.generator.setRootValueSeparator(null);
+    }
+
+    @Override
+    void escrever(ResultSet rs) throws SQLException, IOException {
+      generator.writeStartObject();
+      for (int i = 0; i < campos.length; i++) {
+        if (campos[i].equals("latitude")) {
+          double latitude = rs.getDouble(i + 1);
+          boolean semCoordenadas = rs.wasNull();
+          double longitude = rs.getDouble(i + 2);
+          if (semCoordenadas) {
+            generator.writeNullField("coordenadas");
+          } else {
+            generator.writeObjectFieldStart("coordenadas");
+            generator.writeNumberField("latitude", latitude);
+            generator.writeNumberField("longitude", longitude);
+            generator.writeEndObject();
+          }
+          i++;
+          continue;
+        }
+        generator.writeFieldName(campos[i]);
+        escreverValor(rs.getObject(i + 1));
+      }
+      generator.writeEndObject();
+      generator.writeRaw('\n');
+    }
+
+    private void escreverValor(Object valor) throws IOException {
+      if (valor == null) {
+        generator.writeNull();
+      } else if (valor instanceof Boolean booleano) {
+        generator.writeBoolean(booleano);
+      } else if (valor instanceof Long numero) {
+        generator.writeNumber(numero);
+      } else if (valor instanceof Integer numero) {
+        generator.writeNumber(numero);
+      } else if (valor instanceof Double numero) {
+        generator.writeNumber(numero);
+      } else if (valor instanceof BigDecimal numero) {
+        generator.writeNumber(numero);
+      } else {
+        // Textos e datas (java.sql.Date já sai como yyyy-MM-dd).
+        generator.writeString(valor.toString());
+      }
+    }
+
+    @Override
+    void terminar() throws IOException {
+      generator.flush();
+    }
+  }
+}
@@ -0,0 +1,115 @@
+package com.panizio.agenda.service;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.locationtech.jts.geom.Point;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.panizio.agenda.client.GeocodingClient;
+import com.panizio.agenda.exception.GeocodificacaoIndisponivelException;
+import com.panizio.agenda.exception.ValidacaoException;
+import com.panizio.agenda.repository.PessoaFisicaRepository;
+import com.panizio.agenda.repository.PessoaJuridicaRepository;
+
+/**
+ * Preenche as coordenadas dos registros gravados com geocodificação pendente
+ * (modo {@code agenda.geocoding.assincrono=true}).
+ *
+ * Trabalha por CEP distinto: cada CEP é geocodificado uma vez e todos os
+ * registros pendentes com ele são atualizados num único UPDATE. Consultas que
+ * precisam ir ao Nominatim são espaçadas por {@code intervalo-consulta} para
+ * respeitar a cota do serviço; CEPs resolvidos pelo cache ou pelo índice local
+ * não esperam.
+ */
+@Component
+@ConditionalOnProperty(name = "agenda.geocoding.assincrono", havingValue = "true")
+public class GeocodificacaoPendenteWorker {
+
+  private static final Logger log = LoggerFactory.getLogger(GeocodificacaoPendenteWorker.class);
+
+  private final PessoaFisicaRepository pessoaFisicaRepository;
+  private final PessoaJuridicaRepository pessoaJuridicaRepository;
+  private final PessoaFisicaService pessoaFisicaService;
+  private final PessoaJuridicaService pessoaJuridicaService;
+  private final GeocodingClient geocodingClient;
+  private final int tamanhoLote;
+  private final long intervaloConsultaMs;
+  private long proximaConsultaRemota;
+
+  public GeocodificacaoPendenteWorker(
+      PessoaFisicaRepository pessoaFisicaRepository,
+      PessoaJuridicaRepository pessoaJuridicaRepository,
+      PessoaFisicaService pessoaFisicaService,
+      PessoaJuridicaService pessoaJuridicaService,
+      GeocodingClient geocodingClient,
+      @Value("${agenda.geocoding.assincrono.tamanho-lote:100}") int tamanhoLote,
+      @Value("${agenda.geocoding.assincrono.intervalo-consulta-ms:1000}") long intervaloConsultaMs) {
+    this.pessoaFisicaRepository = pessoaFisicaRepository;
+    this.pessoaJuridicaRepository = pessoaJuridicaRepository;
+    this.pessoaFisicaService = pessoaFisicaService;
+    this.pessoaJuridicaService = pessoaJuridicaService;
+    this.geocodingClient = geocodingClient;
+    this.tamanhoLote = tamanhoLote;
+    this.intervaloConsultaMs = intervaloConsultaMs;
+  }
+
+  @Scheduled(fixedDelayString = "${agenda.geocoding.assincrono.intervalo-ms:5000}")
+  public void processarPendentes() {
+    boolean continuar = processar(pessoaFisicaRepository::findCepsPendentesGeocodificacao,
+        pessoaFisicaService::concluirGeocodificacao);
+    if (continuar) {
+      processar(pessoaJuridicaRepository::findCepsPendentesGeocodificacao,
+          pessoaJuridicaService::concluirGeocodificacao);
+    }
+  }
+
+  /**
+   * Esvazia a fila de um tipo de pessoa. Retorna false quando o serviço de
+   * geolocalização falhou e o ciclo deve ser interrompido até a próxima
+   * execução.
+   */
+  private boolean processar(Function<Limit, List<String>> buscarPendentes,
+      BiConsumer<String, Point> concluir) {
+    List<String> ceps;
+    do {
+      ceps = buscarPendentes.apply(Limit.of(tamanhoLote));
+      for (String cep : ceps) {
+        Point coordenadas;
+        try {
+          aguardarCota(cep);
+          coordenadas = geocodingClient.buscarCoordenadas(cep);
+        } catch (GeocodificacaoIndisponivelException e) {
+          log.warn("Geocodificação pendente interrompida no CEP {}: {}", cep, e.getErros().get("cep"));
+          return false;
+        } catch (ValidacaoException e) {
+          // CEP inexistente: o registro deixa de ficar pendente, sem coordenadas.
+          coordenadas = null;
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return false;
+        }
+        concluir.accept(cep, coordenadas);
+      }
+    } while (ceps.size() == tamanhoLote);
+    return true;
+  }
+
+  private void aguardarCota(String cep) throws InterruptedException {
+    if (geocodingClient.disponivelSemConsultaRemota(cep)) {
+      return;
+    }
+    long espera = proximaConsultaRemota - System.currentTimeMillis();
+    if (espera > 0) {
+      Thread.sleep(espera);
+    }
+    proximaConsultaRemota = System.currentTimeMillis() + intervaloConsultaMs;
+  }
+}
@@ -0,0 +1,140 @@
+package com.panizio.agenda.service;
+
+import java.sql.Types;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.locationtech.jts.geom.Point;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.panizio.agenda.model.EmailSaida;
+import com.panizio.agenda.model.PessoaFisica;
+import com.panizio.agenda.repository.ChaveContato;
+import com.panizio.agenda.repository.PessoaFisicaRepository;
+import com.panizio.agenda.utils.CacheLeitura;
+import com.panizio.agenda.utils.ValidacaoUtils;
+
+@Component
+class ImportacaoPessoaFisica implements DestinoImportacao<PessoaFisica> {
+
+  // Coordenadas em WKT, sem SRID, como o Hibernate grava os pontos da entidade.
+  private static final String INSERT = "INSERT INTO pessoa_fisica (cpf, nome, data_nascimento, telefone, cep, email, "
+      + "endereco, coordenadas, geocodificacao_pendente, versao) "
+      + "VALUES (?, ?, ?, ?, ?, ?, ?, CAST(? AS geometry), ?, 0)";
+
+  private final PessoaFisicaService pessoaFisicaService;
+  private final PessoaFisicaRepository pessoaFisicaRepository;
+  private final EmailService emailService;
+  private final JdbcTemplate jdbcTemplate;
+  private final ChavesCadastradas chavesCadastradas;
+  private final IndiceEspacialContatos indiceEspacialContatos;
+  private final CacheLeitura<String, PessoaFisica> cachePessoaFisica;
+
+  ImportacaoPessoaFisica(
+      PessoaFisicaService pessoaFisicaService,
+      PessoaFisicaRepository pessoaFisicaRepository,
+      EmailService emailService,
+      JdbcTemplate jdbcTemplate,
+      ChavesCadastradas chavesCadastradas,
+      IndiceEspacialContatos indiceEspacialContatos,
+      CacheLeitura<String, PessoaFisica> cachePessoaFisica) {
+    this.pessoaFisicaService = pessoaFisicaService;
+    this.pessoaFisicaRepository = pessoaFisicaRepository;
+    this.emailService = emailService;
+    this.jdbcTemplate = jdbcTemplate;
+    this.chavesCadastradas = chavesCadastradas;
+    this.indiceEspacialContatos = indiceEspacialContatos;
+    this.cachePessoaFisica = cachePessoaFisica;
+  }
+
+  @Override
+  public String nome() {
+    return "pessoa-fisica";
+  }
+
+  @Override
+  public String campoDocumento() {
+    return "cpf";
+  }
+
+  @Override
+  public Class<PessoaFisica> tipo() {
+    return PessoaFisica.class;
+  }
+
+  @Override
+  public Map<String, String> validar(PessoaFisica pessoaFisica) {
+    if (pessoaFisica.getCpf() != null) {
+      pessoaFisica.setCpf(ValidacaoUtils.limparNumeros(pessoaFisica.getCpf()));
+    }
+    return pessoaFisicaService.validarCampos(pessoaFisica);
+  }
+
+  @Override
+  public String documento(PessoaFisica pessoaFisica) {
+    return pessoaFisica.getCpf();
+  }
+
+  @Override
+  public String email(PessoaFisica pessoaFisica) {
+    return pessoaFisica.getEmail();
+  }
+
+  @Override
+  public String cep(PessoaFisica pessoaFisica) {
+    return pessoaFisica.getCep();
+  }
+
+  @Override
+  public void definirCoordenadas(PessoaFisica pessoaFisica, Point coordenadas, boolean pendente) {
+    pessoaFisica.setCoordenadas(coordenadas);
+    pessoaFisica.setGeocodificacaoPendente(pendente);
+  }
+
+  @Override
+  public boolean podeExistir(PessoaFisica pessoaFisica) {
+    return chavesCadastradas.podeExistirPessoaFisica(pessoaFisica.getCpf(), pessoaFisica.getEmail());
+  }
+
+  @Override
+  public List<ChaveContato> chavesExistentes(Collection<String> cpfs, Collection<String> emails) {
+    return pessoaFisicaRepository.findChavesExistentesEm(cpfs, emails);
+  }
+
+  @Override
+  public void inserir(List<PessoaFisica> pessoas, int tamanhoLote) {
+    jdbcTemplate.batchUpdate(INSERT, pessoas, tamanhoLote, (ps, pessoa) -> {
+      ps.setString(1, pessoa.getCpf());
+      ps.setString(2, pessoa.getNome());
+      ps.setObject(3, pessoa.getDataNascimento());
+      ps.setString(4, pessoa.getTelefone());
+      ps.setString(5, pessoa.getCep());
+      ps.setString(6, pessoa.getEmail());
+      ps.setString(7, pessoa.getEndereco());
+      if (pessoa.getCoordenadas() != null) {
+        ps.setString(8, pessoa.getCoordenadas().toText());
+      } else {
+        ps.setNull(8, Types.VARCHAR);
+      }
+      ps.setBoolean(9, pessoa.isGeocodificacaoPendente());
+    });
+    Instant agora = Instant.now();
+    emailService.registrarEmailsConfirmacao(pessoas.stream()
+        .map(pessoa -> new EmailSaida(pessoa.getNome(), pessoa.getEmail(), agora))
+        .toList(), tamanhoLote);
+  }
+
+  @Override
+  public void registrarInseridos(List<PessoaFisica> pessoas) {
+    for (PessoaFisica pessoa : pessoas) {
+      cachePessoaFisica.invalidar(pessoa.getCpf());
+      chavesCadastradas.registrarPessoaFisica(pessoa.getCpf(), pessoa.getEmail());
+      if (pessoa.getCoordenadas() != null) {
+        indiceEspacialContatos.registrarPessoaFisica(pessoa.getCpf(), pessoa.getCoordenadas());
+      }
+    }
+  }
+}
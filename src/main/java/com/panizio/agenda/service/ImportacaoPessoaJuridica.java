@@ -0,0 +1,140 @@
+package com.panizio.agenda.service;
+
+import java.sql.Types;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.locationtech.jts.geom.Point;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.panizio.agenda.model.EmailSaida;
+import com.panizio.agenda.model.PessoaJuridica;
+import com.panizio.agenda.repository.ChaveContato;
+import com.panizio.agenda.repository.PessoaJuridicaRepository;
+import com.panizio.agenda.utils.CacheLeitura;
+import com.panizio.agenda.utils.ValidacaoUtils;
+
+@Component
+class ImportacaoPessoaJuridica implements DestinoImportacao<PessoaJuridica> {
+
+  // Coordenadas em WKT, sem SRID, como o Hibernate grava os pontos da entidade.
+  private static final String INSERT = "INSERT INTO pessoa_juridica (cnpj, razao_social, nome_fantasia, telefone, "
+      + "email, endereco, cep, coordenadas, geocodificacao_pendente, versao) "
+      + "VALUES (?, ?, ?, ?, ?, ?, ?, CAST(? AS geometry), ?, 0)";
+
+  private final PessoaJuridicaService pessoaJuridicaService;
+  private final PessoaJuridicaRepository pessoaJuridicaRepository;
+  private final EmailService emailService;
+  private final JdbcTemplate jdbcTemplate;
+  private final ChavesCadastradas chavesCadastradas;
+  private final IndiceEspacialContatos indiceEspacialContatos;
+  private final CacheLeitura<String, PessoaJuridica> cachePessoaJuridica;
+
+  ImportacaoPessoaJuridica(
+      PessoaJuridicaService pessoaJuridicaService,
+      PessoaJuridicaRepository pessoaJuridicaRepository,
+      EmailService emailService,
+      JdbcTemplate jdbcTemplate,
+      ChavesCadastradas chavesCadastradas,
+      IndiceEspacialContatos indiceEspacialContatos,
+      CacheLeitura<String, PessoaJuridica> cachePessoaJuridica) {
+    this.pessoaJuridicaService = pessoaJuridicaService;
+    this.pessoaJuridicaRepository = pessoaJuridicaRepository;
+    this.emailService = emailService;
+    this.jdbcTemplate = jdbcTemplate;
+    this.chavesCadastradas = chavesCadastradas;
+    this.indiceEspacialContatos = indiceEspacialContatos;
+    this.cachePessoaJuridica = cachePessoaJuridica;
+  }
+
+  @Override
+  public String nome() {
+    return "pessoa-juridica";
+  }
+
+  @Override
+  public String campoDocumento() {
+    return "cnpj";
+  }
+
+  @Override
+  public Class<PessoaJuridica> tipo() {
+    return PessoaJuridica.class;
+  }
+
+  @Override
+  public Map<String, String> validar(PessoaJuridica pessoaJuridica) {
+    if (pessoaJuridica.getCnpj() != null) {
+      pessoaJuridica.setCnpj(ValidacaoUtils.limparNumeros(pessoaJuridica.getCnpj()));
+    }
+    return pessoaJuridicaService.validarCampos(pessoaJuridica);
+  }
+
+  @Override
+  public String documento(PessoaJuridica pessoaJuridica) {
+    return pessoaJuridica.getCnpj();
+  }
+
+  @Override
+  public String email(PessoaJuridica pessoaJuridica) {
+    return pessoaJuridica.getEmail();
+  }
+
+  @Override
+  public String cep(PessoaJuridica pessoaJuridica) {
+    return pessoaJuridica.getCep();
+  }
+
+  @Override
+  public void definirCoordenadas(PessoaJuridica pessoaJuridica, Point coordenadas, boolean pendente) {
+    pessoaJuridica.setCoordenadas(coordenadas);
+    pessoaJuridica.setGeocodificacaoPendente(pendente);
+  }
+
+  @Override
+  public boolean podeExistir(PessoaJuridica pessoaJuridica) {
+    return chavesCadastradas.podeExistirPessoaJuridica(pessoaJuridica.getCnpj(), pessoaJuridica.getEmail());
+  }
+
+  @Override
+  public List<ChaveContato> chavesExistentes(Collection<String> cnpjs, Collection<String> emails) {
+    return pessoaJuridicaRepository.findChavesExistentesEm(cnpjs, emails);
+  }
+
+  @Override
+  public void inserir(List<PessoaJuridica> pessoas, int tamanhoLote) {
+    jdbcTemplate.batchUpdate(INSERT, pessoas, tamanhoLote, (ps, pessoa) -> {
+      ps.setString(1, pessoa.getCnpj());
+      ps.setString(2, pessoa.getRazaoSocial());
+      ps.setString(3, pessoa.getNomeFantasia());
+      ps.setString(4, pessoa.getTelefone());
+      ps.setString(5, pessoa.getEmail());
+      ps.setString(6, pessoa.getEndereco());
+      ps.setString(7, pessoa.getCep());
+      if (pessoa.getCoordenadas() != null) {
+        ps.setString(8, pessoa.getCoordenadas().toText());
+      } else {
+        ps.setNull(8, Types.VARCHAR);
+      }
+      ps.setBoolean(9, pessoa.isGeocodificacaoPendente());
+    });
+    Instant agora = Instant.now();
+    emailService.registrarEmailsConfirmacao(pessoas.stream()
+        .map(pessoa -> new EmailSaida(pessoa.getRazaoSocial(), pessoa.getEmail(), agora))
+        .toList(), tamanhoLote);
+  }
+
+  @Override
+  public void registrarInseridos(List<PessoaJuridica> pessoas) {
+    for (PessoaJuridica pessoa : pessoas) {
+      cachePessoaJuridica.invalidar(pessoa.getCnpj());
+      chavesCadastradas.registrarPessoaJuridica(pessoa.getCnpj(), pessoa.getEmail());
+      if (pessoa.getCoordenadas() != null) {
+        indiceEspacialContatos.registrarPessoaJuridica(pessoa.getCnpj(), pessoa.getCoordenadas());
+      }
+    }
+  }
+}
@@ -0,0 +1,541 @@
+package com.panizio.agenda.service;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+
+import org.locationtech.jts.geom.Point;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.panizio.agenda.client.GeocodingClient;
+import com.panizio.agenda.exception.ContadorValidacao;
+import com.panizio.agenda.exception.GeocodificacaoIndisponivelException;
+import com.panizio.agenda.exception.ValidacaoException;
+import com.panizio.agenda.model.FormatoArquivo;
+import com.panizio.agenda.model.Importacao;
+import com.panizio.agenda.model.PessoaFisica;
+import com.panizio.agenda.model.PessoaJuridica;
+import com.panizio.agenda.repository.ChaveContato;
+import com.panizio.agenda.utils.LinhaCsv;
+import com.panizio.agenda.utils.ValidacaoUtils;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Importação em lote de cadastros a partir de CSV (com cabeçalho, colunas com
+ * os nomes dos campos do JSON) ou NDJSON.
+ *
+ * O corpo da requisição é gravado num arquivo temporário e processado em
+ * segundo plano no executor {@code importacao}, em blocos de
+ * {@code tamanho-bloco} linhas. Em cada bloco as linhas são convertidas e
+ * validadas em paralelo no executor {@code conversao}, a unicidade de documento
+ * e e-mail é verificada numa única consulta e as linhas aceitas são gravadas
+ * numa transação, com INSERTs em JDBC batch de {@code tamanho-lote}. Cada CEP é
+ * geocodificado uma vez por arquivo; no modo assíncrono só os que já estão no
+ * cache ou no índice local, os demais ficam pendentes para o
+ * {@link GeocodificacaoPendenteWorker}. No modo síncrono as consultas ao
+ * Nominatim são espaçadas por {@code intervalo-consulta-ms}, como no worker, e
+ * uma falha do serviço interrompe a importação em vez de recusar as linhas.
+ *
+ * Linhas recusadas vão para o relatório de erros da importação; blocos já
+ * gravados permanecem mesmo que a importação falhe depois.
+ */
+@Service
+public class ImportacaoService {
+
+  private static final Logger log = LoggerFactory.getLogger(ImportacaoService.class);
+
+  private final DestinoImportacao<PessoaFisica> pessoasFisicas;
+  private final DestinoImportacao<PessoaJuridica> pessoasJuridicas;
+  private final ObjectMapper objectMapper;
+  private final Validator validator;
+  private final GeocodingClient geocodingClient;
+  private final TransactionTemplate transactionTemplate;
+  private final TaskExecutor executor;
+  private final ThreadPoolTaskExecutor executorConversao;
+  private final ContadorValidacao contadorValidacao;
+  private final boolean geocodificacaoAssincrona;
+  private final Path diretorio;
+  private final long tamanhoMaximo;
+  private final int tamanhoBloco;
+  private final int tamanhoLote;
+  private final int maximoErros;
+  private final long intervaloConsultaMs;
+  private final Cache<String, Importacao> importacoes;
+  private long proximaConsultaRemota;
+
+  ImportacaoService(
+      ImportacaoPessoaFisica pessoasFisicas,
+      ImportacaoPessoaJuridica pessoasJuridicas,
+      ObjectMapper objectMapper,
+      Validator validator,
+      GeocodingClient geocodingClient,
+      TransactionTemplate transactionTemplate,
+      @Qualifier("importacaoExecutor") TaskExecutor executor,
+      @Qualifier("conversaoExecutor") ThreadPoolTaskExecutor executorConversao,
+      ContadorValidacao contadorValidacao,
+      @Value("${agenda.geocoding.assincrono:false}") boolean geocodificacaoAssincrona,
+      @Value("${agenda.importacao.diretorio:${java.io.tmpdir}}") String diretorio,
+      @Value("${agenda.importacao.tamanho-maximo:1GB}") DataSize tamanhoMaximo,
+      @Value("${agenda.importacao.tamanho-bloco:1000}") int tamanhoBloco,
+      @Value("${agenda.importacao.tamanho-lote:500}") int tamanhoLote,
+      @Value("${agenda.importacao.maximo-erros:10000}") int maximoErros,
+      @Value("${agenda.importacao.retencao:1h}") Duration retencao,
+      @Value("${agenda.geocoding.assincrono.intervalo-consulta-ms:1000}") long intervaloConsultaMs) {
+    this.pessoasFisicas = pessoasFisicas;
+    this.pessoasJuridicas = pessoasJuridicas;
+    this.objectMapper = objectMapper;
+    this.validator = validator;
+    this.geocodingClient = geocodingClient;
+    this.transactionTemplate = transactionTemplate;
+    this.executor = executor;
+    this.executorConversao = executorConversao;
+    this.contadorValidacao = contadorValidacao;
+    this.geocodificacaoAssincrona = geocodificacaoAssincrona;
+    this.diretorio = Path.of(diretorio);
+    this.tamanhoMaximo = tamanhoMaximo.toBytes();
+    this.tamanhoBloco = tamanhoBloco;
+    this.tamanhoLote = tamanhoLote;
+    this.maximoErros = maximoErros;
+    this.intervaloConsultaMs = intervaloConsultaMs;
+    // Importações em andamento nunca expiram; as terminadas ficam disponíveis
+    // para consulta pelo tempo de retenção.
+    this.importacoes = Caffeine.newBuilder()
+        .expireAfter(new Expiry<String, Importacao>() {
+          @Override
+          public long expireAfterCreate(String id, Importacao importacao, long currentTime) {
+            return importacao.isTerminada() ? retencao.toNanos() : Long.MAX_VALUE;
+          }
+
+          @Override
+          public long expireAfterUpdate(String id, Importacao importacao, long currentTime, long currentDuration) {
+            return expireAfterCreate(id, importacao, currentTime);
+          }
+
+          @Override
+          public long expireAfterRead(String id, Importacao importacao, long currentTime, long currentDuration) {
+            return currentDuration;
+          }
+        })
+        .build();
+  }
+
+  public Importacao importarPessoasFisicas(InputStream corpo, FormatoArquivo formato, boolean gzip) {
+    return iniciar(pessoasFisicas, corpo, formato, gzip);
+  }
+
+  public Importacao importarPessoasJuridicas(InputStream corpo, FormatoArquivo formato, boolean gzip) {
+    return iniciar(pessoasJuridicas, corpo, formato, gzip);
+  }
+
+  public Optional<Importacao> buscar(String id) {
+    return Optional.ofNullable(importacoes.getIfPresent(id));
+  }
+
+  private <T> Importacao iniciar(DestinoImportacao<T> destino, InputStream corpo, FormatoArquivo formato,
+      boolean gzip) {
+    Path arquivo;
+    long tamanho;
+    try {
+      arquivo = Files.createTempFile(diretorio, "importacao-", "." + formato.name().toLowerCase());
+      try {
+        tamanho = receber(corpo, arquivo);
+      } catch (IOException | RuntimeException e) {
+        Files.deleteIfExists(arquivo);
+        throw e;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    Importacao importacao = new Importacao(UUID.randomUUID().toString(), destino.nome(), formato, tamanho,
+        maximoErros);
+    importacoes.put(importacao.getId(), importacao);
+    try {
+      executor.execute(() -> processar(destino, importacao, arquivo, gzip));
+    } catch (TaskRejectedException e) {
+      importacoes.invalidate(importacao.getId());
+      apagar(arquivo);
+      throw e;
+    }
+    return importacao;
+  }
+
+  /** Copia o corpo para o arquivo, recusando o que passar de {@code tamanho-maximo}. */
+  private long receber(InputStream corpo, Path arquivo) throws IOException {
+    long total = 0;
+    byte[] buffer = new byte[64 * 1024];
+    try (OutputStream saida = Files.newOutputStream(arquivo)) {
+      int lidos;
+      while ((lidos = corpo.read(buffer)) != -1) {
+        total += lidos;
+        if (total > tamanhoMaximo) {
+          throw new ValidacaoException(Map.of("arquivo",
+              "Arquivo maior que o limite de " + DataSize.ofBytes(tamanhoMaximo).toMegabytes() + " MB"));
+        }
+        saida.write(buffer, 0, lidos);
+      }
+    }
+    return total;
+  }
+
+  private <T> void processar(DestinoImportacao<T> destino, Importacao importacao, Path arquivo, boolean gzip) {
+    importacao.iniciar();
+    long inicio = System.currentTimeMillis();
+    try (InputStream entrada = abrir(arquivo, gzip, importacao);
+        BufferedReader leitor = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8))) {
+      Function<String, T> conversor;
+      long numero = 0;
+      if (importacao.getFormato() == FormatoArquivo.CSV) {
+        String cabecalho = leitor.readLine();
+        if (cabecalho == null) {
+          importacao.concluir();
+          return;
+        }
+        numero++;
+        conversor = conversorCsv(destino.tipo(), removerBom(cabecalho));
+      } else {
+        conversor = texto -> lerJson(texto, destino.tipo());
+      }
+
+      Map<String, Geocodificacao> porCep = new HashMap<>();
+      List<Linha<T>> bloco = new ArrayList<>(tamanhoBloco);
+      String texto;
+      while ((texto = leitor.readLine()) != null) {
+        numero++;
+        if (texto.isBlank()) {
+          continue;
+        }
+        bloco.add(new Linha<>(numero, numero == 1 ? removerBom(texto) : texto));
+        if (bloco.size() == tamanhoBloco) {
+          processarBloco(destino, importacao, conversor, bloco, porCep);
+          bloco = new ArrayList<>(tamanhoBloco);
+        }
+      }
+      if (!bloco.isEmpty()) {
+        processarBloco(destino, importacao, conversor, bloco, porCep);
+      }
+      importacao.concluir();
+      log.info("Importação {} de {} concluída em {} ms: {} importadas, {} rejeitadas", importacao.getId(),
+          destino.nome(), System.currentTimeMillis() - inicio, importacao.getImportadas(),
+          importacao.getRejeitadas());
+    } catch (Exception e) {
+      log.error("Importação {} de {} interrompida na linha {}", importacao.getId(), destino.nome(),
+          importacao.getLinhasLidas(), e);
+      importacao.falhar(e instanceof IOException ? "Arquivo ilegível"
+          : e instanceof GeocodificacaoIndisponivelException ? "Serviço de geolocalização indisponível; tente novamente"
+          : "Erro ao gravar; tente novamente");
+    } finally {
+      apagar(arquivo);
+      importacoes.put(importacao.getId(), importacao);
+    }
+  }
+
+  private <T> void processarBloco(DestinoImportacao<T> destino, Importacao importacao, Function<String, T> conversor,
+      List<Linha<T>> bloco, Map<String, Geocodificacao> porCep) {
+    converterBloco(destino, conversor, bloco);
+
+    List<Linha<T>> validas = new ArrayList<>(bloco.size());
+    Map<String, Long> documentos = new HashMap<>();
+    Map<String, Long> emails = new HashMap<>();
+    for (Linha<T> linha : bloco) {
+      if (linha.erros.isEmpty()) {
+        Long anterior = documentos.putIfAbsent(destino.documento(linha.item), linha.numero);
+        if (anterior != null) {
+          linha.erros.put(destino.campoDocumento(), "Repetido na linha " + anterior);
+        }
+        anterior = emails.putIfAbsent(destino.email(linha.item), linha.numero);
+        if (anterior != null) {
+          linha.erros.put("email", "Repetido na linha " + anterior);
+        }
+      }
+      if (linha.erros.isEmpty()) {
+        validas.add(linha);
+      }
+    }
+
+    List<Linha<T>> suspeitas = validas.stream().filter(linha -> destino.podeExistir(linha.item)).toList();
+    marcarCadastradas(destino, suspeitas);
+    validas.removeIf(linha -> !linha.erros.isEmpty());
+
+    for (Linha<T> linha : validas) {
+      geocodificar(destino, linha, porCep);
+    }
+    validas.removeIf(linha -> !linha.erros.isEmpty());
+
+    gravar(destino, importacao, validas);
+
+    importacao.lerLinhas(bloco.size());
+    for (Linha<T> linha : bloco) {
+      if (!linha.erros.isEmpty()) {
+        importacao.rejeitar(linha.numero, linha.erros);
+        contadorValidacao.registrar("importacao", linha.erros);
+      }
+    }
+  }
+
+  /**
+   * Divide o bloco em uma parte por thread do executor {@code conversao} e
+   * espera todas. O pool comum do ForkJoin, que {@code parallelStream} usaria,
+   * é dividido com o resto da JVM e não tem tamanho configurável aqui.
+   */
+  private <T> void converterBloco(DestinoImportacao<T> destino, Function<String, T> conversor,
+      List<Linha<T>> bloco) {
+    int partes = Math.min(executorConversao.getMaxPoolSize(), bloco.size());
+    int tamanhoParte = (bloco.size() + partes - 1) / partes;
+    List<CompletableFuture<Void>> tarefas = new ArrayList<>(partes);
+    for (int inicio = 0; inicio < bloco.size(); inicio += tamanhoParte) {
+      List<Linha<T>> parte = bloco.subList(inicio, Math.min(inicio + tamanhoParte, bloco.size()));
+      tarefas.add(CompletableFuture.runAsync(() -> parte.forEach(linha -> converter(destino, conversor, linha)),
+          executorConversao));
+    }
+    CompletableFuture.allOf(tarefas.toArray(CompletableFuture[]::new)).join();
+  }
+
+  private <T> void converter(DestinoImportacao<T> destino, Function<String, T> conversor, Linha<T> linha) {
+    try {
+      linha.item = conversor.apply(linha.texto);
+    } catch (IllegalArgumentException e) {
+      linha.erros.putAll(errosDeConversao(e));
+      return;
+    }
+    if (linha.item == null) {
+      linha.erros.put("linha", "Linha mal formada");
+      return;
+    }
+    for (ConstraintViolation<T> violacao : validator.validate(linha.item)) {
+      linha.erros.putIfAbsent(violacao.getPropertyPath().toString(), violacao.getMessage());
+    }
+    destino.validar(linha.item).forEach(linha.erros::putIfAbsent);
+  }
+
+  /** Marca as linhas cujo documento ou e-mail já está cadastrado, numa consulta só. */
+  private <T> void marcarCadastradas(DestinoImportacao<T> destino, List<Linha<T>> linhas) {
+    if (linhas.isEmpty()) {
+      return;
+    }
+    Set<String> documentos = new HashSet<>();
+    Set<String> emails = new HashSet<>();
+    for (Linha<T> linha : linhas) {
+      documentos.add(destino.documento(linha.item));
+      emails.add(destino.email(linha.item));
+    }
+    Set<String> documentosCadastrados = new HashSet<>();
+    Set<String> emailsCadastrados = new HashSet<>();
+    for (ChaveContato chave : destino.chavesExistentes(documentos, emails)) {
+      documentosCadastrados.add(chave.getId());
+      emailsCadastrados.add(chave.getEmail());
+    }
+    for (Linha<T> linha : linhas) {
+      if (documentosCadastrados.contains(destino.documento(linha.item))) {
+        linha.erros.put(destino.campoDocumento(), destino.campoDocumento().toUpperCase() + " já cadastrado");
+      }
+      if (emailsCadastrados.contains(destino.email(linha.item))) {
+        linha.erros.put("email", "E-mail já cadastrado");
+      }
+    }
+  }
+
+  private <T> void geocodificar(DestinoImportacao<T> destino, Linha<T> linha, Map<String, Geocodificacao> porCep) {
+    Geocodificacao geocodificacao = porCep.computeIfAbsent(ValidacaoUtils.limparNumeros(destino.cep(linha.item)),
+        this::geocodificar);
+    if (geocodificacao.erro() != null) {
+      linha.erros.put("cep", geocodificacao.erro());
+    } else {
+      destino.definirCoordenadas(linha.item, geocodificacao.coordenadas(), geocodificacao.pendente());
+    }
+  }
+
+  /**
+   * Só o resultado (coordenadas, CEP inexistente ou pendente) vai para o mapa
+   * do arquivo. Uma falha do serviço de geolocalização deixa o registro
+   * pendente no modo assíncrono; no síncrono, sem worker para completá-lo,
+   * interrompe a importação.
+   */
+  private Geocodificacao geocodificar(String cep) {
+    boolean remota = !geocodingClient.disponivelSemConsultaRemota(cep);
+    if (geocodificacaoAssincrona && remota) {
+      return new Geocodificacao(null, true, null);
+    }
+    try {
+      if (remota) {
+        aguardarCota();
+      }
+      return new Geocodificacao(geocodingClient.buscarCoordenadas(cep), false, null);
+    } catch (GeocodificacaoIndisponivelException e) {
+      if (geocodificacaoAssincrona) {
+        return new Geocodificacao(null, true, null);
+      }
+      throw e;
+    } catch (ValidacaoException e) {
+      return new Geocodificacao(null, false, e.getErros().getOrDefault("cep", "CEP inválido"));
+    }
+  }
+
+  /** Espaça as consultas ao Nominatim de todas as importações em andamento. */
+  private synchronized void aguardarCota() {
+    long espera = proximaConsultaRemota - System.currentTimeMillis();
+    if (espera > 0) {
+      try {
+        Thread.sleep(espera);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new GeocodificacaoIndisponivelException();
+      }
+    }
+    proximaConsultaRemota = System.currentTimeMillis() + intervaloConsultaMs;
+  }
+
+  /**
+   * Grava as linhas do bloco numa transação. Se outra gravação usou uma das
+   * chaves depois da verificação, o bloco é conferido de novo no banco e
+   * gravado sem as linhas em conflito.
+   */
+  private <T> void gravar(DestinoImportacao<T> destino, Importacao importacao, List<Linha<T>> linhas) {
+    for (int tentativa = 1; !linhas.isEmpty(); tentativa++) {
+      List<T> itens = linhas.stream().map(linha -> linha.item).toList();
+      try {
+        transactionTemplate.executeWithoutResult(status -> destino.inserir(itens, tamanhoLote));
+      } catch (DataIntegrityViolationException e) {
+        if (tentativa == 2) {
+          throw e;
+        }
+        marcarCadastradas(destino, linhas);
+        linhas = linhas.stream().filter(linha -> linha.erros.isEmpty()).toList();
+        continue;
+      }
+      destino.registrarInseridos(itens);
+      importacao.importar(itens.size());
+      return;
+    }
+  }
+
+  private <T> Function<String, T> conversorCsv(Class<T> tipo, String cabecalho) {
+    char separador = LinhaCsv.detectarSeparador(cabecalho);
+    List<String> colunas = LinhaCsv.dividir(cabecalho, separador);
+    return texto -> {
+      List<String> valores = LinhaCsv.dividir(texto, separador);
+      if (valores.size() != colunas.size()) {
+        throw new IllegalArgumentException("Esperadas " + colunas.size() + " colunas, encontradas " + valores.size());
+      }
+      Map<String, String> campos = new LinkedHashMap<>();
+      for (int i = 0; i < colunas.size(); i++) {
+        if (!valores.get(i).isEmpty()) {
+          campos.put(colunas.get(i), valores.get(i));
+        }
+      }
+      return objectMapper.convertValue(campos, tipo);
+    };
+  }
+
+  private <T> T lerJson(String texto, Class<T> tipo) {
+    try {
+      return objectMapper.readValue(texto, tipo);
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException(e.getOriginalMessage(), e);
+    }
+  }
+
+  /** Campo com valor de tipo errado (uma data mal formada, por exemplo) ou linha ilegível. */
+  private Map<String, String> errosDeConversao(IllegalArgumentException e) {
+    if (e.getCause() instanceof JsonMappingException mapeamento && !mapeamento.getPath().isEmpty()) {
+      String campo = mapeamento.getPath().get(mapeamento.getPath().size() - 1).getFieldName();
+      if (campo != null) {
+        return Map.of(campo, "Valor inválido");
+      }
+    }
+    if (e.getCause() == null) {
+      return Map.of("linha", e.getMessage());
+    }
+    return Map.of("linha", "Linha mal formada");
+  }
+
+  private InputStream abrir(Path arquivo, boolean gzip, Importacao importacao) throws IOException {
+    InputStream entrada = new FilterInputStream(Files.newInputStream(arquivo)) {
+      @Override
+      public int read() throws IOException {
+        int lido = super.read();
+        if (lido != -1) {
+          importacao.lerBytes(1);
+        }
+        return lido;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+        int lidos = super.read(b, off, len);
+        if (lidos > 0) {
+          importacao.lerBytes(lidos);
+        }
+        return lidos;
+      }
+    };
+    return gzip ? new GZIPInputStream(entrada, 64 * 1024) : entrada;
+  }
+
+  private static String removerBom(String texto) {
+    return texto.startsWith("\uFEFF") ? texto.substring(1) : texto;
+  }
+
+  private static void apagar(Path arquivo) {
+    try {
+      Files.deleteIfExists(arquivo);
+    } catch (IOException e) {
+      log.warn("Não foi possível apagar o arquivo temporário {}", arquivo, e);
+    }
+  }
+
+  /** Resultado da geocodificação de um CEP, compartilhado pelas linhas do arquivo com ele. */
+  private record Geocodificacao(Point coordenadas, boolean pendente, String erro) {
+  }
+
+  private static final class Linha<T> {
+
+    private final long numero;
+    private final String texto;
+    private final Map<String, String> erros = new HashMap<>();
+    private T item;
+
+    private Linha(long numero, String texto) {
+      this.numero = numero;
+      this.texto = texto;
+    }
+  }
+}
@@ -0,0 +1,118 @@
+package com.panizio.agenda.service;
+
+import org.locationtech.jts.geom.Point;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.panizio.agenda.repository.LeituraEmCursor;
+import com.panizio.agenda.utils.IndiceEspacial;
+
+/**
+ * Mantém em memória a posição de todas as pessoas físicas e jurídicas com
+ * coordenadas, para atender mapas e vizinhos mais próximos sem ir ao banco.
+ *
+ * Desligado por padrão ({@code agenda.indice-espacial.habilitado}). Quando
+ * ligado é carregado ao final da inicialização, lendo apenas id e coordenadas
+ * com um cursor, e depois acompanha as gravações feitas pelos serviços. Até a
+ * carga terminar as consultas continuam indo ao PostGIS.
+ */
+@Component
+public class IndiceEspacialContatos {
+
+  private static final Logger log = LoggerFactory.getLogger(IndiceEspacialContatos.class);
+
+  private final boolean habilitado;
+  private final LeituraEmCursor leituraEmCursor;
+  private final IndiceEspacial pessoasFisicas;
+  private final IndiceEspacial pessoasJuridicas;
+  private volatile boolean carregado;
+
+  public IndiceEspacialContatos(
+      LeituraEmCursor leituraEmCursor,
+      @Value("${agenda.indice-espacial.habilitado:false}") boolean habilitado,
+      @Value("${agenda.indice-espacial.tamanho-celula:0.05}") double tamanhoCelula) {
+    this.leituraEmCursor = leituraEmCursor;
+    this.habilitado = habilitado;
+    this.pessoasFisicas = new IndiceEspacial(tamanhoCelula);
+    this.pessoasJuridicas = new IndiceEspacial(tamanhoCelula);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void carregar() {
+    if (!habilitado) {
+      return;
+    }
+    long inicio = System.currentTimeMillis();
+    carregar("SELECT cpf, ST_Y(coordenadas), ST_X(coordenadas) FROM pessoa_fisica WHERE coordenadas IS NOT NULL",
+        pessoasFisicas);
+    carregar("SELECT cnpj, ST_Y(coordenadas), ST_X(coordenadas) FROM pessoa_juridica WHERE coordenadas IS NOT NULL",
+        pessoasJuridicas);
+    carregado = true;
+    log.info("Índice espacial carregado: {} pessoas físicas e {} jurídicas em {} ms",
+        pessoasFisicas.tamanho(), pessoasJuridicas.tamanho(), System.currentTimeMillis() - inicio);
+  }
+
+  public boolean isHabilitado() {
+    return habilitado;
+  }
+
+  public boolean isDisponivel() {
+    return habilitado && carregado;
+  }
+
+  public IndiceEspacial pessoasFisicas() {
+    return pessoasFisicas;
+  }
+
+  public IndiceEspacial pessoasJuridicas() {
+    return pessoasJuridicas;
+  }
+
+  public void registrarPessoaFisica(String cpf, Point coordenadas) {
+    registrar(pessoasFisicas, cpf, coordenadas);
+  }
+
+  public void removerPessoaFisica(String cpf) {
+    if (habilitado) {
+      pessoasFisicas.remover(cpf);
+    }
+  }
+
+  public void registrarPessoaJuridica(String cnpj, Point coordenadas) {
+    registrar(pessoasJuridicas, cnpj, coordenadas);
+  }
+
+  public void removerPessoaJuridica(String cnpj) {
+    if (habilitado) {
+      pessoasJuridicas.remover(cnpj);
+    }
+  }
+
+  private void registrar(IndiceEspacial indice, String id, Point coordenadas) {
+    if (!habilitado) {
+      return;
+    }
+    if (coordenadas == null) {
+      indice.remover(id);
+    } else {
+      indice.colocar(id, coordenadas.getY(), coordenadas.getX());
+    }
+  }
+
+  private void carregar(String sql, IndiceEspacial indice) {
+    // Antes da consulta: uma remoção confirmada depois do início do cursor
+    // ainda aparece nele e precisa ficar registrada.
+    indice.iniciarCarga();
+    try {
+      leituraEmCursor.percorrer(sql, 10_000, rs -> {
+        indice.colocarSeAusente(rs.getString(1), rs.getDouble(2), rs.getDouble(3));
+      });
+    } finally {
+      indice.concluirCarga();
+    }
+  }
+}
@@ -1,45 +1,286 @@
 package com.panizio.agenda.service;
 
+import com.panizio.agenda.client.GeocodingClient;
+import com.panizio.agenda.exception.CadastroNaoEncontradoException;
 import com.panizio.agenda.exception.ValidacaoException;
+import com.panizio.agenda.exception.VersaoDivergenteException;
 import com.panizio.agenda.model.PessoaFisica;
+import com.panizio.agenda.model.PaginaCursor;
+import com.panizio.agenda.model.PontoMapa;
+import com.panizio.agenda.model.Projecao;
+import com.panizio.agenda.repository.ChaveContato;
 import com.panizio.agenda.repository.PessoaFisicaRepository;
+import com.panizio.agenda.repository.VersaoContato;
+import com.panizio.agenda.utils.CacheLeitura;
+import com.panizio.agenda.utils.IndiceEspacial;
 import com.panizio.agenda.utils.ValidacaoUtils;
 
 import org.locationtech.jts.geom.Point;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.annotation.Timed;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 @Service
 public class PessoaFisicaService {
 
+  private static final double RAIO_MAXIMO_METROS = 100_000;
+  private static final int LIMITE_MAXIMO_PROXIMOS = 100;
+  private static final int LIMITE_MAXIMO_MAPA = 5_000;
+  private static final int LIMITE_MAXIMO_PAGINA = 500;
+  private static final int TAMANHO_MINIMO_PREFIXO = 3;
+  private static final int LIMITE_MAXIMO_PREFIXO = 100;
+  private static final int TAMANHO_MINIMO_TERMO = 3;
+  private static final int TAMANHO_MAXIMO_TERMO = 100;
+  private static final int LIMITE_MAXIMO_BUSCA = 100;
+  /** Campos que podem ser pedidos em {@code fields}, na ordem em que são devolvidos. */
+  public static final List<String> CAMPOS = List.of("cpf", "nome", "dataNascimento", "telefone", "cep", "email",
+      "endereco", "coordenadas", "geocodificacaoPendente", "versao");
+
   @Autowired
   private PessoaFisicaRepository pessoaFisicaRepository;
   private final EmailService emailService;
+  private final GeocodingClient geocodingClient;
+  private final boolean geocodificacaoAssincrona;
+  private final IndiceEspacialContatos indiceEspacialContatos;
+  private final ChavesCadastradas chavesCadastradas;
+  private final TransactionTemplate transactionTemplate;
+  private final CacheLeitura<String, PessoaFisica> cachePessoaFisica;
 
   public PessoaFisicaService(
       PessoaFisicaRepository pessoaFisicaRepository,
-      EmailService emailService) {
+      EmailService emailService,
+      GeocodingClient geocodingClient,
+      IndiceEspacialContatos indiceEspacialContatos,
+      ChavesCadastradas chavesCadastradas,
+      TransactionTemplate transactionTemplate,
+      CacheLeitura<String, PessoaFisica> cachePessoaFisica,
+      @Value("${agenda.geocoding.assincrono:false}") boolean geocodificacaoAssincrona) {
     this.pessoaFisicaRepository = pessoaFisicaRepository;
     this.emailService = emailService;
+    this.geocodingClient = geocodingClient;
+    this.geocodificacaoAssincrona = geocodificacaoAssincrona;
+    this.indiceEspacialContatos = indiceEspacialContatos;
+    this.chavesCadastradas = chavesCadastradas;
+    this.transactionTemplate = transactionTemplate;
+    this.cachePessoaFisica = cachePessoaFisica;
   }
 
-  public List<PessoaFisica> listarUsuarios() {
-    return pessoaFisicaRepository.findAll();
+  public PaginaCursor<PessoaFisica> listarUsuarios(String cursor, int limite) {
+    validarLimitePagina(limite);
+    List<PessoaFisica> itens = pessoaFisicaRepository.findByCpfGreaterThanOrderByCpfAsc(
+        PaginaCursor.decodificar(cursor), Limit.of(limite));
+    String proximoCursor = itens.size() == limite
+        ? PaginaCursor.codificar(itens.get(itens.size() - 1).getCpf())
+        : null;
+    return new PaginaCursor<>(itens, proximoCursor);
+  }
+
+  /** Chave e versão dos itens da página que {@link #listarUsuarios} devolveria. */
+  public List<VersaoContato> listarVersoes(String cursor, int limite) {
+    validarLimitePagina(limite);
+    return pessoaFisicaRepository.findVersoesApos(PaginaCursor.decodificar(cursor), Limit.of(limite));
+  }
+
+  /**
+   * Percorre a tabela inteira em páginas de {@code LIMITE_MAXIMO_PAGINA},
+   * entregando cada página ao consumidor assim que é lida. Nenhuma página fica
+   * retida depois de consumida.
+   */
+  public void percorrerUsuarios(Consumer<List<PessoaFisica>> consumidor) {
+    String ultimaChave = "";
+    List<PessoaFisica> pagina;
+    do {
+      pagina = pessoaFisicaRepository.findByCpfGreaterThanOrderByCpfAsc(ultimaChave, Limit.of(LIMITE_MAXIMO_PAGINA));
+      if (!pagina.isEmpty()) {
+        consumidor.accept(pagina);
+        ultimaChave = pagina.get(pagina.size() - 1).getCpf();
+      }
+    } while (pagina.size() == LIMITE_MAXIMO_PAGINA);
   }
 
   public PessoaFisica buscarUsuarioPorCpf(String cpf) {
-    return pessoaFisicaRepository.findById(limpar(cpf)).orElse(null);
+    return cachePessoaFisica.buscar(limpar(cpf), pessoaFisicaRepository::findById).orElse(null);
+  }
+
+  /** Versão atual do cadastro sem carregar a entidade, ou vazio se ele não existe. */
+  public Optional<Long> buscarVersao(String cpf) {
+    String chave = limpar(cpf);
+    Optional<PessoaFisica> emCache = cachePessoaFisica.emCache(chave);
+    if (emCache.isPresent()) {
+      return Optional.of(emCache.get().getVersao());
+    }
+    return pessoaFisicaRepository.findVersao(chave);
+  }
+
+  public PaginaCursor<PessoaFisica> filtrarPorCpf(String prefixo, String cursor, int limite) {
+    String digitos = validarPrefixo(prefixo, limite);
+    String fim = digitos + "9".repeat(11 - digitos.length());
+    List<PessoaFisica> itens = pessoaFisicaRepository.findByCpfNoIntervalo(digitos, fim, PaginaCursor.decodificar(cursor),
+        Limit.of(limite));
+    String proximoCursor = itens.size() == limite
+        ? PaginaCursor.codificar(itens.get(itens.size() - 1).getCpf())
+        : null;
+    return new PaginaCursor<>(itens, proximoCursor);
+  }
+
+  /** Como {@link #listarUsuarios}, lendo só os campos informados. */
+  public PaginaCursor<Projecao> listarCampos(Set<String> campos, String cursor, int limite) {
+    validarLimitePagina(limite);
+    List<Projecao> itens = pessoaFisicaRepository.buscarCampos(campos, null, null, PaginaCursor.decodificar(cursor),
+        limite);
+    return paginaDe(itens, limite);
+  }
+
+  /** Como {@link #percorrerUsuarios}, lendo só os campos informados. */
+  public void percorrerCampos(Set<String> campos, Consumer<List<Projecao>> consumidor) {
+    String ultimaChave = "";
+    List<Projecao> pagina;
+    do {
+      pagina = pessoaFisicaRepository.buscarCampos(campos, null, null, ultimaChave, LIMITE_MAXIMO_PAGINA);
+      if (!pagina.isEmpty()) {
+        consumidor.accept(pagina);
+        ultimaChave = pagina.get(pagina.size() - 1).id();
+      }
+    } while (pagina.size() == LIMITE_MAXIMO_PAGINA);
   }
 
-  public List<PessoaFisica> filtrarPorCpf(String prefixo) {
-    return pessoaFisicaRepository.findByCpfStartingWith(prefixo);
+  /** Lida direto do banco, sem passar pelo cache de entidades. */
+  public Optional<Projecao> buscarCamposPorCpf(Set<String> campos, String cpf) {
+    return pessoaFisicaRepository.buscarCamposPorCpf(campos, limpar(cpf));
   }
 
+  /** Como {@link #filtrarPorCpf}, lendo só os campos informados. */
+  public PaginaCursor<Projecao> filtrarCamposPorCpf(Set<String> campos, String prefixo, String cursor, int limite) {
+    String digitos = validarPrefixo(prefixo, limite);
+    String fim = digitos + "9".repeat(11 - digitos.length());
+    List<Projecao> itens = pessoaFisicaRepository.buscarCampos(campos, digitos, fim,
+        PaginaCursor.decodificar(cursor), limite);
+    return paginaDe(itens, limite);
+  }
+
+  /**
+   * Busca por parte do nome no nome, sem distinção de acento ou caixa e
+   * tolerante a pequenos erros de digitação, dos resultados mais parecidos com
+   * o termo para os menos.
+   */
+  public List<PessoaFisica> buscarPorNome(String termo, int pagina, int tamanho) {
+    String texto = termo != null ? termo.trim() : "";
+    Map<String, String> erros = new HashMap<>();
+    if (texto.length() < TAMANHO_MINIMO_TERMO || texto.length() > TAMANHO_MAXIMO_TERMO) {
+      erros.put("termo", "Informe de " + TAMANHO_MINIMO_TERMO + " a " + TAMANHO_MAXIMO_TERMO + " caracteres");
+    }
+    if (pagina < 0 || tamanho < 1 || tamanho > LIMITE_MAXIMO_BUSCA) {
+      erros.put("tamanho", "Página inválida");
+    }
+    if (!erros.isEmpty()) {
+      throw new ValidacaoException(erros);
+    }
+    return pessoaFisicaRepository.findPorNome(texto, PageRequest.of(pagina, tamanho));
+  }
+
+  /**
+   * Contatos mais próximos do ponto, em ordem de distância. Sem raio devolve os
+   * {@code k} vizinhos mais próximos; com raio (em metros) devolve a página
+   * pedida dos contatos dentro dele.
+   */
+  public List<PessoaFisica> buscarProximos(double lat, double lon, Double raio, int k, int pagina, int tamanho) {
+    Map<String, String> erros = new HashMap<>();
+    validarCoordenada(lat, lon, "lat", "lon", erros);
+    if (raio != null && (raio <= 0 || raio > RAIO_MAXIMO_METROS)) {
+      erros.put("raio", "Raio deve estar entre 0 e " + (int) RAIO_MAXIMO_METROS + " metros");
+    }
+    if (k < 1 || k > LIMITE_MAXIMO_PROXIMOS) {
+      erros.put("k", "k deve estar entre 1 e " + LIMITE_MAXIMO_PROXIMOS);
+    }
+    if (pagina < 0 || tamanho < 1 || tamanho > LIMITE_MAXIMO_PROXIMOS) {
+      erros.put("tamanho", "Página inválida");
+    }
+    if (!erros.isEmpty()) {
+      throw new ValidacaoException(erros);
+    }
+
+    if (raio == null) {
+      return pessoaFisicaRepository.findMaisProximos(lat, lon, Limit.of(k));
+    }
+    return pessoaFisicaRepository.findDentroDoRaio(lat, lon, raio, PageRequest.of(pagina, tamanho));
+  }
+
+  /**
+   * Posições dos contatos dentro da área, para mapas. Usa o índice em memória
+   * quando disponível e o PostGIS caso contrário.
+   */
+  public List<PontoMapa> buscarNoMapa(double minLat, double minLon, double maxLat, double maxLon, int limite) {
+    Map<String, String> erros = new HashMap<>();
+    validarCoordenada(minLat, minLon, "minLat", "minLon", erros);
+    validarCoordenada(maxLat, maxLon, "maxLat", "maxLon", erros);
+    if (minLat > maxLat || minLon > maxLon) {
+      erros.put("area", "Área inválida");
+    }
+    if (limite < 1 || limite > LIMITE_MAXIMO_MAPA) {
+      erros.put("limite", "Limite deve estar entre 1 e " + LIMITE_MAXIMO_MAPA);
+    }
+    if (!erros.isEmpty()) {
+      throw new ValidacaoException(erros);
+    }
+
+    if (indiceEspacialContatos.isDisponivel()) {
+      return indiceEspacialContatos.pessoasFisicas().naCaixa(minLat, minLon, maxLat, maxLon, limite);
+    }
+    return pessoaFisicaRepository.findNaCaixa(minLat, minLon, maxLat, maxLon, Limit.of(limite)).stream()
+        .map(c -> new PontoMapa(c.getId(), c.getLatitude(), c.getLongitude(), null))
+        .toList();
+  }
+
+  public List<PontoMapa> buscarPontosProximos(double lat, double lon, int k) {
+    Map<String, String> erros = new HashMap<>();
+    validarCoordenada(lat, lon, "lat", "lon", erros);
+    if (k < 1 || k > LIMITE_MAXIMO_PROXIMOS) {
+      erros.put("k", "k deve estar entre 1 e " + LIMITE_MAXIMO_PROXIMOS);
+    }
+    if (!erros.isEmpty()) {
+      throw new ValidacaoException(erros);
+    }
+
+    if (indiceEspacialContatos.isDisponivel()) {
+      return indiceEspacialContatos.pessoasFisicas().maisProximos(lat, lon, k);
+    }
+    return pessoaFisicaRepository.findMaisProximos(lat, lon, Limit.of(k)).stream()
+        .map(p -> new PontoMapa(p.getCpf(), p.getCoordenadas().getY(), p.getCoordenadas().getX(),
+            IndiceEspacial.distanciaMetros(lat, lon, p.getCoordenadas().getY(), p.getCoordenadas().getX())))
+        .toList();
+  }
+
+  /**
+   * Chamado pelo {@link GeocodificacaoPendenteWorker} depois de geocodificar um
+   * CEP pendente.
+   */
+  public void concluirGeocodificacao(String cep, Point coordenadas) {
+    String wkt = coordenadas != null ? coordenadas.toText() : null;
+    List<String> ids = pessoaFisicaRepository.concluirGeocodificacao(cep, wkt);
+    ids.forEach(id -> {
+      cachePessoaFisica.invalidar(id);
+      indiceEspacialContatos.registrarPessoaFisica(id, coordenadas);
+    });
+  }
+
+  @Timed("agenda.servico")
   public PessoaFisica salvarUsuario(PessoaFisica pessoaFisica) {
     pessoaFisica.setCpf(limpar(pessoaFisica.getCpf()));
 
@@ -47,56 +288,202 @@ public class PessoaFisicaService {
       throw new ValidacaoException(Map.of("cep", "CEP inválido"));
     }
 
-    try {
-      Point coordenadas = ValidacaoUtils.buscarCoordenadasPorCEP(pessoaFisica.getCep());
-      if (coordenadas != null) {
-        pessoaFisica.setCoordenadas(coordenadas);
+    if (geocodificacaoAssincrona) {
+      pessoaFisica.setGeocodificacaoPendente(true);
+    } else {
+      try {
+        Point coordenadas = geocodingClient.buscarCoordenadas(pessoaFisica.getCep());
+        if (coordenadas != null) {
+          pessoaFisica.setCoordenadas(coordenadas);
+        }
+      } catch (ValidacaoException e) {
+        throw e;
       }
-    } catch (ValidacaoException e) {
-      throw e;
     }
 
     validarPessoaFisica(pessoaFisica, true);
 
-    PessoaFisica savedPessoa = pessoaFisicaRepository.save(pessoaFisica);
-
-    emailService.enviarEmailConfirmacao(savedPessoa.getNome(), savedPessoa.getEmail());
+    PessoaFisica savedPessoa = gravar(() -> transactionTemplate.execute(status -> {
+      PessoaFisica salva = pessoaFisicaRepository.save(pessoaFisica);
+      emailService.registrarEmailConfirmacao(salva.getNome(), salva.getEmail());
+      return salva;
+    }), pessoaFisica.getCpf(), pessoaFisica.getEmail());
+    cachePessoaFisica.invalidar(savedPessoa.getCpf());
+    chavesCadastradas.registrarPessoaFisica(savedPessoa.getCpf(), savedPessoa.getEmail());
+    indiceEspacialContatos.registrarPessoaFisica(savedPessoa.getCpf(), savedPessoa.getCoordenadas());
 
     return savedPessoa;
   }
 
   public PessoaFisica atualizarPessoaFisica(String cpf, PessoaFisica novosDados) {
+    return atualizarPessoaFisica(cpf, novosDados, null);
+  }
+
+  /**
+   * Com {@code versaoEsperada} a atualização só acontece se o cadastro ainda
+   * estiver nessa versão. Sem ela, uma gravação concorrente entre a leitura e o
+   * UPDATE também é detectada (ObjectOptimisticLockingFailureException).
+   */
+  @Timed("agenda.servico")
+  public PessoaFisica atualizarPessoaFisica(String cpf, PessoaFisica novosDados, Long versaoEsperada) {
     novosDados.setCpf(limpar(novosDados.getCpf()));
-    PessoaFisica pessoaExistente = pessoaFisicaRepository.findById(cpf)
+    PessoaFisica pessoaExistente = pessoaFisicaRepository.findById(limpar(cpf))
         .orElseThrow(() -> new IllegalArgumentException("Usuário não encontrado"));
+    if (versaoEsperada != null && versaoEsperada != pessoaExistente.getVersao()) {
+      throw new VersaoDivergenteException(pessoaExistente.getVersao());
+    }
 
     if (novosDados.getCep() != null && !novosDados.getCep().equals(pessoaExistente.getCep())) {
       if (!ValidacaoUtils.validarCEP(novosDados.getCep())) {
         throw new ValidacaoException(Map.of("cep", "CEP inválido"));
       }
 
-      try {
-        Point coordenadas = ValidacaoUtils.buscarCoordenadasPorCEP(novosDados.getCep());
-        if (coordenadas != null) {
-          novosDados.setCoordenadas(coordenadas);
+      if (geocodificacaoAssincrona) {
+        pessoaExistente.setCoordenadas(null);
+        pessoaExistente.setGeocodificacaoPendente(true);
+      } else {
+        try {
+          Point coordenadas = geocodingClient.buscarCoordenadas(novosDados.getCep());
+          if (coordenadas != null) {
+            novosDados.setCoordenadas(coordenadas);
+          }
+        } catch (ValidacaoException e) {
+          throw e;
         }
-      } catch (ValidacaoException e) {
-        throw e;
       }
     }
 
     validarCamposUnicos(novosDados, pessoaExistente);
     validarPessoaFisica(novosDados, false);
+    String emailAnterior = pessoaExistente.getEmail();
+    String emailNovo = Objects.equals(novosDados.getEmail(), emailAnterior) ? null : novosDados.getEmail();
     atualizarCampos(pessoaExistente, novosDados);
 
-    return pessoaFisicaRepository.save(pessoaExistente);
+    PessoaFisica atualizada = gravar(() -> pessoaFisicaRepository.save(pessoaExistente), null, emailNovo);
+    cachePessoaFisica.invalidar(atualizada.getCpf());
+    chavesCadastradas.trocarEmailPessoaFisica(emailAnterior, atualizada.getEmail());
+    indiceEspacialContatos.registrarPessoaFisica(atualizada.getCpf(), atualizada.getCoordenadas());
+    return atualizada;
   }
 
+  /**
+   * Atualização parcial: valida só os campos informados e grava com um único
+   * UPDATE das colunas correspondentes, sem carregar o cadastro antes. E-mail
+   * repetido é recusado pela restrição única do banco. O CPF não é
+   * alterável e é ignorado no corpo. Devolve a nova versão.
+   */
+  @Timed("agenda.servico")
+  public long atualizarParcialmente(String cpf, PessoaFisica campos, Long versaoEsperada) {
+    String chave = limpar(cpf);
+    campos.setCpf(null);
+    validarPessoaFisica(campos, false);
+
+    Map<String, Object> colunas = new LinkedHashMap<>();
+    if (campos.getNome() != null) {
+      colunas.put("nome", campos.getNome());
+    }
+    if (campos.getDataNascimento() != null) {
+      colunas.put("dataNascimento", campos.getDataNascimento());
+    }
+    if (campos.getTelefone() != null) {
+      colunas.put("telefone", campos.getTelefone());
+    }
+    if (campos.getEmail() != null) {
+      colunas.put("email", campos.getEmail());
+    }
+    if (campos.getEndereco() != null) {
+      colunas.put("endereco", campos.getEndereco());
+    }
+    if (campos.getCep() != null) {
+      colunas.put("cep", campos.getCep());
+      if (geocodificacaoAssincrona) {
+        colunas.put("coordenadas", null);
+        colunas.put("geocodificacaoPendente", true);
+      } else {
+        colunas.put("coordenadas", geocodingClient.buscarCoordenadas(campos.getCep()));
+        colunas.put("geocodificacaoPendente", false);
+      }
+    }
+    if (colunas.isEmpty()) {
+      return pessoaFisicaRepository.findVersao(chave)
+          .orElseThrow(() -> new CadastroNaoEncontradoException("Usuário não encontrado"));
+    }
+
+    long versao = gravar(() -> transactionTemplate.execute(status -> {
+      int alteradas = pessoaFisicaRepository.atualizarColunas(chave, colunas, versaoEsperada);
+      if (alteradas == 1 && versaoEsperada != null) {
+        return versaoEsperada + 1;
+      }
+      long atual = pessoaFisicaRepository.findVersao(chave)
+          .orElseThrow(() -> new CadastroNaoEncontradoException("Usuário não encontrado"));
+      if (alteradas == 0) {
+        throw new VersaoDivergenteException(atual);
+      }
+      return atual;
+    }), null, campos.getEmail());
+
+    cachePessoaFisica.invalidar(chave);
+    // O e-mail anterior não é conhecido sem carregar o cadastro; fica no filtro
+    // e no máximo provoca uma consulta de unicidade a mais.
+    chavesCadastradas.registrarPessoaFisica(null, campos.getEmail());
+    if (colunas.containsKey("coordenadas")) {
+      indiceEspacialContatos.registrarPessoaFisica(chave, (Point) colunas.get("coordenadas"));
+    }
+    return versao;
+  }
+
+  @Timed("agenda.servico")
   public void excluirUsuario(String cpf) {
-    pessoaFisicaRepository.deleteById(cpf);
+    String chave = limpar(cpf);
+    pessoaFisicaRepository.findById(chave).ifPresent(pessoa -> {
+      pessoaFisicaRepository.delete(pessoa);
+      chavesCadastradas.removerPessoaFisica(pessoa.getCpf(), pessoa.getEmail());
+    });
+    cachePessoaFisica.invalidar(chave);
+    indiceEspacialContatos.removerPessoaFisica(chave);
+  }
+
+  /** Dígitos do prefixo, validados junto com o limite da busca por prefixo. */
+  private String validarPrefixo(String prefixo, int limite) {
+    String digitos = limpar(prefixo);
+    Map<String, String> erros = new HashMap<>();
+    if (digitos == null || digitos.length() < TAMANHO_MINIMO_PREFIXO || digitos.length() > 11) {
+      erros.put("prefixo", "Informe de " + TAMANHO_MINIMO_PREFIXO + " a 11 dígitos do CPF");
+    }
+    if (limite < 1 || limite > LIMITE_MAXIMO_PREFIXO) {
+      erros.put("limite", "Limite deve estar entre 1 e " + LIMITE_MAXIMO_PREFIXO);
+    }
+    if (!erros.isEmpty()) {
+      throw new ValidacaoException(erros);
+    }
+    return digitos;
+  }
+
+  private static PaginaCursor<Projecao> paginaDe(List<Projecao> itens, int limite) {
+    String proximoCursor = itens.size() == limite ? PaginaCursor.codificar(itens.get(itens.size() - 1).id()) : null;
+    return new PaginaCursor<>(itens, proximoCursor);
+  }
+
+  private void validarLimitePagina(int limite) {
+    if (limite < 1 || limite > LIMITE_MAXIMO_PAGINA) {
+      throw new ValidacaoException(Map.of("limite", "Limite deve estar entre 1 e " + LIMITE_MAXIMO_PAGINA));
+    }
   }
 
   private void validarPessoaFisica(PessoaFisica pessoaFisica, boolean isNovo) {
+    Map<String, String> erros = validarCampos(pessoaFisica);
+
+    if (isNovo) {
+      validarUnicidade(pessoaFisica.getCpf(), pessoaFisica.getEmail());
+    }
+
+    if (!erros.isEmpty()) {
+      throw new ValidacaoException(erros);
+    }
+  }
+
+  /** Erros de formato dos campos preenchidos, sem consultar o banco. */
+  public Map<String, String> validarCampos(PessoaFisica pessoaFisica) {
     Map<String, String> erros = new HashMap<>();
 
     validarCampo(pessoaFisica.getCpf(), ValidacaoUtils::validarCPF, "cpf", "CPF inválido", erros);
@@ -107,23 +494,26 @@ public class PessoaFisicaService {
     validarCampo(pessoaFisica.getTelefone(), ValidacaoUtils::validarTelefone, "telefone", "Telefone inválido", erros);
     validarCampo(pessoaFisica.getEndereco(), ValidacaoUtils::validarEndereco, "endereco", "Endereço inválido", erros);
     validarCampo(pessoaFisica.getNome(), ValidacaoUtils::validarNome, "nome", "Nome inválido", erros);
-
-    if (isNovo) {
-      validarExistenciaCampo(pessoaFisica.getCpf(), "cpf", "CPF já cadastrado");
-      validarExistenciaCampo(pessoaFisica.getEmail(), "email", "E-mail já cadastrado");
-    }
-
-    if (!erros.isEmpty()) {
-      throw new ValidacaoException(erros);
-    }
+    return erros;
   }
 
   private void validarCamposUnicos(PessoaFisica novaPessoa, PessoaFisica pessoaExistente) {
-    if (novaPessoa.getCpf() != null && !novaPessoa.getCpf().equals(pessoaExistente.getCpf())) {
-      validarExistenciaCampo(novaPessoa.getCpf(), "cpf", "CPF já cadastrado.");
+    String cpf = novaPessoa.getCpf() != null && !novaPessoa.getCpf().equals(pessoaExistente.getCpf())
+        ? novaPessoa.getCpf()
+        : null;
+    String email = novaPessoa.getEmail() != null && !novaPessoa.getEmail().equals(pessoaExistente.getEmail())
+        ? novaPessoa.getEmail()
+        : null;
+    validarUnicidade(cpf, email);
+  }
+
+  private void validarCoordenada(double lat, double lon, String campoLat, String campoLon,
+      Map<String, String> erros) {
+    if (lat < -90 || lat > 90) {
+      erros.put(campoLat, "Latitude inválida");
     }
-    if (novaPessoa.getEmail() != null && !novaPessoa.getEmail().equals(pessoaExistente.getEmail())) {
-      validarExistenciaCampo(novaPessoa.getEmail(), "email", "E-mail já cadastrado.");
+    if (lon < -180 || lon > 180) {
+      erros.put(campoLon, "Longitude inválida");
     }
   }
 
@@ -134,17 +524,47 @@ public class PessoaFisicaService {
     }
   }
 
-  private void validarExistenciaCampo(String value, String field, String message) {
-    if (value != null) {
-      boolean exists = field.equals("cpf")
-          ? pessoaFisicaRepository.existsById(value)
-          : pessoaFisicaRepository.findByEmail(value).isPresent();
+  /**
+   * Verifica CPF e e-mail numa única consulta, pulada quando o filtro de
+   * chaves garante que ambos são novos.
+   */
+  private void validarUnicidade(String cpf, String email) {
+    if ((cpf == null && email == null) || !chavesCadastradas.podeExistirPessoaFisica(cpf, email)) {
+      return;
+    }
+    Map<String, String> erros = chavesDuplicadas(cpf, email);
+    if (!erros.isEmpty()) {
+      throw new ValidacaoException(erros);
+    }
+  }
+
+  private Map<String, String> chavesDuplicadas(String cpf, String email) {
+    Map<String, String> erros = new HashMap<>();
+    for (ChaveContato chave : pessoaFisicaRepository.findChavesExistentes(cpf, email)) {
+      if (cpf != null && cpf.equals(chave.getId())) {
+        erros.put("cpf", "CPF já cadastrado");
+      }
+      if (email != null && email.equals(chave.getEmail())) {
+        erros.put("email", "E-mail já cadastrado");
+      }
+    }
+    return erros;
+  }
 
-      if (exists) {
-        Map<String, String> error = new HashMap<>();
-        error.put(field, message);
-        throw new ValidacaoException(error);
+  /**
+   * Executa a gravação. Se outro cadastro com a mesma chave foi gravado entre a
+   * verificação e o INSERT/UPDATE, a restrição única do banco recusa e o erro
+   * volta como validação das chaves informadas.
+   */
+  private <T> T gravar(Supplier<T> gravacao, String cpf, String email) {
+    try {
+      return gravacao.get();
+    } catch (DataIntegrityViolationException e) {
+      Map<String, String> erros = chavesDuplicadas(cpf, email);
+      if (erros.isEmpty()) {
+        throw e;
       }
+      throw new ValidacaoException(erros);
     }
   }
 
@@ -167,9 +587,12 @@ public class PessoaFisicaService {
     if (novosDados.getCep() != null) {
       existente.setCep(novosDados.getCep());
     }
+    if (novosDados.getCoordenadas() != null) {
+      existente.setCoordenadas(novosDados.getCoordenadas());
+    }
   }
 
   private String limpar(String data) {
-    return data != null ? data.replaceAll("\\D", "") : null;
+    return data != null ? ValidacaoUtils.limparNumeros(data) : null;
   }
 }
\ No newline at end of file
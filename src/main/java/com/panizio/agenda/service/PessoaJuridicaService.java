@@ -1,45 +1,286 @@
 package com.panizio.agenda.service;
 
+import com.panizio.agenda.client.GeocodingClient;
+import com.panizio.agenda.exception.CadastroNaoEncontradoException;
 import com.panizio.agenda.exception.ValidacaoException;
+import com.panizio.agenda.exception.VersaoDivergenteException;
 import com.panizio.agenda.model.PessoaJuridica;
+import com.panizio.agenda.model.PaginaCursor;
+import com.panizio.agenda.model.PontoMapa;
+import com.panizio.agenda.model.Projecao;
+import com.panizio.agenda.repository.ChaveContato;
 import com.panizio.agenda.repository.PessoaJuridicaRepository;
+import com.panizio.agenda.repository.VersaoContato;
+import com.panizio.agenda.utils.CacheLeitura;
+import com.panizio.agenda.utils.IndiceEspacial;
 import com.panizio.agenda.utils.ValidacaoUtils;
 
 import org.locationtech.jts.geom.Point;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.annotation.Timed;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 @Service
 public class PessoaJuridicaService {
 
+  private static final double RAIO_MAXIMO_METROS = 100_000;
+  private static final int LIMITE_MAXIMO_PROXIMOS = 100;
+  private static final int LIMITE_MAXIMO_MAPA = 5_000;
+  private static final int LIMITE_MAXIMO_PAGINA = 500;
+  private static final int TAMANHO_MINIMO_PREFIXO = 3;
+  private static final int LIMITE_MAXIMO_PREFIXO = 100;
+  private static final int TAMANHO_MINIMO_TERMO = 3;
+  private static final int TAMANHO_MAXIMO_TERMO = 100;
+  private static final int LIMITE_MAXIMO_BUSCA = 100;
+  /** Campos que podem ser pedidos em {@code fields}, na ordem em que são devolvidos. */
+  public static final List<String> CAMPOS = List.of("cnpj", "razaoSocial", "nomeFantasia", "telefone", "email",
+      "endereco", "cep", "coordenadas", "geocodificacaoPendente", "versao");
+
   @Autowired
   private PessoaJuridicaRepository pessoaJuridicaRepository;
   private final EmailService emailService;
+  private final GeocodingClient geocodingClient;
+  private final boolean geocodificacaoAssincrona;
+  private final IndiceEspacialContatos indiceEspacialContatos;
+  private final ChavesCadastradas chavesCadastradas;
+  private final TransactionTemplate transactionTemplate;
+  private final CacheLeitura<String, PessoaJuridica> cachePessoaJuridica;
 
   public PessoaJuridicaService(
       PessoaJuridicaRepository pessoaJuridicaRepository,
-      EmailService emailService) {
+      EmailService emailService,
+      GeocodingClient geocodingClient,
+      IndiceEspacialContatos indiceEspacialContatos,
+      ChavesCadastradas chavesCadastradas,
+      TransactionTemplate transactionTemplate,
+      CacheLeitura<String, PessoaJuridica> cachePessoaJuridica,
+      @Value("${agenda.geocoding.assincrono:false}") boolean geocodificacaoAssincrona) {
     this.pessoaJuridicaRepository = pessoaJuridicaRepository;
     this.emailService = emailService;
+    this.geocodingClient = geocodingClient;
+    this.geocodificacaoAssincrona = geocodificacaoAssincrona;
+    this.indiceEspacialContatos = indiceEspacialContatos;
+    this.chavesCadastradas = chavesCadastradas;
+    this.transactionTemplate = transactionTemplate;
+    this.cachePessoaJuridica = cachePessoaJuridica;
   }
 
-  public List<PessoaJuridica> listarPessoasJuridicas() {
-    return pessoaJuridicaRepository.findAll();
+  public PaginaCursor<PessoaJuridica> listarPessoasJuridicas(String cursor, int limite) {
+    validarLimitePagina(limite);
+    List<PessoaJuridica> itens = pessoaJuridicaRepository.findByCnpjGreaterThanOrderByCnpjAsc(
+        PaginaCursor.decodificar(cursor), Limit.of(limite));
+    String proximoCursor = itens.size() == limite
+        ? PaginaCursor.codificar(itens.get(itens.size() - 1).getCnpj())
+        : null;
+    return new PaginaCursor<>(itens, proximoCursor);
+  }
+
+  /** Chave e versão dos itens da página que {@link #listarPessoasJuridicas} devolveria. */
+  public List<VersaoContato> listarVersoes(String cursor, int limite) {
+    validarLimitePagina(limite);
+    return pessoaJuridicaRepository.findVersoesApos(PaginaCursor.decodificar(cursor), Limit.of(limite));
+  }
+
+  /**
+   * Percorre a tabela inteira em páginas de {@code LIMITE_MAXIMO_PAGINA},
+   * entregando cada página ao consumidor assim que é lida. Nenhuma página fica
+   * retida depois de consumida.
+   */
+  public void percorrerPessoasJuridicas(Consumer<List<PessoaJuridica>> consumidor) {
+    String ultimaChave = "";
+    List<PessoaJuridica> pagina;
+    do {
+      pagina = pessoaJuridicaRepository.findByCnpjGreaterThanOrderByCnpjAsc(ultimaChave, Limit.of(LIMITE_MAXIMO_PAGINA));
+      if (!pagina.isEmpty()) {
+        consumidor.accept(pagina);
+        ultimaChave = pagina.get(pagina.size() - 1).getCnpj();
+      }
+    } while (pagina.size() == LIMITE_MAXIMO_PAGINA);
   }
 
   public PessoaJuridica buscarPessoaJuridicaPorCnpj(String cnpj) {
-    return pessoaJuridicaRepository.findById(limpar(cnpj)).orElse(null);
+    return cachePessoaJuridica.buscar(limpar(cnpj), pessoaJuridicaRepository::findById).orElse(null);
+  }
+
+  /** Versão atual do cadastro sem carregar a entidade, ou vazio se ele não existe. */
+  public Optional<Long> buscarVersao(String cnpj) {
+    String chave = limpar(cnpj);
+    Optional<PessoaJuridica> emCache = cachePessoaJuridica.emCache(chave);
+    if (emCache.isPresent()) {
+      return Optional.of(emCache.get().getVersao());
+    }
+    return pessoaJuridicaRepository.findVersao(chave);
+  }
+
+  public PaginaCursor<PessoaJuridica> filtrarPorCnpj(String prefixo, String cursor, int limite) {
+    String digitos = validarPrefixo(prefixo, limite);
+    String fim = digitos + "9".repeat(14 - digitos.length());
+    List<PessoaJuridica> itens = pessoaJuridicaRepository.findByCnpjNoIntervalo(digitos, fim, PaginaCursor.decodificar(cursor),
+        Limit.of(limite));
+    String proximoCursor = itens.size() == limite
+        ? PaginaCursor.codificar(itens.get(itens.size() - 1).getCnpj())
+        : null;
+    return new PaginaCursor<>(itens, proximoCursor);
+  }
+
+  /** Como {@link #listarPessoasJuridicas}, lendo só os campos informados. */
+  public PaginaCursor<Projecao> listarCampos(Set<String> campos, String cursor, int limite) {
+    validarLimitePagina(limite);
+    List<Projecao> itens = pessoaJuridicaRepository.buscarCampos(campos, null, null, PaginaCursor.decodificar(cursor),
+        limite);
+    return paginaDe(itens, limite);
+  }
+
+  /** Como {@link #percorrerPessoasJuridicas}, lendo só os campos informados. */
+  public void percorrerCampos(Set<String> campos, Consumer<List<Projecao>> consumidor) {
+    String ultimaChave = "";
+    List<Projecao> pagina;
+    do {
+      pagina = pessoaJuridicaRepository.buscarCampos(campos, null, null, ultimaChave, LIMITE_MAXIMO_PAGINA);
+      if (!pagina.isEmpty()) {
+        consumidor.accept(pagina);
+        ultimaChave = pagina.get(pagina.size() - 1).id();
+      }
+    } while (pagina.size() == LIMITE_MAXIMO_PAGINA);
+  }
+
+  /** Lida direto do banco, sem passar pelo cache de entidades. */
+  public Optional<Projecao> buscarCamposPorCnpj(Set<String> campos, String cnpj) {
+    return pessoaJuridicaRepository.buscarCamposPorCnpj(campos, limpar(cnpj));
+  }
+
+  /** Como {@link #filtrarPorCnpj}, lendo só os campos informados. */
+  public PaginaCursor<Projecao> filtrarCamposPorCnpj(Set<String> campos, String prefixo, String cursor, int limite) {
+    String digitos = validarPrefixo(prefixo, limite);
+    String fim = digitos + "9".repeat(14 - digitos.length());
+    List<Projecao> itens = pessoaJuridicaRepository.buscarCampos(campos, digitos, fim,
+        PaginaCursor.decodificar(cursor), limite);
+    return paginaDe(itens, limite);
+  }
+
+  /**
+   * Busca por parte da razão social ou do nome fantasia, sem distinção de
+   * acento ou caixa e tolerante a pequenos erros de digitação, dos resultados
+   * mais parecidos com o termo para os menos.
+   */
+  public List<PessoaJuridica> buscarPorNome(String termo, int pagina, int tamanho) {
+    String texto = termo != null ? termo.trim() : "";
+    Map<String, String> erros = new HashMap<>();
+    if (texto.length() < TAMANHO_MINIMO_TERMO || texto.length() > TAMANHO_MAXIMO_TERMO) {
+      erros.put("termo", "Informe de " + TAMANHO_MINIMO_TERMO + " a " + TAMANHO_MAXIMO_TERMO + " caracteres");
+    }
+    if (pagina < 0 || tamanho < 1 || tamanho > LIMITE_MAXIMO_BUSCA) {
+      erros.put("tamanho", "Página inválida");
+    }
+    if (!erros.isEmpty()) {
+      throw new ValidacaoException(erros);
+    }
+    return pessoaJuridicaRepository.findPorNome(texto, PageRequest.of(pagina, tamanho));
+  }
+
+  /**
+   * Contatos mais próximos do ponto, em ordem de distância. Sem raio devolve os
+   * {@code k} vizinhos mais próximos; com raio (em metros) devolve a página
+   * pedida dos contatos dentro dele.
+   */
+  public List<PessoaJuridica> buscarProximos(double lat, double lon, Double raio, int k, int pagina, int tamanho) {
+    Map<String, String> erros = new HashMap<>();
+    validarCoordenada(lat, lon, "lat", "lon", erros);
+    if (raio != null && (raio <= 0 || raio > RAIO_MAXIMO_METROS)) {
+      erros.put("raio", "Raio deve estar entre 0 e " + (int) RAIO_MAXIMO_METROS + " metros");
+    }
+    if (k < 1 || k > LIMITE_MAXIMO_PROXIMOS) {
+      erros.put("k", "k deve estar entre 1 e " + LIMITE_MAXIMO_PROXIMOS);
+    }
+    if (pagina < 0 || tamanho < 1 || tamanho > LIMITE_MAXIMO_PROXIMOS) {
+      erros.put("tamanho", "Página inválida");
+    }
+    if (!erros.isEmpty()) {
+      throw new ValidacaoException(erros);
+    }
+
+    if (raio == null) {
+      return pessoaJuridicaRepository.findMaisProximos(lat, lon, Limit.of(k));
+    }
+    return pessoaJuridicaRepository.findDentroDoRaio(lat, lon, raio, PageRequest.of(pagina, tamanho));
   }
 
-  public List<PessoaJuridica> filtrarPorCnpj(String prefixo) {
-    return pessoaJuridicaRepository.findByCnpjStartingWith(prefixo);
+  /**
+   * Posições dos contatos dentro da área, para mapas. Usa o índice em memória
+   * quando disponível e o PostGIS caso contrário.
+   */
+  public List<PontoMapa> buscarNoMapa(double minLat, double minLon, double maxLat, double maxLon, int limite) {
+    Map<String, String> erros = new HashMap<>();
+    validarCoordenada(minLat, minLon, "minLat", "minLon", erros);
+    validarCoordenada(maxLat, maxLon, "maxLat", "maxLon", erros);
+    if (minLat > maxLat || minLon > maxLon) {
+      erros.put("area", "Área inválida");
+    }
+    if (limite < 1 || limite > LIMITE_MAXIMO_MAPA) {
+      erros.put("limite", "Limite deve estar entre 1 e " + LIMITE_MAXIMO_MAPA);
+    }
+    if (!erros.isEmpty()) {
+      throw new ValidacaoException(erros);
+    }
+
+    if (indiceEspacialContatos.isDisponivel()) {
+      return indiceEspacialContatos.pessoasJuridicas().naCaixa(minLat, minLon, maxLat, maxLon, limite);
+    }
+    return pessoaJuridicaRepository.findNaCaixa(minLat, minLon, maxLat, maxLon, Limit.of(limite)).stream()
+        .map(c -> new PontoMapa(c.getId(), c.getLatitude(), c.getLongitude(), null))
+        .toList();
   }
 
+  public List<PontoMapa> buscarPontosProximos(double lat, double lon, int k) {
+    Map<String, String> erros = new HashMap<>();
+    validarCoordenada(lat, lon, "lat", "lon", erros);
+    if (k < 1 || k > LIMITE_MAXIMO_PROXIMOS) {
+      erros.put("k", "k deve estar entre 1 e " + LIMITE_MAXIMO_PROXIMOS);
+    }
+    if (!erros.isEmpty()) {
+      throw new ValidacaoException(erros);
+    }
+
+    if (indiceEspacialContatos.isDisponivel()) {
+      return indiceEspacialContatos.pessoasJuridicas().maisProximos(lat, lon, k);
+    }
+    return pessoaJuridicaRepository.findMaisProximos(lat, lon, Limit.of(k)).stream()
+        .map(p -> new PontoMapa(p.getCnpj(), p.getCoordenadas().getY(), p.getCoordenadas().getX(),
+            IndiceEspacial.distanciaMetros(lat, lon, p.getCoordenadas().getY(), p.getCoordenadas().getX())))
+        .toList();
+  }
+
+  /**
+   * Chamado pelo {@link GeocodificacaoPendenteWorker} depois de geocodificar um
+   * CEP pendente.
+   */
+  public void concluirGeocodificacao(String cep, Point coordenadas) {
+    String wkt = coordenadas != null ? coordenadas.toText() : null;
+    List<String> ids = pessoaJuridicaRepository.concluirGeocodificacao(cep, wkt);
+    ids.forEach(id -> {
+      cachePessoaJuridica.invalidar(id);
+      indiceEspacialContatos.registrarPessoaJuridica(id, coordenadas);
+    });
+  }
+
+  @Timed("agenda.servico")
   public PessoaJuridica salvarPessoaJuridica(PessoaJuridica pessoaJuridica) {
     pessoaJuridica.setCnpj(limpar(pessoaJuridica.getCnpj()));
 
@@ -47,56 +288,203 @@ public class PessoaJuridicaService {
       throw new ValidacaoException(Map.of("cep", "CEP inválido"));
     }
 
-    try {
-      Point coordenadas = ValidacaoUtils.buscarCoordenadasPorCEP(pessoaJuridica.getCep());
-      if (coordenadas == null) {
-        throw new ValidacaoException(Map.of("cep", "Não foi possível obter as coordenadas para este CEP"));
+    if (geocodificacaoAssincrona) {
+      pessoaJuridica.setGeocodificacaoPendente(true);
+    } else {
+      try {
+        Point coordenadas = geocodingClient.buscarCoordenadas(pessoaJuridica.getCep());
+        if (coordenadas == null) {
+          throw new ValidacaoException(Map.of("cep", "Não foi possível obter as coordenadas para este CEP"));
+        }
+        pessoaJuridica.setCoordenadas(coordenadas);
+      } catch (ValidacaoException e) {
+        throw e;
       }
-      pessoaJuridica.setCoordenadas(coordenadas);
-    } catch (ValidacaoException e) {
-      throw e;
     }
 
     validarPessoaJuridica(pessoaJuridica, true);
 
-    PessoaJuridica savedPessoa = pessoaJuridicaRepository.save(pessoaJuridica);
-    emailService.enviarEmailConfirmacao(savedPessoa.getRazaoSocial(), savedPessoa.getEmail());
+    PessoaJuridica savedPessoa = gravar(() -> transactionTemplate.execute(status -> {
+      PessoaJuridica salva = pessoaJuridicaRepository.save(pessoaJuridica);
+      emailService.registrarEmailConfirmacao(salva.getRazaoSocial(), salva.getEmail());
+      return salva;
+    }), pessoaJuridica.getCnpj(), pessoaJuridica.getEmail());
+    cachePessoaJuridica.invalidar(savedPessoa.getCnpj());
+    chavesCadastradas.registrarPessoaJuridica(savedPessoa.getCnpj(), savedPessoa.getEmail());
+    indiceEspacialContatos.registrarPessoaJuridica(savedPessoa.getCnpj(), savedPessoa.getCoordenadas());
 
     return savedPessoa;
   }
 
   public PessoaJuridica atualizarPessoaJuridica(String cnpj, PessoaJuridica novosDados) {
+    return atualizarPessoaJuridica(cnpj, novosDados, null);
+  }
+
+  /**
+   * Com {@code versaoEsperada} a atualização só acontece se o cadastro ainda
+   * estiver nessa versão. Sem ela, uma gravação concorrente entre a leitura e o
+   * UPDATE também é detectada (ObjectOptimisticLockingFailureException).
+   */
+  @Timed("agenda.servico")
+  public PessoaJuridica atualizarPessoaJuridica(String cnpj, PessoaJuridica novosDados, Long versaoEsperada) {
     novosDados.setCnpj(limpar(novosDados.getCnpj()));
-    PessoaJuridica pessoaExistente = pessoaJuridicaRepository.findById(cnpj)
+    PessoaJuridica pessoaExistente = pessoaJuridicaRepository.findById(limpar(cnpj))
         .orElseThrow(() -> new IllegalArgumentException("Pessoa jurídica não encontrada"));
+    if (versaoEsperada != null && versaoEsperada != pessoaExistente.getVersao()) {
+      throw new VersaoDivergenteException(pessoaExistente.getVersao());
+    }
 
     if (novosDados.getCep() != null && !novosDados.getCep().equals(pessoaExistente.getCep())) {
       if (!ValidacaoUtils.validarCEP(novosDados.getCep())) {
         throw new ValidacaoException(Map.of("cep", "CEP inválido"));
       }
 
-      try {
-        Point coordenadas = ValidacaoUtils.buscarCoordenadasPorCEP(novosDados.getCep());
-        if (coordenadas != null) {
-          novosDados.setCoordenadas(coordenadas);
+      if (geocodificacaoAssincrona) {
+        pessoaExistente.setCoordenadas(null);
+        pessoaExistente.setGeocodificacaoPendente(true);
+      } else {
+        try {
+          Point coordenadas = geocodingClient.buscarCoordenadas(novosDados.getCep());
+          if (coordenadas != null) {
+            novosDados.setCoordenadas(coordenadas);
+          }
+        } catch (ValidacaoException e) {
+          throw e;
         }
-      } catch (ValidacaoException e) {
-        throw e;
       }
     }
 
     validarCamposUnicos(novosDados, pessoaExistente);
     validarPessoaJuridica(novosDados, false);
+    String emailAnterior = pessoaExistente.getEmail();
+    String emailNovo = Objects.equals(novosDados.getEmail(), emailAnterior) ? null : novosDados.getEmail();
     atualizarCampos(pessoaExistente, novosDados);
 
-    return pessoaJuridicaRepository.save(pessoaExistente);
+    PessoaJuridica atualizada = gravar(() -> pessoaJuridicaRepository.save(pessoaExistente), null, emailNovo);
+    cachePessoaJuridica.invalidar(atualizada.getCnpj());
+    chavesCadastradas.trocarEmailPessoaJuridica(emailAnterior, atualizada.getEmail());
+    indiceEspacialContatos.registrarPessoaJuridica(atualizada.getCnpj(), atualizada.getCoordenadas());
+    return atualizada;
   }
 
+  /**
+   * Atualização parcial: valida só os campos informados e grava com um único
+   * UPDATE das colunas correspondentes, sem carregar o cadastro antes. E-mail
+   * repetido é recusado pela restrição única do banco. O CNPJ não é
+   * alterável e é ignorado no corpo. Devolve a nova versão.
+   */
+  @Timed("agenda.servico")
+  public long atualizarParcialmente(String cnpj, PessoaJuridica campos, Long versaoEsperada) {
+    String chave = limpar(cnpj);
+    campos.setCnpj(null);
+    validarPessoaJuridica(campos, false);
+
+    Map<String, Object> colunas = new LinkedHashMap<>();
+    if (campos.getRazaoSocial() != null) {
+      colunas.put("razaoSocial", campos.getRazaoSocial());
+    }
+    if (campos.getNomeFantasia() != null) {
+      colunas.put("nomeFantasia", campos.getNomeFantasia());
+    }
+    if (campos.getTelefone() != null) {
+      colunas.put("telefone", campos.getTelefone());
+    }
+    if (campos.getEmail() != null) {
+      colunas.put("email", campos.getEmail());
+    }
+    if (campos.getEndereco() != null) {
+      colunas.put("endereco", campos.getEndereco());
+    }
+    if (campos.getCep() != null) {
+      colunas.put("cep", campos.getCep());
+      if (geocodificacaoAssincrona) {
+        colunas.put("coordenadas", null);
+        colunas.put("geocodificacaoPendente", true);
+      } else {
+        colunas.put("coordenadas", geocodingClient.buscarCoordenadas(campos.getCep()));
+        colunas.put("geocodificacaoPendente", false);
+      }
+    }
+    if (colunas.isEmpty()) {
+      return pessoaJuridicaRepository.findVersao(chave)
+          .orElseThrow(() -> new CadastroNaoEncontradoException("Pessoa jurídica não encontrada"));
+    }
+
+    long versao = gravar(() -> transactionTemplate.execute(status -> {
+      int alteradas = pessoaJuridicaRepository.atualizarColunas(chave, colunas, versaoEsperada);
+      if (alteradas == 1 && versaoEsperada != null) {
+        return versaoEsperada + 1;
+      }
+      long atual = pessoaJuridicaRepository.findVersao(chave)
+          .orElseThrow(() -> new CadastroNaoEncontradoException("Pessoa jurídica não encontrada"));
+      if (alteradas == 0) {
+        throw new VersaoDivergenteException(atual);
+      }
+      return atual;
+    }), null, campos.getEmail());
+
+    cachePessoaJuridica.invalidar(chave);
+    // O e-mail anterior não é conhecido sem carregar o cadastro; fica no filtro
+    // e no máximo provoca uma consulta de unicidade a mais.
+    chavesCadastradas.registrarPessoaJuridica(null, campos.getEmail());
+    if (colunas.containsKey("coordenadas")) {
+      indiceEspacialContatos.registrarPessoaJuridica(chave, (Point) colunas.get("coordenadas"));
+    }
+    return versao;
+  }
+
+  @Timed("agenda.servico")
   public void excluirUsuario(String cnpj) {
-    pessoaJuridicaRepository.deleteById(cnpj);
+    String chave = limpar(cnpj);
+    pessoaJuridicaRepository.findById(chave).ifPresent(pessoa -> {
+      pessoaJuridicaRepository.delete(pessoa);
+      chavesCadastradas.removerPessoaJuridica(pessoa.getCnpj(), pessoa.getEmail());
+    });
+    cachePessoaJuridica.invalidar(chave);
+    indiceEspacialContatos.removerPessoaJuridica(chave);
+  }
+
+  /** Dígitos do prefixo, validados junto com o limite da busca por prefixo. */
+  private String validarPrefixo(String prefixo, int limite) {
+    String digitos = limpar(prefixo);
+    Map<String, String> erros = new HashMap<>();
+    if (digitos == null || digitos.length() < TAMANHO_MINIMO_PREFIXO || digitos.length() > 14) {
+      erros.put("prefixo", "Informe de " + TAMANHO_MINIMO_PREFIXO + " a 14 dígitos do CNPJ");
+    }
+    if (limite < 1 || limite > LIMITE_MAXIMO_PREFIXO) {
+      erros.put("limite", "Limite deve estar entre 1 e " + LIMITE_MAXIMO_PREFIXO);
+    }
+    if (!erros.isEmpty()) {
+      throw new ValidacaoException(erros);
+    }
+    return digitos;
+  }
+
+  private static PaginaCursor<Projecao> paginaDe(List<Projecao> itens, int limite) {
+    String proximoCursor = itens.size() == limite ? PaginaCursor.codificar(itens.get(itens.size() - 1).id()) : null;
+    return new PaginaCursor<>(itens, proximoCursor);
+  }
+
+  private void validarLimitePagina(int limite) {
+    if (limite < 1 || limite > LIMITE_MAXIMO_PAGINA) {
+      throw new ValidacaoException(Map.of("limite", "Limite deve estar entre 1 e " + LIMITE_MAXIMO_PAGINA));
+    }
   }
 
   private void validarPessoaJuridica(PessoaJuridica pessoaJuridica, boolean isNovo) {
+    Map<String, String> erros = validarCampos(pessoaJuridica);
+
+    if (isNovo) {
+      validarUnicidade(pessoaJuridica.getCnpj(), pessoaJuridica.getEmail());
+    }
+
+    if (!erros.isEmpty()) {
+      throw new ValidacaoException(erros);
+    }
+  }
+
+  /** Erros de formato dos campos preenchidos, sem consultar o banco. */
+  public Map<String, String> validarCampos(PessoaJuridica pessoaJuridica) {
     Map<String, String> erros = new HashMap<>();
 
     validarCampo(pessoaJuridica.getCnpj(), ValidacaoUtils::validarCNPJ, "cnpj", "CNPJ inválido", erros);
@@ -108,23 +496,26 @@ public class PessoaJuridicaService {
     validarCampo(pessoaJuridica.getEmail(), ValidacaoUtils::validarEmail, "email", "E-mail inválido", erros);
     validarCampo(pessoaJuridica.getEndereco(), ValidacaoUtils::validarEndereco, "endereco", "Endereço inválido", erros);
     validarCampo(pessoaJuridica.getCep(), ValidacaoUtils::validarCEP, "cep", "CEP inválido", erros);
-
-    if (isNovo) {
-      validarExistenciaCampo(pessoaJuridica.getCnpj(), "cnpj", "CNPJ já cadastrado");
-      validarExistenciaCampo(pessoaJuridica.getEmail(), "email", "E-mail já cadastrado");
-    }
-
-    if (!erros.isEmpty()) {
-      throw new ValidacaoException(erros);
-    }
+    return erros;
   }
 
   private void validarCamposUnicos(PessoaJuridica novaPessoa, PessoaJuridica pessoaExistente) {
-    if (novaPessoa.getCnpj() != null && !novaPessoa.getCnpj().equals(pessoaExistente.getCnpj())) {
-      validarExistenciaCampo(novaPessoa.getCnpj(), "cnpj", "CNPJ já cadastrado.");
+    String cnpj = novaPessoa.getCnpj() != null && !novaPessoa.getCnpj().equals(pessoaExistente.getCnpj())
+        ? novaPessoa.getCnpj()
+        : null;
+    String email = novaPessoa.getEmail() != null && !novaPessoa.getEmail().equals(pessoaExistente.getEmail())
+        ? novaPessoa.getEmail()
+        : null;
+    validarUnicidade(cnpj, email);
+  }
+
+  private void validarCoordenada(double lat, double lon, String campoLat, String campoLon,
+      Map<String, String> erros) {
+    if (lat < -90 || lat > 90) {
+      erros.put(campoLat, "Latitude inválida");
     }
-    if (novaPessoa.getEmail() != null && !novaPessoa.getEmail().equals(pessoaExistente.getEmail())) {
-      validarExistenciaCampo(novaPessoa.getEmail(), "email", "E-mail já cadastrado.");
+    if (lon < -180 || lon > 180) {
+      erros.put(campoLon, "Longitude inválida");
     }
   }
 
@@ -135,17 +526,47 @@ public class PessoaJuridicaService {
     }
   }
 
-  private void validarExistenciaCampo(String value, String field, String message) {
-    if (value != null) {
-      boolean exists = field.equals("cnpj")
-          ? pessoaJuridicaRepository.existsById(value)
-          : pessoaJuridicaRepository.findByEmail(value).isPresent();
+  /**
+   * Verifica CNPJ e e-mail numa única consulta, pulada quando o filtro de
+   * chaves garante que ambos são novos.
+   */
+  private void validarUnicidade(String cnpj, String email) {
+    if ((cnpj == null && email == null) || !chavesCadastradas.podeExistirPessoaJuridica(cnpj, email)) {
+      return;
+    }
+    Map<String, String> erros = chavesDuplicadas(cnpj, email);
+    if (!erros.isEmpty()) {
+      throw new ValidacaoException(erros);
+    }
+  }
+
+  private Map<String, String> chavesDuplicadas(String cnpj, String email) {
+    Map<String, String> erros = new HashMap<>();
+    for (ChaveContato chave : pessoaJuridicaRepository.findChavesExistentes(cnpj, email)) {
+      if (cnpj != null && cnpj.equals(chave.getId())) {
+        erros.put("cnpj", "CNPJ já cadastrado");
+      }
+      if (email != null && email.equals(chave.getEmail())) {
+        erros.put("email", "E-mail já cadastrado");
+      }
+    }
+    return erros;
+  }
 
-      if (exists) {
-        Map<String, String> error = new HashMap<>();
-        error.put(field, message);
-        throw new ValidacaoException(error);
+  /**
+   * Executa a gravação. Se outro cadastro com a mesma chave foi gravado entre a
+   * verificação e o INSERT/UPDATE, a restrição única do banco recusa e o erro
+   * volta como validação das chaves informadas.
+   */
+  private <T> T gravar(Supplier<T> gravacao, String cnpj, String email) {
+    try {
+      return gravacao.get();
+    } catch (DataIntegrityViolationException e) {
+      Map<String, String> erros = chavesDuplicadas(cnpj, email);
+      if (erros.isEmpty()) {
+        throw e;
       }
+      throw new ValidacaoException(erros);
     }
   }
 
@@ -174,6 +595,6 @@ public class PessoaJuridicaService {
   }
 
   private String limpar(String data) {
-    return data != null ? data.replaceAll("\\D", "") : null;
+    return data != null ? ValidacaoUtils.limparNumeros(data) : null;
   }
 }
\ No newline at end of file
@@ -0,0 +1,130 @@
+package com.panizio.agenda.utils;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Cache de leitura (read-through) limitado por tamanho e por tempo. Ausências
+ * também são guardadas, com um TTL próprio e normalmente bem menor.
+ *
+ * A carga roda na thread que buscou, fora de qualquer lock do mapa (uma
+ * consulta lenta não prende a thread portadora de uma virtual thread nem
+ * segura outras chaves). Buscas simultâneas da mesma chave esperam a mesma
+ * carga. {@link #invalidar} durante a carga tira do mapa a carga em
+ * andamento, e o valor lido antes da gravação não fica no cache. Com
+ * {@code tamanhoMaximo} 0 toda busca vai direto ao carregador.
+ */
+public class CacheLeitura<K, V> {
+
+  private final AsyncCache<K, Optional<V>> cache;
+
+  public CacheLeitura(long tamanhoMaximo, Duration ttl, Duration ttlAusente) {
+    this(tamanhoMaximo, ttl, ttlAusente, Ticker.systemTicker());
+  }
+
+  CacheLeitura(long tamanhoMaximo, Duration ttl, Duration ttlAusente, Ticker ticker) {
+    if (tamanhoMaximo <= 0) {
+      this.cache = null;
+      return;
+    }
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(tamanhoMaximo)
+        .ticker(ticker)
+        .expireAfter(new Expiry<K, Optional<V>>() {
+          @Override
+          public long expireAfterCreate(K chave, Optional<V> valor, long currentTime) {
+            return (valor.isPresent() ? ttl : ttlAusente).toNanos();
+          }
+
+          @Override
+          public long expireAfterUpdate(K chave, Optional<V> valor, long currentTime, long currentDuration) {
+            return expireAfterCreate(chave, valor, currentTime);
+          }
+
+          @Override
+          public long expireAfterRead(K chave, Optional<V> valor, long currentTime, long currentDuration) {
+            return currentDuration;
+          }
+        })
+        .recordStats()
+        .buildAsync();
+  }
+
+  public Optional<V> buscar(K chave, Function<K, Optional<V>> carregador) {
+    if (cache == null) {
+      return carregador.apply(chave);
+    }
+    // A função só instala o futuro; a consulta roda fora do compute do mapa
+    CompletableFuture<Optional<V>> carga = new CompletableFuture<>();
+    CompletableFuture<Optional<V>> valor = cache.get(chave, (k, executor) -> carga);
+    if (valor == carga) {
+      return carregar(chave, carregador, carga);
+    }
+    try {
+      return valor.join();
+    } catch (CompletionException e) {
+      // A carga de outra thread falhou e já saiu do cache; esta tenta de novo
+      return buscar(chave, carregador);
+    }
+  }
+
+  private Optional<V> carregar(K chave, Function<K, Optional<V>> carregador, CompletableFuture<Optional<V>> carga) {
+    Optional<V> valor;
+    try {
+      valor = carregador.apply(chave);
+    } catch (RuntimeException | Error e) {
+      carga.completeExceptionally(e);
+      throw e;
+    }
+    carga.complete(valor);
+    return valor;
+  }
+
+  /**
+   * O valor em cache, sem carregar; vazio quando não está em cache, está como
+   * ausente ou ainda carregando. Lê pelo mapa, que não conta acerto nem falha
+   * nas estatísticas.
+   */
+  public Optional<V> emCache(K chave) {
+    if (cache == null) {
+      return Optional.empty();
+    }
+    CompletableFuture<Optional<V>> valor = cache.asMap().get(chave);
+    return valor != null && valor.isDone() && !valor.isCompletedExceptionally() ? valor.join() : Optional.empty();
+  }
+
+  public void invalidar(K chave) {
+    if (cache != null && chave != null) {
+      cache.synchronous().invalidate(chave);
+    }
+  }
+
+  public void invalidarTudo() {
+    if (cache != null) {
+      cache.synchronous().invalidateAll();
+    }
+  }
+
+  public CacheStats estatisticas() {
+    return cache != null ? cache.synchronous().stats() : CacheStats.empty();
+  }
+
+  /** Publica acertos, falhas, remoções e tamanho com a tag {@code cache=nome}. */
+  public void monitorar(MeterRegistry registry, String nome) {
+    if (cache != null) {
+      CaffeineCacheMetrics.monitor(registry, cache, nome);
+    }
+  }
+}
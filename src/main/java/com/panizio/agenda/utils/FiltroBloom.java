@@ -0,0 +1,94 @@
+package com.panizio.agenda.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom com contadores de 4 bits, o que permite remover chaves.
+ *
+ * {@link #podeConter} nunca dá falso negativo para uma chave adicionada e não
+ * removida; um resultado positivo só indica que a chave talvez exista. Um
+ * contador que chega a 15 fica saturado e não é mais decrementado, trocando
+ * falsos negativos por alguns falsos positivos a mais. Seguro para uso
+ * concorrente sem bloqueio.
+ */
+public class FiltroBloom {
+
+  private static final int MAXIMO_CONTADOR = 15;
+
+  private final AtomicLongArray contadores;
+  private final long totalContadores;
+  private final int funcoesHash;
+
+  public FiltroBloom(long capacidade, double taxaFalsoPositivo) {
+    long n = Math.max(1, capacidade);
+    double ln2 = Math.log(2);
+    long m = Math.max(64, (long) Math.ceil(-n * Math.log(taxaFalsoPositivo) / (ln2 * ln2)));
+    this.totalContadores = m;
+    this.funcoesHash = Math.max(1, (int) Math.round((double) m / n * ln2));
+    this.contadores = new AtomicLongArray(Math.toIntExact((m + 15) >>> 4));
+  }
+
+  public void adicionar(String chave) {
+    long hash = hash(chave);
+    for (int i = 0; i < funcoesHash; i++) {
+      alterar(posicao(hash, i), 1);
+    }
+  }
+
+  public void remover(String chave) {
+    long hash = hash(chave);
+    for (int i = 0; i < funcoesHash; i++) {
+      alterar(posicao(hash, i), -1);
+    }
+  }
+
+  public boolean podeConter(String chave) {
+    long hash = hash(chave);
+    for (int i = 0; i < funcoesHash; i++) {
+      long posicao = posicao(hash, i);
+      if (contador(contadores.get((int) (posicao >>> 4)), posicao) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void alterar(long posicao, int delta) {
+    int palavra = (int) (posicao >>> 4);
+    int deslocamento = (int) (posicao & 15) << 2;
+    while (true) {
+      long atual = contadores.get(palavra);
+      int contador = contador(atual, posicao);
+      if (contador == MAXIMO_CONTADOR || (delta < 0 && contador == 0)) {
+        return;
+      }
+      long novo = atual + ((long) delta << deslocamento);
+      if (contadores.compareAndSet(palavra, atual, novo)) {
+        return;
+      }
+    }
+  }
+
+  private static int contador(long palavra, long posicao) {
+    return (int) (palavra >>> ((posicao & 15) << 2)) & 0xF;
+  }
+
+  /** Double hashing: a i-ésima posição é {@code h1 + i * h2}. */
+  private long posicao(long hash, int i) {
+    long h1 = hash & 0xffffffffL;
+    long h2 = (hash >>> 32) | 1;
+    return Math.floorMod(h1 + i * h2, totalContadores);
+  }
+
+  /** FNV-1a de 64 bits sobre os caracteres, com a mistura final do SplitMix64. */
+  private static long hash(String chave) {
+    long h = 0xcbf29ce484222325L;
+    for (int i = 0; i < chave.length(); i++) {
+      h ^= chave.charAt(i);
+      h *= 0x100000001b3L;
+    }
+    h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+    h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+    return h ^ (h >>> 31);
+  }
+}
@@ -0,0 +1,379 @@
+package com.panizio.agenda.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.panizio.agenda.model.PontoMapa;
+
+/**
+ * Índice espacial em memória baseado numa grade regular de latitude/longitude.
+ *
+ * As posições ficam em arrays primitivos indexados por slot; cada célula da
+ * grade guarda apenas os slots dos pontos que caem nela. Vizinhos mais próximos
+ * são encontrados visitando anéis de células ao redor do ponto até que nenhuma
+ * célula ainda não visitada possa conter algo mais perto que o k-ésimo
+ * resultado.
+ */
+public class IndiceEspacial {
+
+  private static final double RAIO_TERRA_METROS = 6_371_008.8;
+  private static final double METROS_POR_GRAU = Math.toRadians(1) * RAIO_TERRA_METROS;
+
+  private final double tamanhoCelula;
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<String, Integer> posicoes = new HashMap<>();
+  private final Map<Long, Celula> celulas = new HashMap<>();
+
+  private double[] latitudes = new double[1024];
+  private double[] longitudes = new double[1024];
+  private long[] chavesCelula = new long[1024];
+  private String[] ids = new String[1024];
+  private int[] livres = new int[64];
+  private int totalLivres;
+  private int proximoSlot;
+  /** Ids removidos desde {@link #iniciarCarga}; a carga não os traz de volta. */
+  private Set<String> removidosNaCarga;
+
+  public IndiceEspacial(double tamanhoCelulaGraus) {
+    this.tamanhoCelula = tamanhoCelulaGraus;
+  }
+
+  public void colocar(String id, double latitude, double longitude) {
+    lock.writeLock().lock();
+    try {
+      if (removidosNaCarga != null) {
+        removidosNaCarga.remove(id);
+      }
+      Integer existente = posicoes.get(id);
+      int slot;
+      if (existente != null) {
+        slot = existente;
+        tirarDaCelula(slot);
+      } else {
+        slot = alocarSlot();
+        posicoes.put(id, slot);
+        ids[slot] = id;
+      }
+      gravar(slot, latitude, longitude);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * A partir daqui e até {@link #concluirCarga}, as remoções são lembradas para
+   * que {@link #colocarSeAusente} não recoloque um ponto que a carga leu antes
+   * de ele ser excluído ou perder as coordenadas.
+   */
+  public void iniciarCarga() {
+    lock.writeLock().lock();
+    try {
+      removidosNaCarga = new HashSet<>();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void concluirCarga() {
+    lock.writeLock().lock();
+    try {
+      removidosNaCarga = null;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Usado na carga inicial: não sobrescreve um ponto que já tenha sido
+   * atualizado, nem recoloca um que tenha sido removido, enquanto a carga
+   * estava em andamento.
+   */
+  public void colocarSeAusente(String id, double latitude, double longitude) {
+    lock.writeLock().lock();
+    try {
+      if (!posicoes.containsKey(id) && (removidosNaCarga == null || !removidosNaCarga.contains(id))) {
+        int slot = alocarSlot();
+        posicoes.put(id, slot);
+        ids[slot] = id;
+        gravar(slot, latitude, longitude);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void remover(String id) {
+    lock.writeLock().lock();
+    try {
+      if (removidosNaCarga != null) {
+        removidosNaCarga.add(id);
+      }
+      Integer slot = posicoes.remove(id);
+      if (slot != null) {
+        tirarDaCelula(slot);
+        ids[slot] = null;
+        if (totalLivres == livres.length) {
+          livres = Arrays.copyOf(livres, totalLivres * 2);
+        }
+        livres[totalLivres++] = slot;
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public int tamanho() {
+    lock.readLock().lock();
+    try {
+      return posicoes.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public List<PontoMapa> maisProximos(double latitude, double longitude, int k) {
+    lock.readLock().lock();
+    try {
+      int total = posicoes.size();
+      if (k <= 0 || total == 0) {
+        return List.of();
+      }
+
+      // Max-heap com os k melhores: a raiz é o pior dos selecionados.
+      double[] distancias = new double[k];
+      int[] slots = new int[k];
+      int selecionados = 0;
+      int visitados = 0;
+
+      int linhaCentral = celula(latitude);
+      int colunaCentral = celula(longitude);
+      int maxAneis = (int) Math.ceil(360 / tamanhoCelula);
+
+      for (int anel = 0; anel <= maxAneis && visitados < total; anel++) {
+        if (selecionados == k && limiteInferiorMetros(anel, latitude, longitude, linhaCentral, colunaCentral) > distancias[0]) {
+          break;
+        }
+        for (int dLinha = -anel; dLinha <= anel; dLinha++) {
+          boolean borda = Math.abs(dLinha) == anel;
+          int passo = borda ? 1 : Math.max(1, 2 * anel);
+          for (int dColuna = -anel; dColuna <= anel; dColuna += passo) {
+            Celula celula = celulas.get(chave(linhaCentral + dLinha, colunaCentral + dColuna));
+            if (celula == null) {
+              continue;
+            }
+            for (int i = 0; i < celula.tamanho; i++) {
+              int slot = celula.slots[i];
+              double distancia = distanciaMetros(latitude, longitude, latitudes[slot], longitudes[slot]);
+              visitados++;
+              if (selecionados < k) {
+                distancias[selecionados] = distancia;
+                slots[selecionados] = slot;
+                subir(distancias, slots, selecionados++);
+              } else if (distancia < distancias[0]) {
+                distancias[0] = distancia;
+                slots[0] = slot;
+                descer(distancias, slots, selecionados);
+              }
+            }
+          }
+        }
+      }
+
+      PontoMapa[] resultado = new PontoMapa[selecionados];
+      for (int n = selecionados - 1; n >= 0; n--) {
+        int slot = slots[0];
+        resultado[n] = new PontoMapa(ids[slot], latitudes[slot], longitudes[slot], distancias[0]);
+        distancias[0] = distancias[n];
+        slots[0] = slots[n];
+        descer(distancias, slots, n);
+      }
+      return Arrays.asList(resultado);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public List<PontoMapa> naCaixa(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude,
+      int limite) {
+    lock.readLock().lock();
+    try {
+      List<PontoMapa> resultado = new ArrayList<>();
+      int linhaInicial = celula(minLatitude);
+      int linhaFinal = celula(maxLatitude);
+      int colunaInicial = celula(minLongitude);
+      int colunaFinal = celula(maxLongitude);
+      long celulasNaCaixa = (long) (linhaFinal - linhaInicial + 1) * (colunaFinal - colunaInicial + 1);
+
+      if (celulasNaCaixa > celulas.size()) {
+        // Caixa maior que a área ocupada: mais barato percorrer só as células existentes.
+        for (Celula celula : celulas.values()) {
+          if (!coletar(celula, minLatitude, minLongitude, maxLatitude, maxLongitude, limite, resultado)) {
+            break;
+          }
+        }
+        return resultado;
+      }
+
+      for (int linha = linhaInicial; linha <= linhaFinal; linha++) {
+        for (int coluna = colunaInicial; coluna <= colunaFinal; coluna++) {
+          Celula celula = celulas.get(chave(linha, coluna));
+          if (celula != null
+              && !coletar(celula, minLatitude, minLongitude, maxLatitude, maxLongitude, limite, resultado)) {
+            return resultado;
+          }
+        }
+      }
+      return resultado;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public static double distanciaMetros(double lat1, double lon1, double lat2, double lon2) {
+    double dLat = Math.toRadians(lat2 - lat1);
+    double dLon = Math.toRadians(lon2 - lon1);
+    double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+        + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+    return 2 * RAIO_TERRA_METROS * Math.asin(Math.min(1, Math.sqrt(a)));
+  }
+
+  private boolean coletar(Celula celula, double minLatitude, double minLongitude, double maxLatitude,
+      double maxLongitude, int limite, List<PontoMapa> resultado) {
+    for (int i = 0; i < celula.tamanho; i++) {
+      int slot = celula.slots[i];
+      double latitude = latitudes[slot];
+      double longitude = longitudes[slot];
+      if (latitude >= minLatitude && latitude <= maxLatitude
+          && longitude >= minLongitude && longitude <= maxLongitude) {
+        if (resultado.size() >= limite) {
+          return false;
+        }
+        resultado.add(new PontoMapa(ids[slot], latitude, longitude, null));
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Menor distância possível entre o ponto consultado e qualquer célula do
+   * anel: a distância até a borda interna do anel na direção mais próxima, com
+   * a longitude medida na latitude mais afastada do equador que o anel alcança.
+   */
+  private double limiteInferiorMetros(int anel, double latitude, double longitude, int linha, int coluna) {
+    if (anel == 0) {
+      return 0;
+    }
+    double grausLatitude = Math.min(latitude - (linha - anel + 1) * tamanhoCelula,
+        (linha + anel) * tamanhoCelula - latitude);
+    double grausLongitude = Math.min(longitude - (coluna - anel + 1) * tamanhoCelula,
+        (coluna + anel) * tamanhoCelula - longitude);
+    double latitudeExtrema = Math.min(89.9, Math.abs(latitude) + anel * tamanhoCelula);
+    return Math.min(grausLatitude * METROS_POR_GRAU,
+        grausLongitude * METROS_POR_GRAU * Math.cos(Math.toRadians(latitudeExtrema)));
+  }
+
+  private void gravar(int slot, double latitude, double longitude) {
+    long chave = chave(celula(latitude), celula(longitude));
+    latitudes[slot] = latitude;
+    longitudes[slot] = longitude;
+    chavesCelula[slot] = chave;
+    celulas.computeIfAbsent(chave, c -> new Celula()).adicionar(slot);
+  }
+
+  private void tirarDaCelula(int slot) {
+    Celula celula = celulas.get(chavesCelula[slot]);
+    celula.remover(slot);
+    if (celula.tamanho == 0) {
+      celulas.remove(chavesCelula[slot]);
+    }
+  }
+
+  private int alocarSlot() {
+    if (totalLivres > 0) {
+      return livres[--totalLivres];
+    }
+    if (proximoSlot == ids.length) {
+      int capacidade = ids.length * 2;
+      latitudes = Arrays.copyOf(latitudes, capacidade);
+      longitudes = Arrays.copyOf(longitudes, capacidade);
+      chavesCelula = Arrays.copyOf(chavesCelula, capacidade);
+      ids = Arrays.copyOf(ids, capacidade);
+    }
+    return proximoSlot++;
+  }
+
+  private int celula(double grau) {
+    return (int) Math.floor(grau / tamanhoCelula);
+  }
+
+  private static long chave(int linha, int coluna) {
+    return ((long) linha << 32) | (coluna & 0xffffffffL);
+  }
+
+  private static void subir(double[] distancias, int[] slots, int i) {
+    while (i > 0) {
+      int pai = (i - 1) >>> 1;
+      if (distancias[pai] >= distancias[i]) {
+        return;
+      }
+      trocar(distancias, slots, pai, i);
+      i = pai;
+    }
+  }
+
+  private static void descer(double[] distancias, int[] slots, int tamanho) {
+    int i = 0;
+    while (true) {
+      int maior = i;
+      int esquerda = 2 * i + 1;
+      int direita = esquerda + 1;
+      if (esquerda < tamanho && distancias[esquerda] > distancias[maior]) {
+        maior = esquerda;
+      }
+      if (direita < tamanho && distancias[direita] > distancias[maior]) {
+        maior = direita;
+      }
+      if (maior == i) {
+        return;
+      }
+      trocar(distancias, slots, i, maior);
+      i = maior;
+    }
+  }
+
+  private static void trocar(double[] distancias, int[] slots, int a, int b) {
+    double distancia = distancias[a];
+    distancias[a] = distancias[b];
+    distancias[b] = distancia;
+    int slot = slots[a];
+    slots[a] = slots[b];
+    slots[b] = slot;
+  }
+
+  private static final class Celula {
+    private int[] slots = new int[4];
+    private int tamanho;
+
+    void adicionar(int slot) {
+      if (tamanho == slots.length) {
+        slots = Arrays.copyOf(slots, tamanho * 2);
+      }
+      slots[tamanho++] = slot;
+    }
+
+    void remover(int slot) {
+      for (int i = 0; i < tamanho; i++) {
+        if (slots[i] == slot) {
+          slots[i] = slots[--tamanho];
+          return;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package com.panizio.agenda.utils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Leitura e escrita de linhas de CSV. Aceita campos entre aspas duplas, com
+ * {@code ""} representando uma aspa dentro do campo; na leitura, quebras de
+ * linha dentro de um campo não são suportadas.
+ */
+public class LinhaCsv {
+
+    private LinhaCsv() {
+    }
+
+    /** Vírgula ou ponto e vírgula, o que aparecer primeiro fora de aspas no cabeçalho. */
+    public static char detectarSeparador(String cabecalho) {
+        boolean entreAspas = false;
+        for (int i = 0; i < cabecalho.length(); i++) {
+            char c = cabecalho.charAt(i);
+            if (c == '"') {
+                entreAspas = !entreAspas;
+            } else if (!entreAspas && (c == ',' || c == ';')) {
+                return c;
+            }
+        }
+        return ',';
+    }
+
+    public static List<String> dividir(String linha, char separador) {
+        List<String> colunas = new ArrayList<>();
+        StringBuilder atual = new StringBuilder();
+        boolean entreAspas = false;
+        for (int i = 0; i < linha.length(); i++) {
+            char c = linha.charAt(i);
+            if (entreAspas) {
+                if (c == '"' && i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+                    atual.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreAspas = false;
+                } else {
+                    atual.append(c);
+                }
+            } else if (c == '"') {
+                entreAspas = true;
+            } else if (c == separador) {
+                colunas.add(atual.toString().trim());
+                atual.setLength(0);
+            } else {
+                atual.append(c);
+            }
+        }
+        if (entreAspas) {
+            throw new IllegalArgumentException("Aspas não fechadas");
+        }
+        colunas.add(atual.toString().trim());
+        return colunas;
+    }
+
+    /**
+     * Escreve os valores separados, sem a quebra de linha. Nulos viram coluna
+     * vazia; valores com separador, aspas ou quebra de linha vão entre aspas.
+     */
+    public static void escrever(Appendable saida, char separador, String... valores) throws IOException {
+        for (int i = 0; i < valores.length; i++) {
+            if (i > 0) {
+                saida.append(separador);
+            }
+            String valor = valores[i];
+            if (valor == null) {
+                continue;
+            }
+            if (precisaDeAspas(valor, separador)) {
+                saida.append('"').append(valor.replace("\"", "\"\"")).append('"');
+            } else {
+                saida.append(valor);
+            }
+        }
+    }
+
+    private static boolean precisaDeAspas(String valor, char separador) {
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == separador || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -6,9 +6,17 @@ import com.fasterxml.jackson.databind.SerializerProvider;
 import org.locationtech.jts.geom.Point;
 import java.io.IOException;
 
+/**
+ * Coordenadas como {@code {latitude, longitude}} em JSON. Nos formatos binários
+ * (CBOR, Smile) saem como o par {@code [latitude, longitude]}, sem os nomes.
+ */
 public class PointSerializer extends JsonSerializer<Point> {
     @Override
     public void serialize(Point point, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        if (gen.canWriteBinaryNatively()) {
+            gen.writeArray(new double[] { point.getY(), point.getX() }, 0, 2);
+            return;
+        }
         gen.writeStartObject();
         gen.writeNumberField("latitude", point.getY());
         gen.writeNumberField("longitude", point.getX());
@@ -0,0 +1,54 @@
+package com.panizio.agenda.utils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa chamadas concorrentes para a mesma chave: apenas a primeira executa o
+ * carregador, as demais aguardam e recebem o mesmo resultado (ou a mesma
+ * exceção). Depois que a chamada termina a chave é liberada, então nada fica
+ * guardado aqui; o cache é responsabilidade de quem chama.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> emAndamento = new ConcurrentHashMap<>();
+
+    public V executar(K chave, Supplier<V> carregador) {
+        CompletableFuture<V> chamada = new CompletableFuture<>();
+        CompletableFuture<V> existente = emAndamento.putIfAbsent(chave, chamada);
+        if (existente != null) {
+            return aguardar(existente);
+        }
+
+        try {
+            V valor = carregador.get();
+            chamada.complete(valor);
+            return valor;
+        } catch (RuntimeException | Error e) {
+            chamada.completeExceptionally(e);
+            throw e;
+        } finally {
+            emAndamento.remove(chave, chamada);
+        }
+    }
+
+    public int chamadasEmAndamento() {
+        return emAndamento.size();
+    }
+
+    private V aguardar(CompletableFuture<V> chamada) {
+        try {
+            return chamada.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            if (e.getCause() instanceof Error causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+}
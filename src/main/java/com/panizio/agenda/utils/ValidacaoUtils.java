@@ -1,27 +1,11 @@
 package com.panizio.agenda.utils;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
-import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
 
-import org.locationtech.jts.geom.Coordinate;
-import org.locationtech.jts.geom.GeometryFactory;
-
-import com.panizio.agenda.exception.ValidacaoException;
-
-import org.locationtech.jts.geom.Point;
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
-
 public class ValidacaoUtils {
 
     private static final Set<String> DDDS_VALIDOS = Set.of(
@@ -38,56 +22,103 @@ public class ValidacaoUtils {
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     private static final Pattern ENDERECO_PATTERN = Pattern.compile(".+,\\s*\\d+\\s*-\\s*.+");
 
-    public static boolean validarCPF(String cpf) {
-        String cleaned = limparNumeros(cpf);
-        return isValid(cleaned, 11, ValidacaoUtils::validarDigitosCPF);
-    }
+    private static final boolean[] DDD_VALIDO = tabelaDDD();
+
+    // Pesos do CNPJ: o primeiro dígito verificador usa a partir da posição 1, o segundo a partir da 0.
+    private static final int[] PESOS_CNPJ = { 6, 5, 4, 3, 2, 9, 8, 7, 6, 5, 4, 3, 2 };
+
+    /*
+     * Os validadores de documentos percorrem a entrada uma única vez, ignorando
+     * qualquer caractere que não seja dígito, e calculam os dígitos
+     * verificadores durante a leitura, sem criar Strings intermediárias.
+     */
 
-    public static boolean validarCNPJ(String cnpj) {
-        String cleaned = limparNumeros(cnpj);
-        return isValid(cleaned, 14, ValidacaoUtils::validarDigitosCNPJ);
+    public static boolean validarCPF(CharSequence cpf) {
+        if (cpf == null) {
+            return false;
+        }
+        int digitos = 0;
+        int primeiro = -1;
+        boolean repetido = true;
+        int soma1 = 0;
+        int soma2 = 0;
+        int verificador1 = 0;
+        int verificador2 = 0;
+
+        for (int i = 0; i < cpf.length(); i++) {
+            int d = cpf.charAt(i) - '0';
+            if (d < 0 || d > 9) {
+                continue;
+            }
+            if (digitos == 0) {
+                primeiro = d;
+            } else if (d != primeiro) {
+                repetido = false;
+            }
+
+            if (digitos < 9) {
+                soma1 += d * (10 - digitos);
+                soma2 += d * (11 - digitos);
+            } else if (digitos == 9) {
+                verificador1 = d;
+                soma2 += d * 2;
+            } else if (digitos == 10) {
+                verificador2 = d;
+            } else {
+                return false;
+            }
+            digitos++;
+        }
+
+        return digitos == 11 && !repetido
+                && verificador1 == digitoVerificador(soma1)
+                && verificador2 == digitoVerificador(soma2);
     }
 
-    public static Point buscarCoordenadasPorCEP(String cep) throws ValidacaoException {
-        String cleaned = limparNumeros(cep);
-        if (cleaned.length() != 8) {
-            throw new ValidacaoException(Map.of("cep", "CEP inválido"));
+    public static boolean validarCNPJ(CharSequence cnpj) {
+        if (cnpj == null) {
+            return false;
         }
+        int digitos = 0;
+        int primeiro = -1;
+        boolean repetido = true;
+        int soma1 = 0;
+        int soma2 = 0;
+        int verificador1 = 0;
+        int verificador2 = 0;
+
+        for (int i = 0; i < cnpj.length(); i++) {
+            int d = cnpj.charAt(i) - '0';
+            if (d < 0 || d > 9) {
+                continue;
+            }
+            if (digitos == 0) {
+                primeiro = d;
+            } else if (d != primeiro) {
+                repetido = false;
+            }
 
-        try {
-            URL url = new URL("https://nominatim.openstreetmap.org/search?postalcode=" + cleaned + "&format=json");
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("GET");
-            connection.setRequestProperty("User-Agent", "SuaAplicacao/1.0");
-
-            if (connection.getResponseCode() == HttpURLConnection.HTTP_OK) {
-                BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-                StringBuilder response = new StringBuilder();
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    response.append(line);
-                }
-                reader.close();
-
-                JSONArray jsonArray = new JSONArray(response.toString());
-                if (jsonArray.length() > 0) {
-                    JSONObject firstResult = jsonArray.getJSONObject(0);
-                    double lat = firstResult.getDouble("lat");
-                    double lon = firstResult.getDouble("lon");
-
-                    GeometryFactory geometryFactory = new GeometryFactory();
-                    return geometryFactory.createPoint(new Coordinate(lon, lat)); // Atenção à ordem: LONGITUDE
-
-                }
+            if (digitos < 12) {
+                soma1 += d * PESOS_CNPJ[digitos + 1];
+                soma2 += d * PESOS_CNPJ[digitos];
+            } else if (digitos == 12) {
+                verificador1 = d;
+                soma2 += d * PESOS_CNPJ[12];
+            } else if (digitos == 13) {
+                verificador2 = d;
+            } else {
+                return false;
             }
-        } catch (IOException | JSONException e) {
-            throw new ValidacaoException(Map.of("cep", "Falha ao buscar coordenadas"));
+            digitos++;
         }
-        throw new ValidacaoException(Map.of("cep", "CEP não encontrado"));
+
+        return digitos == 14 && !repetido
+                && verificador1 == digitoVerificador(soma1)
+                && verificador2 == digitoVerificador(soma2);
     }
 
-    public static boolean validarCEP(String cep) {
-        return limparNumeros(cep).length() == 8;
+    public static boolean validarCEP(CharSequence cep) {
+        return contarDigitos(cep) == 8;
     }
 
     public static boolean validarEmail(String email) {
@@ -109,10 +140,25 @@ public class ValidacaoUtils {
         }
     }
 
-    public static boolean validarTelefone(String telefone) {
-        String cleaned = limparNumeros(telefone);
-        return isValidLength(cleaned, 11) &&
-                DDDS_VALIDOS.contains(cleaned.substring(0, 2));
+    public static boolean validarTelefone(CharSequence telefone) {
+        if (telefone == null) {
+            return false;
+        }
+        int digitos = 0;
+        int ddd = 0;
+        for (int i = 0; i < telefone.length(); i++) {
+            int d = telefone.charAt(i) - '0';
+            if (d < 0 || d > 9) {
+                continue;
+            }
+            if (digitos < 2) {
+                ddd = ddd * 10 + d;
+            }
+            if (++digitos > 11) {
+                return false;
+            }
+        }
+        return digitos == 11 && DDD_VALIDO[ddd];
     }
 
     public static boolean validarEndereco(String endereco) {
@@ -127,55 +173,61 @@ public class ValidacaoUtils {
                 nome.chars().allMatch(c -> Character.isLetter(c) || Character.isWhitespace(c));
     }
 
-    private static boolean validarDigitosCPF(String cpf) {
-        int digito1 = calcularDigito(cpf, 10, 9);
-        int digito2 = calcularDigito(cpf, 11, 10);
-        return cpf.charAt(9) - '0' == digito1 && cpf.charAt(10) - '0' == digito2;
-    }
-
-    private static boolean validarDigitosCNPJ(String cnpj) {
-        int digito1 = calcularDigitoCNPJ(cnpj, 5);
-        int digito2 = calcularDigitoCNPJ(cnpj, 6);
-        return cnpj.charAt(12) - '0' == digito1 && cnpj.charAt(13) - '0' == digito2;
-    }
-
-    private static int calcularDigito(String numero, int pesoInicial, int length) {
-        int soma = 0;
-        for (int i = 0; i < length; i++) {
-            soma += (numero.charAt(i) - '0') * (pesoInicial - i);
+    /**
+     * Remove tudo que não for dígito. Quando a entrada já contém só dígitos
+     * devolve a própria instância, sem alocar.
+     */
+    public static String limparNumeros(String input) {
+        if (input == null) {
+            return "";
+        }
+        int tamanho = input.length();
+        int i = 0;
+        while (i < tamanho && ehDigito(input.charAt(i))) {
+            i++;
+        }
+        if (i == tamanho) {
+            return input;
         }
-        int resto = soma % 11;
-        return resto < 2 ? 0 : 11 - resto;
-    }
 
-    private static int calcularDigitoCNPJ(String cnpj, int pesoInicial) {
-        int soma = 0;
-        int peso = pesoInicial;
-        for (int i = 0; i < 12; i++) {
-            soma += (cnpj.charAt(i) - '0') * peso;
-            peso = (peso == 2) ? 9 : peso - 1;
+        StringBuilder digitos = new StringBuilder(tamanho - 1);
+        digitos.append(input, 0, i);
+        for (i++; i < tamanho; i++) {
+            char c = input.charAt(i);
+            if (ehDigito(c)) {
+                digitos.append(c);
+            }
         }
-        int resto = soma % 11;
-        return resto < 2 ? 0 : 11 - resto;
+        return digitos.toString();
     }
 
-    private static String limparNumeros(String input) {
-        return input == null ? "" : input.replaceAll("\\D", "");
+    private static int contarDigitos(CharSequence input) {
+        if (input == null) {
+            return 0;
+        }
+        int digitos = 0;
+        for (int i = 0; i < input.length(); i++) {
+            if (ehDigito(input.charAt(i))) {
+                digitos++;
+            }
+        }
+        return digitos;
     }
 
-    private static boolean isValid(String input, int expectedLength, ValidacaoDigitos validator) {
-        if (input.length() != expectedLength || input.matches("(\\d)\\1{" + (expectedLength - 1) + "}")) {
-            return false;
-        }
-        return validator.validar(input);
+    private static boolean ehDigito(char c) {
+        return c >= '0' && c <= '9';
     }
 
-    private static boolean isValidLength(String input, int length) {
-        return input != null && input.length() == length;
+    private static int digitoVerificador(int soma) {
+        int resto = soma % 11;
+        return resto < 2 ? 0 : 11 - resto;
     }
 
-    @FunctionalInterface
-    private interface ValidacaoDigitos {
-        boolean validar(String numero);
+    private static boolean[] tabelaDDD() {
+        boolean[] tabela = new boolean[100];
+        for (String ddd : DDDS_VALIDOS) {
+            tabela[Integer.parseInt(ddd)] = true;
+        }
+        return tabela;
     }
 }
\ No newline at end of file
@@ -0,0 +1,58 @@
+-- Executado a cada inicialização, depois do ddl-auto do Hibernate; tudo aqui precisa poder rodar de novo.
+
+-- Fila da geocodificação assíncrona: só os registros pendentes entram no índice.
+CREATE INDEX IF NOT EXISTS pessoa_fisica_geocodificacao_pendente_idx
+    ON pessoa_fisica (cep) WHERE geocodificacao_pendente;
+CREATE INDEX IF NOT EXISTS pessoa_juridica_geocodificacao_pendente_idx
+    ON pessoa_juridica (cep) WHERE geocodificacao_pendente;
+
+-- Busca por proximidade (ST_DWithin e ordenação <-> sobre geography).
+CREATE INDEX IF NOT EXISTS pessoa_fisica_coordenadas_idx
+    ON pessoa_fisica USING GIST ((coordenadas::geography));
+CREATE INDEX IF NOT EXISTS pessoa_juridica_coordenadas_idx
+    ON pessoa_juridica USING GIST ((coordenadas::geography));
+
+-- Contatos num retângulo do mapa (&& sobre geometry).
+CREATE INDEX IF NOT EXISTS pessoa_fisica_coordenadas_geometry_idx
+    ON pessoa_fisica USING GIST (coordenadas);
+CREATE INDEX IF NOT EXISTS pessoa_juridica_coordenadas_geometry_idx
+    ON pessoa_juridica USING GIST (coordenadas);
+
+-- Caixa de saída de e-mails: o worker só percorre os pendentes, em ordem de próxima tentativa.
+CREATE INDEX IF NOT EXISTS email_saida_pendente_idx
+    ON email_saida (proxima_tentativa) WHERE status = 'PENDENTE';
+-- Limpeza dos enviados e descartados depois da retenção.
+CREATE INDEX IF NOT EXISTS email_saida_encerrado_idx
+    ON email_saida (criado_em) WHERE status <> 'PENDENTE';
+
+-- Busca por nome (trigramas) sem distinção de acento ou caixa. unaccent() não é IMMUTABLE, porque depende do
+-- dicionário configurado, e não pode entrar em índice; o invólucro fixa o dicionário e pode.
+-- Extensões e função exigem privilégios que o usuário da aplicação pode não ter, e várias instâncias subindo juntas
+-- disputam o catálogo: o bloco só cria o que falta, trata a corrida com outra instância e, sem privilégio, avisa e
+-- deixa a aplicação subir (a busca por nome falha até um DBA rodar este bloco uma vez).
+DO '
+BEGIN
+  IF NOT EXISTS (SELECT FROM pg_extension WHERE extname = ''pg_trgm'') THEN
+    CREATE EXTENSION pg_trgm;
+  END IF;
+  IF NOT EXISTS (SELECT FROM pg_extension WHERE extname = ''unaccent'') THEN
+    CREATE EXTENSION unaccent;
+  END IF;
+  IF to_regprocedure(''agenda_normalizar(text)'') IS NULL THEN
+    CREATE FUNCTION agenda_normalizar(texto text) RETURNS text
+        LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT
+        AS $f$SELECT lower(public.unaccent(''public.unaccent''::regdictionary, texto))$f$;
+  END IF;
+  CREATE INDEX IF NOT EXISTS pessoa_fisica_nome_trgm_idx
+      ON pessoa_fisica USING GIN (agenda_normalizar(nome) gin_trgm_ops);
+  CREATE INDEX IF NOT EXISTS pessoa_juridica_razao_social_trgm_idx
+      ON pessoa_juridica USING GIN (agenda_normalizar(razao_social) gin_trgm_ops);
+  CREATE INDEX IF NOT EXISTS pessoa_juridica_nome_fantasia_trgm_idx
+      ON pessoa_juridica USING GIN (agenda_normalizar(nome_fantasia) gin_trgm_ops);
+EXCEPTION
+  WHEN insufficient_privilege THEN
+    RAISE WARNING ''Busca por nome indisponível (%): rode o bloco de schema.sql com um usuário privilegiado'', SQLERRM;
+  WHEN unique_violation OR duplicate_object OR duplicate_function OR duplicate_table THEN
+    NULL;
+END
+';
@@ -0,0 +1,54 @@
+package com.panizio.agenda.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.locationtech.jts.geom.Point;
+
+class CepIndexTests {
+
+  @TempDir
+  Path pasta;
+
+  @Test
+  void compilaCsvEBuscaPorCep() throws IOException {
+    Path csv = pasta.resolve("ceps.csv");
+    Files.writeString(csv, String.join("\n",
+        "cep,latitude,longitude",
+        "20040-002,-22.9035,-43.1766",
+        "01310100;-23.5613;-46.6565",
+        "01310-100,0,0",
+        "invalido,1,1",
+        "70040-010,-15.7939,-47.8828"));
+    Path indice = pasta.resolve("ceps.idx");
+
+    assertThat(CepIndexCompiler.compilar(csv, indice)).isEqualTo(3);
+
+    CepIndex cepIndex = CepIndex.abrir(indice);
+    assertThat(cepIndex.tamanho()).isEqualTo(3);
+
+    Point paulista = cepIndex.buscar("01310100").orElseThrow();
+    assertThat(paulista.getY()).isCloseTo(-23.5613, within(1e-4));
+    assertThat(paulista.getX()).isCloseTo(-46.6565, within(1e-4));
+
+    assertThat(cepIndex.buscar("70040-010")).isPresent();
+    assertThat(cepIndex.buscar("20040002")).isPresent();
+    assertThat(cepIndex.buscar("99999999")).isEmpty();
+    assertThat(cepIndex.buscar("0131010")).isEmpty();
+  }
+
+  @Test
+  void recusaArquivoQueNaoEhIndice() throws IOException {
+    Path arquivo = Files.writeString(pasta.resolve("qualquer.idx"), "nao sou um indice de ceps");
+
+    assertThatThrownBy(() -> CepIndex.abrir(arquivo))
+        .isInstanceOf(IOException.class);
+  }
+}
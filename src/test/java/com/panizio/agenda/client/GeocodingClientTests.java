@@ -0,0 +1,128 @@
+package com.panizio.agenda.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Point;
+
+import com.panizio.agenda.exception.GeocodificacaoIndisponivelException;
+import com.panizio.agenda.exception.ValidacaoException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+class GeocodingClientTests {
+
+  private static final int CHAMADAS = 32;
+
+  private HttpServer servidor;
+  private GeocodingClient geocodingClient;
+  private final AtomicInteger requisicoes = new AtomicInteger();
+  private volatile int status = 200;
+
+  @BeforeEach
+  void iniciarServidor() throws IOException {
+    servidor = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    servidor.createContext("/search", this::responder);
+    servidor.setExecutor(Executors.newCachedThreadPool());
+    servidor.start();
+    geocodingClient = new GeocodingClient(
+        "http://127.0.0.1:" + servidor.getAddress().getPort() + "/search", "agenda-testes",
+        Duration.ofSeconds(1), Duration.ofSeconds(5), 4, Duration.ofSeconds(5),
+        100, Duration.ofHours(1), Duration.ofMinutes(1));
+  }
+
+  @AfterEach
+  void pararServidor() {
+    servidor.stop(0);
+  }
+
+  @Test
+  void chamadasConcorrentesParaOMesmoCepFazemUmaUnicaConsulta() throws Exception {
+    List<Object> resultados = executarEmParalelo("01310-100");
+
+    assertThat(requisicoes.get()).isEqualTo(1);
+    assertThat(resultados).hasSize(CHAMADAS).allSatisfy(resultado -> {
+      assertThat(resultado).isInstanceOf(Point.class);
+      assertThat(((Point) resultado).getY()).isEqualTo(-23.5613);
+      assertThat(((Point) resultado).getX()).isEqualTo(-46.6565);
+    });
+  }
+
+  @Test
+  void falhaDaConsultaEhCompartilhadaENaoVaiParaOCache() throws Exception {
+    status = 500;
+
+    List<Object> resultados = executarEmParalelo("20040-002");
+
+    assertThat(requisicoes.get()).isEqualTo(1);
+    assertThat(resultados).hasSize(CHAMADAS).allSatisfy(resultado -> {
+      assertThat(resultado).isInstanceOf(GeocodificacaoIndisponivelException.class);
+      assertThat(((ValidacaoException) resultado).getErros()).containsEntry("cep", "Falha ao buscar coordenadas");
+    });
+
+    status = 200;
+    geocodingClient.buscarCoordenadas("20040-002");
+    assertThat(requisicoes.get()).isEqualTo(2);
+  }
+
+  private List<Object> executarEmParalelo(String cep) throws InterruptedException, ExecutionException {
+    ExecutorService executor = Executors.newFixedThreadPool(CHAMADAS);
+    CountDownLatch largada = new CountDownLatch(1);
+    try {
+      List<Future<Object>> futuros = new ArrayList<>();
+      for (int i = 0; i < CHAMADAS; i++) {
+        Callable<Object> chamada = () -> {
+          largada.await();
+          try {
+            return geocodingClient.buscarCoordenadas(cep);
+          } catch (ValidacaoException e) {
+            return e;
+          }
+        };
+        futuros.add(executor.submit(chamada));
+      }
+      largada.countDown();
+
+      List<Object> resultados = new ArrayList<>();
+      for (Future<Object> futuro : futuros) {
+        resultados.add(futuro.get());
+      }
+      return resultados;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private void responder(HttpExchange troca) throws IOException {
+    requisicoes.incrementAndGet();
+    try {
+      // Segura a resposta para que todas as chamadas cheguem enquanto a primeira está em andamento.
+      Thread.sleep(500);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    byte[] corpo = ("[{\"place_id\":1,\"boundingbox\":[\"-23.6\",\"-23.5\"],\"lat\":\"-23.5613\",\"lon\":\"-46.6565\"},"
+        + "{\"lat\":\"0\",\"lon\":\"0\"}]").getBytes(StandardCharsets.UTF_8);
+    troca.sendResponseHeaders(status, corpo.length);
+    try (OutputStream saida = troca.getResponseBody()) {
+      saida.write(corpo);
+    }
+  }
+}
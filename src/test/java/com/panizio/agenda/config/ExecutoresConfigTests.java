@@ -0,0 +1,125 @@
+package com.panizio.agenda.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.panizio.agenda.exception.ContadorValidacao;
+import com.panizio.agenda.exception.GlobalExceptionHandler;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.DispatcherType;
+
+class ExecutoresConfigTests {
+
+  private final WebApplicationContextRunner contexto = new WebApplicationContextRunner()
+      .withConfiguration(AutoConfigurations.of(TaskExecutionAutoConfiguration.class,
+          DispatcherServletAutoConfiguration.class, WebMvcAutoConfiguration.class,
+          HttpMessageConvertersAutoConfiguration.class))
+      .withUserConfiguration(ExecutoresConfig.class)
+      .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+      .withBean(ContadorValidacao.class)
+      .withBean(GlobalExceptionHandler.class)
+      .withBean(RespostaLenta.class);
+
+  @Test
+  void respostasAssincronasUsamOExecutorLimitado() {
+    contexto.withPropertyValues("agenda.executores.respostas.tamanho=3").run(context -> {
+      Object executor = ReflectionTestUtils.getField(context.getBean(RequestMappingHandlerAdapter.class),
+          "taskExecutor");
+
+      assertThat(executor)
+          .isSameAs(context.getBean(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME));
+      assertThat(((ThreadPoolTaskExecutor) executor).getMaxPoolSize()).isEqualTo(3);
+    });
+  }
+
+  @Test
+  void perfilVirtualLigaVirtualThreadsNoExecutorDeRespostas() {
+    ThreadPoolTaskExecutor executor = new ExecutoresConfig().applicationTaskExecutor(new SimpleMeterRegistry(), 3,
+        0, "abortar", 30, true);
+
+    // Sem initialize(): virtual threads só existem a partir do Java 21.
+    assertThat(ReflectionTestUtils.getField(executor, "virtualThreads")).isEqualTo(true);
+    assertThat(executor.getMaxPoolSize()).isEqualTo(3);
+  }
+
+  @Test
+  void respostaAlemDoLimiteRecebe503() {
+    contexto.withPropertyValues("agenda.executores.respostas.tamanho=1").run(context -> {
+      MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+      RespostaLenta resposta = context.getBean(RespostaLenta.class);
+
+      MvcResult primeira = mockMvc.perform(get("/lenta")).andExpect(request().asyncStarted()).andReturn();
+      assertThat(resposta.iniciada.await(5, TimeUnit.SECONDS)).isTrue();
+      MvcResult segunda = mockMvc.perform(get("/lenta")).andExpect(request().asyncStarted()).andReturn();
+
+      mockMvc.perform(despacho(segunda))
+          .andExpect(status().isServiceUnavailable())
+          .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+      resposta.liberar.countDown();
+      mockMvc.perform(asyncDispatch(primeira)).andExpect(status().isOk());
+    });
+  }
+
+  /**
+   * Como {@code asyncDispatch}, que não serve aqui: a recusa do executor define
+   * o resultado ainda dentro da requisição, antes de o MockMvc passar a
+   * registrá-lo.
+   */
+  private static RequestBuilder despacho(MvcResult resultado) {
+    return servletContext -> {
+      MockHttpServletRequest requisicao = resultado.getRequest();
+      requisicao.setDispatcherType(DispatcherType.ASYNC);
+      requisicao.setAsyncStarted(false);
+      return requisicao;
+    };
+  }
+
+  @RestController
+  static class RespostaLenta {
+
+    final CountDownLatch iniciada = new CountDownLatch(1);
+    final CountDownLatch liberar = new CountDownLatch(1);
+
+    @GetMapping("/lenta")
+    StreamingResponseBody lenta() {
+      return saida -> {
+        iniciada.countDown();
+        try {
+          liberar.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        saida.write('\n');
+      };
+    }
+  }
+}
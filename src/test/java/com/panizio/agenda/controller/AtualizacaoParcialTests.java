@@ -0,0 +1,145 @@
+package com.panizio.agenda.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.panizio.agenda.client.GeocodingClient;
+import com.panizio.agenda.exception.ContadorValidacao;
+import com.panizio.agenda.exception.GlobalExceptionHandler;
+import com.panizio.agenda.repository.ChaveContato;
+import com.panizio.agenda.repository.PessoaFisicaRepository;
+import com.panizio.agenda.repository.PessoaJuridicaRepository;
+import com.panizio.agenda.service.ChavesCadastradas;
+import com.panizio.agenda.service.EmailService;
+import com.panizio.agenda.service.IndiceEspacialContatos;
+import com.panizio.agenda.service.PessoaFisicaService;
+import com.panizio.agenda.service.PessoaJuridicaService;
+import com.panizio.agenda.utils.CacheLeitura;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AtualizacaoParcialTests {
+
+  private static final String CNPJ = "11222333000181";
+
+  private final PessoaJuridicaRepository pessoaJuridicaRepository = mock(PessoaJuridicaRepository.class);
+  private final PessoaFisicaRepository pessoaFisicaRepository = mock(PessoaFisicaRepository.class);
+  private final MockMvc mockMvc = MockMvcBuilders
+      .standaloneSetup(pessoaJuridicaController(), pessoaFisicaController())
+      .setControllerAdvice(new GlobalExceptionHandler(new ContadorValidacao(new SimpleMeterRegistry())))
+      .build();
+
+  @Test
+  void cnpjInexistenteResponde404() throws Exception {
+    when(pessoaJuridicaRepository.atualizarColunas(eq(CNPJ), anyMap(), any())).thenReturn(0);
+    when(pessoaJuridicaRepository.findVersao(CNPJ)).thenReturn(Optional.empty());
+
+    mockMvc.perform(patch("/api/pjuridica/" + CNPJ)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"nomeFantasia\": \"Exemplo\"}"))
+        .andExpect(status().isNotFound())
+        .andExpect(jsonPath("$.erro").value("Pessoa jurídica não encontrada"));
+  }
+
+  @Test
+  void cnpjInexistenteSemCamposResponde404() throws Exception {
+    when(pessoaJuridicaRepository.findVersao(CNPJ)).thenReturn(Optional.empty());
+
+    mockMvc.perform(patch("/api/pjuridica/" + CNPJ).contentType(MediaType.APPLICATION_JSON).content("{}"))
+        .andExpect(status().isNotFound());
+  }
+
+  @Test
+  void cpfInexistenteResponde404() throws Exception {
+    when(pessoaFisicaRepository.atualizarColunas(eq("52998224725"), anyMap(), any())).thenReturn(0);
+    when(pessoaFisicaRepository.findVersao("52998224725")).thenReturn(Optional.empty());
+
+    mockMvc.perform(patch("/api/pfisica/52998224725")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"nome\": \"Maria da Silva\"}"))
+        .andExpect(status().isNotFound())
+        .andExpect(jsonPath("$.erro").value("Usuário não encontrado"));
+  }
+
+  @Test
+  void ifMatchDesatualizadoResponde412ComAVersaoAtual() throws Exception {
+    when(pessoaJuridicaRepository.atualizarColunas(eq(CNPJ), anyMap(), eq(3L))).thenReturn(0);
+    when(pessoaJuridicaRepository.findVersao(CNPJ)).thenReturn(Optional.of(5L));
+
+    mockMvc.perform(patch("/api/pjuridica/" + CNPJ)
+        .header(HttpHeaders.IF_MATCH, "\"3\"")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"nomeFantasia\": \"Exemplo\"}"))
+        .andExpect(status().isPreconditionFailed())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"5\""));
+  }
+
+  @Test
+  void ifMatchAtualGrava() throws Exception {
+    when(pessoaJuridicaRepository.atualizarColunas(eq(CNPJ), anyMap(), eq(5L))).thenReturn(1);
+
+    mockMvc.perform(patch("/api/pjuridica/" + CNPJ)
+        .header(HttpHeaders.IF_MATCH, "\"5\"")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"nomeFantasia\": \"Exemplo\"}"))
+        .andExpect(status().isNoContent())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"6\""));
+  }
+
+  @Test
+  void emailDeOutroCadastroResponde400() throws Exception {
+    when(pessoaJuridicaRepository.atualizarColunas(eq(CNPJ), anyMap(), any()))
+        .thenThrow(new DataIntegrityViolationException("pessoa_juridica_email_key"));
+    ChaveContato outro = mock(ChaveContato.class);
+    when(outro.getId()).thenReturn("11444777000161");
+    when(outro.getEmail()).thenReturn("contato@exemplo.com");
+    when(pessoaJuridicaRepository.findChavesExistentes(null, "contato@exemplo.com")).thenReturn(List.of(outro));
+
+    mockMvc.perform(patch("/api/pjuridica/" + CNPJ)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"email\": \"contato@exemplo.com\"}"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.email").value("E-mail já cadastrado"));
+  }
+
+  private PessoaJuridicaController pessoaJuridicaController() {
+    PessoaJuridicaService service = new PessoaJuridicaService(pessoaJuridicaRepository, mock(EmailService.class),
+        mock(GeocodingClient.class), mock(IndiceEspacialContatos.class), mock(ChavesCadastradas.class),
+        new TransactionTemplate(mock(PlatformTransactionManager.class)),
+        new CacheLeitura<>(0, Duration.ZERO, Duration.ZERO), false);
+    PessoaJuridicaController controller = new PessoaJuridicaController();
+    ReflectionTestUtils.setField(controller, "pessoaJuridicaService", service);
+    return controller;
+  }
+
+  private PessoaFisicaController pessoaFisicaController() {
+    PessoaFisicaService service = new PessoaFisicaService(pessoaFisicaRepository, mock(EmailService.class),
+        mock(GeocodingClient.class), mock(IndiceEspacialContatos.class), mock(ChavesCadastradas.class),
+        new TransactionTemplate(mock(PlatformTransactionManager.class)),
+        new CacheLeitura<>(0, Duration.ZERO, Duration.ZERO), false);
+    PessoaFisicaController controller = new PessoaFisicaController();
+    ReflectionTestUtils.setField(controller, "pessoaFisicaService", service);
+    return controller;
+  }
+}
@@ -0,0 +1,71 @@
+package com.panizio.agenda.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class EtagsTests {
+
+  @Test
+  void ifNoneMatchUsaComparacaoFracaEAceitaListas() {
+    assertThat(Etags.corresponde("\"3\"", Etags.deVersao(3))).isTrue();
+    assertThat(Etags.corresponde("W/\"3\"", Etags.deVersao(3))).isTrue();
+    assertThat(Etags.corresponde("\"1\", \"3\"", Etags.deVersao(3))).isTrue();
+    assertThat(Etags.corresponde("*", Etags.deVersao(3))).isTrue();
+    assertThat(Etags.corresponde("\"2\"", Etags.deVersao(3))).isFalse();
+  }
+
+  @Test
+  void ifMatchSoAceitaEtagForteDeUmaVersao() {
+    assertThat(Etags.versaoExigida(null)).isNull();
+    assertThat(Etags.versaoExigida("*")).isNull();
+    assertThat(Etags.versaoExigida("\"7\"")).isEqualTo(7L);
+    assertThat(Etags.versaoExigida("W/\"7\"")).isEqualTo(-1L);
+    assertThat(Etags.versaoExigida("\"p1-abc\"")).isEqualTo(-1L);
+  }
+
+  @Test
+  void etagDoCadastroMudaComFormatoECampos() {
+    String json = Etags.deRepresentacao(3, "application/json", null);
+
+    assertThat(json).startsWith("\"3-").endsWith("\"");
+    assertThat(Etags.deRepresentacao(3, "application/json", null)).isEqualTo(json);
+    assertThat(Etags.deRepresentacao(4, "application/json", null)).isNotEqualTo(json);
+    assertThat(Etags.deRepresentacao(3, "application/cbor", null)).isNotEqualTo(json);
+    assertThat(Etags.deRepresentacao(3, "application/json", "nome,email")).isNotEqualTo(json);
+    assertThat(Etags.corresponde(json, Etags.deRepresentacao(3, "application/cbor", null))).isFalse();
+  }
+
+  @Test
+  void ifMatchComparaSoAVersaoDaEtagDoCadastro() {
+    assertThat(Etags.versaoExigida(Etags.deRepresentacao(7, "application/json", "nome"))).isEqualTo(7L);
+    assertThat(Etags.versaoExigida("W/" + Etags.deRepresentacao(7, null, null))).isEqualTo(-1L);
+    assertThat(Etags.versaoExigida("\"7-\"")).isEqualTo(7L);
+  }
+
+  @Test
+  void etagDaPaginaMudaComVersaoOuComposicao() {
+    List<Map.Entry<String, Long>> pagina = List.of(Map.entry("1", 0L), Map.entry("2", 4L));
+    String etag = Etags.dePagina(pagina, Map.Entry::getKey, Map.Entry::getValue);
+
+    assertThat(Etags.dePagina(List.of(Map.entry("1", 0L), Map.entry("2", 4L)), Map.Entry::getKey,
+        Map.Entry::getValue)).isEqualTo(etag);
+    assertThat(Etags.dePagina(List.of(Map.entry("1", 0L), Map.entry("2", 5L)), Map.Entry::getKey,
+        Map.Entry::getValue)).isNotEqualTo(etag);
+    assertThat(Etags.dePagina(List.of(Map.entry("1", 0L), Map.entry("3", 4L)), Map.Entry::getKey,
+        Map.Entry::getValue)).isNotEqualTo(etag);
+  }
+
+  @Test
+  void etagDaPaginaEFracaEComparadaSemOPrefixo() {
+    String etag = Etags.dePagina(List.of(Map.entry("1", 0L)), Map.Entry::getKey, Map.Entry::getValue);
+
+    assertThat(etag).startsWith("W/\"p1-");
+    assertThat(Etags.corresponde(etag, etag)).isTrue();
+    assertThat(Etags.corresponde(etag.substring(2), etag)).isTrue();
+    assertThat(Etags.versaoExigida(etag)).isEqualTo(-1L);
+  }
+}
@@ -0,0 +1,123 @@
+package com.panizio.agenda.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.panizio.agenda.model.PessoaFisica;
+import com.panizio.agenda.model.PessoaJuridica;
+import com.panizio.agenda.service.PessoaFisicaService;
+import com.panizio.agenda.service.PessoaJuridicaService;
+
+class ListagemNdjsonTests {
+
+  private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+  @Test
+  void pessoasFisicasSaemUmaPorLinha() throws Exception {
+    PessoaFisicaService service = mock(PessoaFisicaService.class);
+    doAnswer(invocacao -> {
+      Consumer<List<PessoaFisica>> consumidor = invocacao.getArgument(0);
+      consumidor.accept(List.of(pessoaFisica("52998224725"), pessoaFisica("11144477735")));
+      consumidor.accept(List.of(pessoaFisica("39053344705")));
+      return null;
+    }).when(service).percorrerUsuarios(any());
+    PessoaFisicaController controller = new PessoaFisicaController();
+    ReflectionTestUtils.setField(controller, "pessoaFisicaService", service);
+    ReflectionTestUtils.setField(controller, "objectMapper", objectMapper);
+
+    List<String> linhas = linhas(controller, "/api/pfisica");
+
+    assertThat(linhas).extracting(linha -> objectMapper.readTree(linha).get("cpf").asText())
+        .containsExactly("52998224725", "11144477735", "39053344705");
+  }
+
+  @Test
+  void pessoasJuridicasSaemUmaPorLinha() throws Exception {
+    PessoaJuridicaService service = mock(PessoaJuridicaService.class);
+    doAnswer(invocacao -> {
+      Consumer<List<PessoaJuridica>> consumidor = invocacao.getArgument(0);
+      consumidor.accept(List.of(pessoaJuridica("11222333000181"), pessoaJuridica("11444777000161")));
+      return null;
+    }).when(service).percorrerPessoasJuridicas(any());
+    PessoaJuridicaController controller = new PessoaJuridicaController();
+    ReflectionTestUtils.setField(controller, "pessoaJuridicaService", service);
+    ReflectionTestUtils.setField(controller, "objectMapper", objectMapper);
+
+    List<String> linhas = linhas(controller, "/api/pjuridica");
+
+    assertThat(linhas).extracting(linha -> objectMapper.readTree(linha).get("cnpj").asText())
+        .containsExactly("11222333000181", "11444777000161");
+  }
+
+  @Test
+  void flushUmaVezPorPagina() throws Exception {
+    AtomicInteger flushes = new AtomicInteger();
+    OutputStream saida = new ByteArrayOutputStream() {
+      @Override
+      public void flush() {
+        flushes.incrementAndGet();
+      }
+    };
+
+    Ndjson.<PessoaFisica>responder(objectMapper, consumidor -> {
+      consumidor.accept(List.of(pessoaFisica("52998224725"), pessoaFisica("11144477735")));
+      consumidor.accept(List.of(pessoaFisica("39053344705")));
+    }).getBody().writeTo(saida);
+
+    assertThat(flushes).hasValue(2);
+  }
+
+  /** Corpo da resposta em NDJSON, conferindo que cada linha é um objeto JSON completo e nada mais. */
+  private List<String> linhas(Object controller, String caminho) throws Exception {
+    MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    MvcResult resultado = mockMvc.perform(get(caminho).accept(Ndjson.MEDIA_TYPE))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    String corpo = mockMvc.perform(asyncDispatch(resultado))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(Ndjson.MEDIA_TYPE))
+        .andReturn().getResponse().getContentAsString();
+
+    assertThat(corpo).endsWith("\n");
+    List<String> linhas = List.of(corpo.split("\n"));
+    for (String linha : linhas) {
+      assertThat(linha).startsWith("{").endsWith("}");
+      JsonNode objeto = objectMapper.readTree(linha);
+      assertThat(objeto.isObject()).isTrue();
+    }
+    return linhas;
+  }
+
+  private static PessoaFisica pessoaFisica(String cpf) {
+    return new PessoaFisica(cpf, "Maria da Silva", LocalDate.of(1990, 5, 17), "11999990000", "01001000",
+        cpf + "@exemplo.com", "Rua das Flores, 100 - Centro", null);
+  }
+
+  private static PessoaJuridica pessoaJuridica(String cnpj) {
+    return new PessoaJuridica(cnpj, "Empresa Exemplo Ltda", "Exemplo", "1133330000", cnpj + "@exemplo.com",
+        "Rua das Flores, 100 - Centro", "01001000");
+  }
+}
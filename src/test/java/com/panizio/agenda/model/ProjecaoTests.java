@@ -0,0 +1,35 @@
+package com.panizio.agenda.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.panizio.agenda.exception.ValidacaoException;
+
+class ProjecaoTests {
+
+  private static final List<String> DISPONIVEIS = List.of("cpf", "nome", "telefone", "versao");
+
+  @Test
+  void camposSaemNaOrdemDosDisponiveisSemRepeticao() {
+    assertThat(Projecao.campos(" telefone,nome ,telefone,", DISPONIVEIS)).containsExactly("nome", "telefone");
+  }
+
+  @Test
+  void campoDesconhecidoOuListaVaziaSaoRecusados() {
+    assertThatThrownBy(() -> Projecao.campos("nome,senha", DISPONIVEIS))
+        .isInstanceOfSatisfying(ValidacaoException.class, e -> assertThat(e.getErros()).containsKey("fields"));
+    assertThatThrownBy(() -> Projecao.campos(" , ", DISPONIVEIS)).isInstanceOf(ValidacaoException.class);
+  }
+
+  @Test
+  void serializaSoOsCampos() throws Exception {
+    Projecao projecao = new Projecao("52998224725", 3, Map.of("nome", "Ana"));
+    assertThat(new ObjectMapper().writeValueAsString(projecao)).isEqualTo("{\"nome\":\"Ana\"}");
+  }
+}
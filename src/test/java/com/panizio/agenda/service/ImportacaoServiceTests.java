@@ -0,0 +1,231 @@
+package com.panizio.agenda.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import com.panizio.agenda.client.GeocodingClient;
+import com.panizio.agenda.exception.ContadorValidacao;
+import com.panizio.agenda.exception.GeocodificacaoIndisponivelException;
+import com.panizio.agenda.exception.ValidacaoException;
+import com.panizio.agenda.model.FormatoArquivo;
+import com.panizio.agenda.model.Importacao;
+import com.panizio.agenda.model.PessoaFisica;
+import com.panizio.agenda.repository.ChaveContato;
+import com.panizio.agenda.repository.PessoaFisicaRepository;
+import com.panizio.agenda.utils.CacheLeitura;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+
+class ImportacaoServiceTests {
+
+  private final PessoaFisicaRepository pessoaFisicaRepository = mock(PessoaFisicaRepository.class);
+  private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+  private final ChavesCadastradas chavesCadastradas = mock(ChavesCadastradas.class);
+  private final GeocodingClient geocodingClient = mock(GeocodingClient.class);
+  private final ThreadPoolTaskExecutor executorConversao = new ThreadPoolTaskExecutor();
+
+  @TempDir
+  Path diretorio;
+
+  @AfterEach
+  void encerrar() {
+    executorConversao.shutdown();
+  }
+
+  @Test
+  void documentoOuEmailRepetidoNoBlocoERecusado() {
+    Importacao importacao = importar(
+        linha("52998224725", "maria@exemplo.com"),
+        linha("52998224725", "outra@exemplo.com"),
+        linha("11144477735", "maria@exemplo.com"),
+        linha("39053344705", "jose@exemplo.com"));
+
+    assertThat(importacao.getImportadas()).isEqualTo(2);
+    assertThat(errosPorLinha(importacao)).containsOnly(
+        Map.entry(2L, Map.of("cpf", "Repetido na linha 1")),
+        Map.entry(3L, Map.of("email", "Repetido na linha 1")));
+  }
+
+  @Test
+  void chavesJaCadastradasSaoConsultadasUmaVezPorBloco() {
+    when(chavesCadastradas.podeExistirPessoaFisica(anyString(), anyString())).thenReturn(true);
+    List<ChaveContato> cadastradas = List.of(chave("11144477735", "antiga@exemplo.com"),
+        chave("00000000191", "jose@exemplo.com"));
+    when(pessoaFisicaRepository.findChavesExistentesEm(anyCollection(), anyCollection())).thenReturn(cadastradas);
+
+    Importacao importacao = importar(
+        linha("52998224725", "maria@exemplo.com"),
+        linha("11144477735", "ana@exemplo.com"),
+        linha("39053344705", "jose@exemplo.com"));
+
+    verify(pessoaFisicaRepository, times(1)).findChavesExistentesEm(anyCollection(), anyCollection());
+    assertThat(importacao.getImportadas()).isEqualTo(1);
+    assertThat(errosPorLinha(importacao)).containsOnly(
+        Map.entry(2L, Map.of("cpf", "CPF já cadastrado")),
+        Map.entry(3L, Map.of("email", "E-mail já cadastrado")));
+  }
+
+  @Test
+  void conflitoNaGravacaoConfereDeNovoEGravaSemAsLinhasEmConflito() {
+    when(chavesCadastradas.podeExistirPessoaFisica(anyString(), anyString())).thenReturn(false);
+    ChaveContato cadastrada = chave("11144477735", "antiga@exemplo.com");
+    when(pessoaFisicaRepository.findChavesExistentesEm(anyCollection(), anyCollection()))
+        .thenReturn(List.of(cadastrada));
+    when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any()))
+        .thenThrow(new DataIntegrityViolationException("pessoa_fisica_pkey"))
+        .thenReturn(new int[0][]);
+
+    Importacao importacao = importar(
+        linha("52998224725", "maria@exemplo.com"),
+        linha("11144477735", "ana@exemplo.com"),
+        linha("39053344705", "jose@exemplo.com"));
+
+    assertThat(cpfsGravados()).containsExactly(
+        List.of("52998224725", "11144477735", "39053344705"),
+        List.of("52998224725", "39053344705"));
+    assertThat(importacao.getStatus()).isEqualTo(Importacao.Status.CONCLUIDA);
+    assertThat(importacao.getImportadas()).isEqualTo(2);
+    assertThat(errosPorLinha(importacao)).containsOnly(Map.entry(2L, Map.of("cpf", "CPF já cadastrado")));
+  }
+
+  @Test
+  void segundoConflitoNaGravacaoInterrompeAImportacao() {
+    when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any()))
+        .thenThrow(new DataIntegrityViolationException("pessoa_fisica_pkey"));
+
+    Importacao importacao = importar(linha("52998224725", "maria@exemplo.com"));
+
+    assertThat(cpfsGravados()).hasSize(2);
+    assertThat(importacao.getStatus()).isEqualTo(Importacao.Status.FALHOU);
+    assertThat(importacao.getImportadas()).isZero();
+  }
+
+  @Test
+  void cepInexistenteRecusaSoAsLinhasComEle() {
+    when(geocodingClient.buscarCoordenadas("99999999"))
+        .thenThrow(new ValidacaoException(Map.of("cep", "CEP não encontrado")));
+
+    Importacao importacao = importar(
+        linha("52998224725", "maria@exemplo.com"),
+        linha("11144477735", "ana@exemplo.com", "99999999"),
+        linha("39053344705", "jose@exemplo.com", "99999999"));
+
+    verify(geocodingClient, times(1)).buscarCoordenadas("99999999");
+    assertThat(importacao.getImportadas()).isEqualTo(1);
+    assertThat(errosPorLinha(importacao)).containsOnly(
+        Map.entry(2L, Map.of("cep", "CEP não encontrado")),
+        Map.entry(3L, Map.of("cep", "CEP não encontrado")));
+  }
+
+  @Test
+  void falhaDoServicoDeGeolocalizacaoInterrompeAImportacaoSemRecusarLinhas() {
+    when(geocodingClient.buscarCoordenadas(anyString())).thenThrow(new GeocodificacaoIndisponivelException());
+
+    Importacao importacao = importar(linha("52998224725", "maria@exemplo.com"));
+
+    verify(jdbcTemplate, never()).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+    assertThat(importacao.getStatus()).isEqualTo(Importacao.Status.FALHOU);
+    assertThat(importacao.getFalha()).isEqualTo("Serviço de geolocalização indisponível; tente novamente");
+    assertThat(importacao.getRejeitadas()).isZero();
+  }
+
+  @Test
+  void consultasRemotasSaoEspacadasPeloIntervalo() {
+    long inicio = System.nanoTime();
+    Importacao importacao = importar(200,
+        linha("52998224725", "maria@exemplo.com", "01001000"),
+        linha("11144477735", "ana@exemplo.com", "20040002"),
+        linha("39053344705", "jose@exemplo.com", "30130000"));
+
+    assertThat(importacao.getImportadas()).isEqualTo(3);
+    assertThat(Duration.ofNanos(System.nanoTime() - inicio)).isGreaterThanOrEqualTo(Duration.ofMillis(400));
+  }
+
+  private Importacao importar(String... linhas) {
+    return importar(0, linhas);
+  }
+
+  /** Importa as linhas em NDJSON, num bloco só, na thread do teste. */
+  private Importacao importar(long intervaloConsultaMs, String... linhas) {
+    executorConversao.setCorePoolSize(2);
+    executorConversao.setMaxPoolSize(2);
+    executorConversao.initialize();
+    ImportacaoPessoaFisica pessoasFisicas = new ImportacaoPessoaFisica(mock(PessoaFisicaService.class),
+        pessoaFisicaRepository, mock(EmailService.class), jdbcTemplate, chavesCadastradas,
+        mock(IndiceEspacialContatos.class), new CacheLeitura<>(0, Duration.ZERO, Duration.ZERO));
+    ImportacaoService service = new ImportacaoService(pessoasFisicas, mock(ImportacaoPessoaJuridica.class),
+        Jackson2ObjectMapperBuilder.json().build(), Validation.buildDefaultValidatorFactory().getValidator(),
+        geocodingClient, new TransactionTemplate(mock(PlatformTransactionManager.class)),
+        new SyncTaskExecutor(), executorConversao, new ContadorValidacao(new SimpleMeterRegistry()), false,
+        diretorio.toString(), DataSize.ofMegabytes(1), 1000, 500, 100, Duration.ofHours(1),
+        intervaloConsultaMs);
+
+    byte[] corpo = String.join("\n", linhas).getBytes(StandardCharsets.UTF_8);
+    return service.importarPessoasFisicas(new ByteArrayInputStream(corpo), FormatoArquivo.NDJSON, false);
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<List<String>> cpfsGravados() {
+    ArgumentCaptor<Collection<PessoaFisica>> gravadas = ArgumentCaptor.forClass(Collection.class);
+    verify(jdbcTemplate, atLeastOnce())
+        .batchUpdate(anyString(), gravadas.capture(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+    return gravadas.getAllValues().stream()
+        .map(pessoas -> pessoas.stream().map(PessoaFisica::getCpf).toList())
+        .toList();
+  }
+
+  private static Map<Long, Map<String, String>> errosPorLinha(Importacao importacao) {
+    return importacao.getErros().stream()
+        .collect(Collectors.toMap(Importacao.ErroLinha::linha, Importacao.ErroLinha::erros));
+  }
+
+  private static String linha(String cpf, String email) {
+    return linha(cpf, email, "01001000");
+  }
+
+  private static String linha(String cpf, String email, String cep) {
+    return "{\"cpf\": \"" + cpf + "\", \"nome\": \"Maria da Silva\", \"dataNascimento\": \"1990-05-17\", "
+        + "\"telefone\": \"11999990000\", \"cep\": \"" + cep + "\", \"email\": \"" + email + "\", "
+        + "\"endereco\": \"Rua das Flores, 100 - Centro\"}";
+  }
+
+  private static ChaveContato chave(String id, String email) {
+    ChaveContato chave = mock(ChaveContato.class);
+    when(chave.getId()).thenReturn(id);
+    when(chave.getEmail()).thenReturn(email);
+    return chave;
+  }
+}
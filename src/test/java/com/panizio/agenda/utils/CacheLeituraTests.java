@@ -0,0 +1,153 @@
+package com.panizio.agenda.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class CacheLeituraTests {
+
+  private final AtomicLong agora = new AtomicLong();
+  private final Map<String, String> banco = new ConcurrentHashMap<>();
+  private final AtomicInteger consultas = new AtomicInteger();
+
+  private Optional<String> carregar(String chave) {
+    consultas.incrementAndGet();
+    return Optional.ofNullable(banco.get(chave));
+  }
+
+  @Test
+  void guardaOValorAteSerInvalidado() {
+    CacheLeitura<String, String> cache = new CacheLeitura<>(100, Duration.ofMinutes(10), Duration.ofSeconds(30),
+        agora::get);
+    banco.put("1", "original");
+
+    assertThat(cache.buscar("1", this::carregar)).contains("original");
+    banco.put("1", "alterado");
+    assertThat(cache.buscar("1", this::carregar)).contains("original");
+    assertThat(consultas).hasValue(1);
+
+    cache.invalidar("1");
+    assertThat(cache.buscar("1", this::carregar)).contains("alterado");
+    assertThat(cache.estatisticas().hitCount()).isEqualTo(1);
+  }
+
+  @Test
+  void consultarOCacheNaoEntraNasEstatisticas() {
+    CacheLeitura<String, String> cache = new CacheLeitura<>(100, Duration.ofMinutes(10), Duration.ofSeconds(30),
+        agora::get);
+    banco.put("1", "valor");
+    cache.buscar("1", this::carregar);
+
+    assertThat(cache.emCache("1")).contains("valor");
+    assertThat(cache.emCache("2")).isEmpty();
+    assertThat(cache.estatisticas().hitCount()).isZero();
+    assertThat(cache.estatisticas().missCount()).isEqualTo(1);
+  }
+
+  @Test
+  void ausenciaExpiraAntesDoValorEncontrado() {
+    CacheLeitura<String, String> cache = new CacheLeitura<>(100, Duration.ofMinutes(10), Duration.ofSeconds(30),
+        agora::get);
+    banco.put("1", "existe");
+
+    assertThat(cache.buscar("1", this::carregar)).isPresent();
+    assertThat(cache.buscar("2", this::carregar)).isEmpty();
+    banco.put("2", "criado em outra instância");
+
+    agora.addAndGet(Duration.ofSeconds(31).toNanos());
+    assertThat(cache.buscar("2", this::carregar)).contains("criado em outra instância");
+    assertThat(cache.buscar("1", this::carregar)).contains("existe");
+    assertThat(consultas).hasValue(3);
+  }
+
+  @Test
+  void tamanhoZeroSempreConsultaOCarregador() {
+    CacheLeitura<String, String> cache = new CacheLeitura<>(0, Duration.ofMinutes(10), Duration.ofSeconds(30));
+    banco.put("1", "valor");
+
+    cache.buscar("1", this::carregar);
+    cache.buscar("1", this::carregar);
+    assertThat(consultas).hasValue(2);
+  }
+
+  @Test
+  void invalidarDuranteACargaNaoEsperaENaoDeixaOValorAntigo() throws Exception {
+    CacheLeitura<String, String> cache = new CacheLeitura<>(100, Duration.ofMinutes(10), Duration.ofSeconds(30),
+        agora::get);
+    banco.put("1", "antigo");
+    CountDownLatch lendo = new CountDownLatch(1);
+    CountDownLatch liberar = new CountDownLatch(1);
+
+    CompletableFuture<Optional<String>> lenta = CompletableFuture.supplyAsync(() -> cache.buscar("1", chave -> {
+      Optional<String> valor = carregar(chave);
+      lendo.countDown();
+      await(liberar);
+      return valor;
+    }));
+    assertThat(lendo.await(5, TimeUnit.SECONDS)).isTrue();
+
+    // Nem a invalidação nem outra chave esperam a consulta em andamento
+    banco.put("1", "novo");
+    CompletableFuture.runAsync(() -> cache.invalidar("1")).get(1, TimeUnit.SECONDS);
+    banco.put("2", "outro");
+    assertThat(CompletableFuture.supplyAsync(() -> cache.buscar("2", this::carregar)).get(1, TimeUnit.SECONDS))
+        .contains("outro");
+
+    liberar.countDown();
+    assertThat(lenta.get(5, TimeUnit.SECONDS)).contains("antigo");
+    assertThat(cache.buscar("1", this::carregar)).contains("novo");
+  }
+
+  @Test
+  void buscasSimultaneasDaMesmaChaveFazemUmaConsulta() throws Exception {
+    CacheLeitura<String, String> cache = new CacheLeitura<>(100, Duration.ofMinutes(10), Duration.ofSeconds(30),
+        agora::get);
+    banco.put("1", "valor");
+    CountDownLatch lendo = new CountDownLatch(1);
+    CountDownLatch liberar = new CountDownLatch(1);
+
+    CompletableFuture<Optional<String>> primeira = CompletableFuture.supplyAsync(() -> cache.buscar("1", chave -> {
+      lendo.countDown();
+      await(liberar);
+      return carregar(chave);
+    }));
+    assertThat(lendo.await(5, TimeUnit.SECONDS)).isTrue();
+    CompletableFuture<Optional<String>> segunda = CompletableFuture.supplyAsync(() -> cache.buscar("1", this::carregar));
+
+    liberar.countDown();
+    assertThat(primeira.get(5, TimeUnit.SECONDS)).contains("valor");
+    assertThat(segunda.get(5, TimeUnit.SECONDS)).contains("valor");
+    assertThat(consultas).hasValue(1);
+  }
+
+  @Test
+  void falhaNaCargaNaoFicaNoCache() {
+    CacheLeitura<String, String> cache = new CacheLeitura<>(100, Duration.ofMinutes(10), Duration.ofSeconds(30),
+        agora::get);
+    banco.put("1", "valor");
+
+    assertThatThrownBy(() -> cache.buscar("1", chave -> {
+      throw new IllegalStateException("banco fora do ar");
+    })).isInstanceOf(IllegalStateException.class);
+    assertThat(cache.buscar("1", this::carregar)).contains("valor");
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,34 @@
+package com.panizio.agenda.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class FiltroBloomTests {
+
+  @Test
+  void naoTemFalsoNegativoEMantemTaxaDeFalsoPositivo() {
+    FiltroBloom filtro = new FiltroBloom(10_000, 0.01);
+    IntStream.range(0, 10_000).forEach(i -> filtro.adicionar("usuario" + i + "@exemplo.com"));
+
+    assertThat(IntStream.range(0, 10_000).allMatch(i -> filtro.podeConter("usuario" + i + "@exemplo.com")))
+        .isTrue();
+    long falsosPositivos = IntStream.range(0, 10_000)
+        .filter(i -> filtro.podeConter("outro" + i + "@exemplo.com"))
+        .count();
+    assertThat(falsosPositivos).isLessThan(200);
+  }
+
+  @Test
+  void removeSemAfetarAsDemaisChaves() {
+    FiltroBloom filtro = new FiltroBloom(1_000, 0.01);
+    IntStream.range(0, 1_000).forEach(i -> filtro.adicionar(Integer.toString(i)));
+    IntStream.range(0, 500).forEach(i -> filtro.remover(Integer.toString(i)));
+
+    assertThat(IntStream.range(500, 1_000).allMatch(i -> filtro.podeConter(Integer.toString(i)))).isTrue();
+    long aindaPresentes = IntStream.range(0, 500).filter(i -> filtro.podeConter(Integer.toString(i))).count();
+    assertThat(aindaPresentes).isLessThan(25);
+  }
+}
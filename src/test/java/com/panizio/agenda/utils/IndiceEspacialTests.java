@@ -0,0 +1,79 @@
+package com.panizio.agenda.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.panizio.agenda.model.PontoMapa;
+
+class IndiceEspacialTests {
+
+  @Test
+  void cargaNaoRecolocaPontoRemovidoDuranteEla() {
+    IndiceEspacial indice = new IndiceEspacial(0.05);
+    indice.iniciarCarga();
+    // Excluído e com coordenadas apagadas depois que o cursor os leu
+    indice.remover("excluido");
+    indice.remover("sem-coordenadas");
+    // Atualizado durante a carga: vale a posição nova
+    indice.colocar("movido", -23.0, -46.0);
+
+    indice.colocarSeAusente("excluido", -23.5, -46.6);
+    indice.colocarSeAusente("sem-coordenadas", -23.5, -46.6);
+    indice.colocarSeAusente("movido", -23.5, -46.6);
+    indice.colocarSeAusente("intacto", -23.5, -46.6);
+    indice.concluirCarga();
+
+    assertThat(indice.tamanho()).isEqualTo(2);
+    assertThat(indice.maisProximos(-23.0, -46.0, 1)).extracting(PontoMapa::id).containsExactly("movido");
+    assertThat(indice.maisProximos(-23.5, -46.6, 1)).extracting(PontoMapa::id).containsExactly("intacto");
+
+    indice.remover("intacto");
+    indice.colocarSeAusente("intacto", -23.5, -46.6);
+    assertThat(indice.tamanho()).isEqualTo(2);
+  }
+
+  @Test
+  void vizinhosMaisProximosBatemComBuscaExaustiva() {
+    Random random = new Random(42);
+    IndiceEspacial indice = new IndiceEspacial(0.05);
+    double[][] pontos = new double[5_000][];
+    for (int i = 0; i < pontos.length; i++) {
+      pontos[i] = new double[] { -24 + random.nextDouble() * 2, -47 + random.nextDouble() * 2 };
+      indice.colocar("id" + i, pontos[i][0], pontos[i][1]);
+    }
+
+    for (int consulta = 0; consulta < 50; consulta++) {
+      double lat = -24.5 + random.nextDouble() * 3;
+      double lon = -47.5 + random.nextDouble() * 3;
+
+      List<String> esperado = IntStream.range(0, pontos.length).boxed()
+          .sorted(Comparator.comparingDouble(
+              i -> IndiceEspacial.distanciaMetros(lat, lon, pontos[i][0], pontos[i][1])))
+          .limit(10)
+          .map(i -> "id" + i)
+          .toList();
+
+      assertThat(indice.maisProximos(lat, lon, 10)).extracting(PontoMapa::id).isEqualTo(esperado);
+    }
+  }
+
+  @Test
+  void atualizaERemovePontos() {
+    IndiceEspacial indice = new IndiceEspacial(0.05);
+    indice.colocar("a", -23.55, -46.63);
+    indice.colocar("b", -22.90, -43.17);
+    indice.colocar("a", -15.79, -47.88);
+    indice.remover("b");
+
+    assertThat(indice.tamanho()).isEqualTo(1);
+    assertThat(indice.naCaixa(-24, -47, -23, -46, 10)).isEmpty();
+    assertThat(indice.naCaixa(-16, -48, -15, -47, 10)).extracting(PontoMapa::id).containsExactly("a");
+    assertThat(indice.maisProximos(-23.55, -46.63, 5)).extracting(PontoMapa::id).containsExactly("a");
+  }
+}
@@ -0,0 +1,38 @@
+package com.panizio.agenda.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+class LinhaCsvTests {
+
+  @Test
+  void detectaSeparadorForaDeAspas() {
+    assertThat(LinhaCsv.detectarSeparador("cpf;nome;email")).isEqualTo(';');
+    assertThat(LinhaCsv.detectarSeparador("\"a;b\",nome")).isEqualTo(',');
+    assertThat(LinhaCsv.detectarSeparador("cpf")).isEqualTo(',');
+  }
+
+  @Test
+  void divideRespeitandoAspasEColunasVazias() {
+    assertThat(LinhaCsv.dividir("123, \"Rua A, 10 - Centro\" ,,\"diz \"\"oi\"\"\"", ','))
+        .containsExactly("123", "Rua A, 10 - Centro", "", "diz \"oi\"");
+  }
+
+  @Test
+  void recusaAspasNaoFechadas() {
+    assertThatThrownBy(() -> LinhaCsv.dividir("123,\"Rua A", ','))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void escreveOQueADivisaoLeDeVolta() throws Exception {
+    StringBuilder linha = new StringBuilder();
+    LinhaCsv.escrever(linha, ',', "123", null, "Rua A, 10 - Centro", "diz \"oi\"");
+
+    assertThat(linha).hasToString("123,,\"Rua A, 10 - Centro\",\"diz \"\"oi\"\"\"");
+    assertThat(LinhaCsv.dividir(linha.toString(), ','))
+        .containsExactly("123", "", "Rua A, 10 - Centro", "diz \"oi\"");
+  }
+}
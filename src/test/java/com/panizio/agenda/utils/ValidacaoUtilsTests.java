@@ -0,0 +1,54 @@
+package com.panizio.agenda.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class ValidacaoUtilsTests {
+
+  @Test
+  void validaCpf() {
+    assertThat(ValidacaoUtils.validarCPF("529.982.247-25")).isTrue();
+    assertThat(ValidacaoUtils.validarCPF("11144477735")).isTrue();
+    assertThat(ValidacaoUtils.validarCPF(new StringBuilder("111.444.777-35"))).isTrue();
+
+    assertThat(ValidacaoUtils.validarCPF("529.982.247-24")).isFalse();
+    assertThat(ValidacaoUtils.validarCPF("529.982.247-2")).isFalse();
+    assertThat(ValidacaoUtils.validarCPF("529.982.247-250")).isFalse();
+    assertThat(ValidacaoUtils.validarCPF("111.111.111-11")).isFalse();
+    assertThat(ValidacaoUtils.validarCPF("")).isFalse();
+    assertThat(ValidacaoUtils.validarCPF(null)).isFalse();
+  }
+
+  @Test
+  void validaCnpj() {
+    assertThat(ValidacaoUtils.validarCNPJ("11.222.333/0001-81")).isTrue();
+    assertThat(ValidacaoUtils.validarCNPJ("04252011000110")).isTrue();
+
+    assertThat(ValidacaoUtils.validarCNPJ("11.222.333/0001-82")).isFalse();
+    assertThat(ValidacaoUtils.validarCNPJ("11.222.333/0001-8")).isFalse();
+    assertThat(ValidacaoUtils.validarCNPJ("00.000.000/0000-00")).isFalse();
+    assertThat(ValidacaoUtils.validarCNPJ(null)).isFalse();
+  }
+
+  @Test
+  void validaTelefoneECep() {
+    assertThat(ValidacaoUtils.validarTelefone("(11) 98765-4321")).isTrue();
+    assertThat(ValidacaoUtils.validarTelefone("(10) 98765-4321")).isFalse();
+    assertThat(ValidacaoUtils.validarTelefone("(11) 8765-4321")).isFalse();
+    assertThat(ValidacaoUtils.validarTelefone(null)).isFalse();
+
+    assertThat(ValidacaoUtils.validarCEP("01310-100")).isTrue();
+    assertThat(ValidacaoUtils.validarCEP("0131-100")).isFalse();
+    assertThat(ValidacaoUtils.validarCEP(null)).isFalse();
+  }
+
+  @Test
+  void limpaNumerosSemCopiarQuandoJaLimpo() {
+    String limpo = "52998224725";
+    assertThat(ValidacaoUtils.limparNumeros(limpo)).isSameAs(limpo);
+    assertThat(ValidacaoUtils.limparNumeros("529.982.247-25")).isEqualTo(limpo);
+    assertThat(ValidacaoUtils.limparNumeros("abc")).isEmpty();
+    assertThat(ValidacaoUtils.limparNumeros(null)).isEmpty();
+  }
+}